@@ -3,6 +3,7 @@ package shadowshift.studio.apigatewaycompressionranksystem.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -534,6 +535,53 @@ public class MangaProxyController {
                 });
     }
     
+    /**
+     * Получение манифеста главы для читалки (проксирование запроса к сервису хранения).
+     * Тело передаётся без повторной сериализации, ETag и Cache-Control сохраняются,
+     * так что повторное открытие главы с If-None-Match получает 304 без тела
+     */
+    @GetMapping(value = "/chapters/{id}/manifest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> getChapterManifest(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        
+        logger.info("Fetching manifest for chapter with id: {}", id);
+        
+        return webClient.get()
+                .uri("/api/manga/chapters/{id}/manifest", id)
+                .header("Authorization", authHeader != null ? authHeader : "")
+                .headers(headers -> {
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                })
+                .retrieve()
+                .toEntity(String.class)
+                .map(response -> {
+                    ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode());
+                    if (response.getHeaders().getETag() != null) {
+                        builder.eTag(response.getHeaders().getETag());
+                    }
+                    if (response.getHeaders().getCacheControl() != null) {
+                        builder.header(HttpHeaders.CACHE_CONTROL, response.getHeaders().getCacheControl());
+                    }
+                    if (response.getBody() == null) {
+                        return builder.build();
+                    }
+                    return builder.contentType(MediaType.APPLICATION_JSON).<Object>body(response.getBody());
+                })
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                        return Mono.just(ResponseEntity.notFound().build());
+                    }
+                    return Mono.just(ResponseEntity
+                            .status(e.getStatusCode())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(e.getResponseBodyAsString()));
+                });
+    }
+    
     /**
      * Получение глав манги по ID тома (проксирование запроса к сервису хранения)
      */
@@ -30,6 +30,9 @@ dependencies {
     // Spring Data JPA
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     
+    // Messaging
+    implementation("org.springframework.boot:spring-boot-starter-amqp")
+    
     // Database
     runtimeOnly("com.h2database:h2")
     runtimeOnly("org.postgresql:postgresql")
@@ -0,0 +1,20 @@
+package shadowshift.studio.authservice.config;
+
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурация RabbitMQ: обменник событий изменения системных настроек.
+ * Каждый сервис, кэширующий настройки, привязывает к нему собственную очередь.
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    public static final String SYSTEM_SETTINGS_EXCHANGE = "system-settings-exchange";
+
+    @Bean
+    public FanoutExchange systemSettingsExchange() {
+        return new FanoutExchange(SYSTEM_SETTINGS_EXCHANGE);
+    }
+}
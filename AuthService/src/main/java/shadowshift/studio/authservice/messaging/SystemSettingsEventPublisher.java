@@ -0,0 +1,41 @@
+package shadowshift.studio.authservice.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import shadowshift.studio.authservice.config.RabbitMQConfig;
+
+import java.util.Collection;
+
+/**
+ * Публикация событий изменения системных настроек.
+ * Получатели сбрасывают локальный кэш настроек; ошибка отправки не влияет на сохранение настроек,
+ * в этом случае кэш получателей обновится по истечении срока хранения.
+ */
+@Component
+public class SystemSettingsEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemSettingsEventPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    public SystemSettingsEventPublisher(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    /**
+     * Сообщить об изменении настроек
+     * @param keys ключи измененных настроек
+     */
+    public void publishSettingsChanged(Collection<String> keys) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.SYSTEM_SETTINGS_EXCHANGE, "", String.join(",", keys));
+            logger.debug("Published system settings change: {}", keys);
+        } catch (Exception e) {
+            logger.warn("Failed to publish system settings change {}: {}", keys, e.getMessage());
+        }
+    }
+}
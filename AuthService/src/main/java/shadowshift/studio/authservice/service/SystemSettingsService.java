@@ -3,6 +3,7 @@ package shadowshift.studio.authservice.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import shadowshift.studio.authservice.dto.SystemSettingsDto;
+import shadowshift.studio.authservice.messaging.SystemSettingsEventPublisher;
 import shadowshift.studio.authservice.model.SystemSettings;
 import shadowshift.studio.authservice.repository.SystemSettingsRepository;
 
@@ -18,10 +19,13 @@ import java.util.stream.Collectors;
 public class SystemSettingsService {
 
     private final SystemSettingsRepository systemSettingsRepository;
+    private final SystemSettingsEventPublisher eventPublisher;
 
     @Autowired
-    public SystemSettingsService(SystemSettingsRepository systemSettingsRepository) {
+    public SystemSettingsService(SystemSettingsRepository systemSettingsRepository,
+                                 SystemSettingsEventPublisher eventPublisher) {
         this.systemSettingsRepository = systemSettingsRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -56,6 +60,7 @@ public class SystemSettingsService {
     public SystemSettingsDto createOrUpdateSetting(SystemSettingsDto settingsDto) {
         SystemSettings settings = mapToEntity(settingsDto);
         settings = systemSettingsRepository.save(settings);
+        eventPublisher.publishSettingsChanged(List.of(settings.getSettingKey()));
         return mapToDto(settings);
     }
     
@@ -68,6 +73,9 @@ public class SystemSettingsService {
                 .collect(Collectors.toList());
         
         settings = systemSettingsRepository.saveAll(settings);
+        eventPublisher.publishSettingsChanged(settings.stream()
+                .map(SystemSettings::getSettingKey)
+                .collect(Collectors.toList()));
         
         return settings.stream()
                 .map(this::mapToDto)
@@ -79,6 +87,7 @@ public class SystemSettingsService {
      */
     public void deleteSetting(String key) {
         systemSettingsRepository.deleteById(key);
+        eventPublisher.publishSettingsChanged(List.of(key));
     }
     
     /**
@@ -21,26 +21,6 @@ tasks.withType<JavaCompile> {
 repositories {
 	mavenCentral()
 	maven { url = uri("https://repo.spring.io/snapshot") }
-	
-	// Добавляем локальный репозиторий Maven для WebpConverter
-	flatDir {
-		dirs("libs")
-	}
-}
-
-// Задача для копирования WebpConverter.jar в директорию libs
-tasks.register<Copy>("copyWebpConverterJar") {
-    from(layout.projectDirectory.dir("../WebpConverter/build/libs"))
-    include("WebpConverter-1.0-SNAPSHOT.jar")
-    into(layout.projectDirectory.dir("libs"))
-    doLast {
-        println("WebpConverter JAR скопирован в директорию libs")
-    }
-}
-
-// Выполняем копирование перед компиляцией
-tasks.named("compileJava") {
-    dependsOn("copyWebpConverterJar")
 }
 
 dependencies {
@@ -54,8 +34,8 @@ dependencies {
 	implementation("org.springframework.retry:spring-retry") // Добавляем Spring Retry
 	implementation("org.springframework:spring-aspects") // Необходимо для работы аннотаций @Retryable
 	
-	// Добавляем WebpConverter как локальную файловую зависимость вместо Maven артефакта
-	implementation(files("libs/WebpConverter-1.0-SNAPSHOT.jar"))
+	// Общий модуль кодирования изображений (подключается как included build)
+	implementation("shadowshift.studio:ImageCodec")
 
 	// Документация API (Swagger/OpenAPI)
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.3.0")
@@ -71,6 +51,8 @@ dependencies {
 	implementation("de.bwaldvogel:mongo-java-server:1.44.0") // Помогает запустить встроенный сервер
 
 	implementation("org.springframework.boot:spring-boot-starter-amqp")
+	implementation("org.springframework.boot:spring-boot-starter-actuator") // Метрики запросов к сервису хранения
+	implementation("com.github.ben-manes.caffeine:caffeine") // Ограниченный кэш бинарных ответов сервиса хранения
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
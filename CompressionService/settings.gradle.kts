@@ -4,4 +4,6 @@ pluginManagement {
         gradlePluginPortal()
     }
 }
-rootProject.name = "CompressionService"
\ No newline at end of file
+rootProject.name = "CompressionService"
+
+includeBuild("../ImageCodec")
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.shadowshiftstudio.compressionservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import shadowshift.studio.imagecodec.ImageCodec;
+import shadowshift.studio.imagecodec.ImageCodecSettings;
+
+/**
+ * Конфигурация общего модуля кодирования изображений.
+ * Размер пула WebP кодировщиков по умолчанию равен числу доступных процессоров.
+ */
+@Configuration
+public class ImageCodecConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageCodecConfig.class);
+
+    @Value("${webp.encoder.pool-size:0}")
+    private int poolSize;
+
+    @Value("${webp.encoder.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${webp.encoder.queue-timeout-ms:10000}")
+    private long queueTimeoutMillis;
+
+    @Value("${webp.encoder.job-timeout-ms:30000}")
+    private long jobTimeoutMillis;
+
+    @Value("${webp.encoder.max-retries:1}")
+    private int maxRetries;
+
+    @Value("${webp.encoder.use-pipes:true}")
+    private boolean usePipes;
+
+    /**
+     * Создает кодек с ограниченным пулом процессов cwebp
+     * @return кодек изображений, используемый сервисами
+     */
+    @Bean
+    public ImageCodec imageCodec() {
+        ImageCodecSettings settings = new ImageCodecSettings()
+                .withPoolSize(poolSize)
+                .withQueueCapacity(queueCapacity)
+                .withQueueTimeoutMillis(queueTimeoutMillis)
+                .withJobTimeoutMillis(jobTimeoutMillis)
+                .withMaxRetries(maxRetries)
+                .withPipes(usePipes);
+        ImageCodec codec = ImageCodec.pooled(settings);
+        logger.info("Image codec initialized: poolSize={}, queueCapacity={}, jobTimeout={}ms, pipes={}",
+                codec.getStats().getPoolSize(), queueCapacity, jobTimeoutMillis, usePipes);
+        return codec;
+    }
+}
@@ -2,6 +2,9 @@ package com.shadowshiftstudio.compressionservice.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.NamedType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -10,8 +13,10 @@ import org.springframework.amqp.support.converter.ClassMapper;
 import org.springframework.amqp.support.converter.DefaultClassMapper;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import com.shadowshiftstudio.compressionservice.dto.message.ImageMessage;
 import com.shadowshiftstudio.compressionservice.dto.message.CompressionMessage;
 import com.shadowshiftstudio.compressionservice.messaging.ImageMessageListener;
@@ -28,6 +33,16 @@ public class RabbitMQConfig {
 
     public static final String STORAGE_QUEUE = "image-storage-queue";
     public static final String COMPRESSION_QUEUE = "image-compression-queue";
+    public static final String REPLY_QUEUE_PREFIX = "image-compression-replies-";
+
+    @Value("${messaging.listener.concurrency:2}")
+    private int concurrentConsumers;
+
+    @Value("${messaging.listener.max-concurrency:8}")
+    private int maxConcurrentConsumers;
+
+    @Value("${messaging.listener.prefetch:20}")
+    private int prefetchCount;
 
     @Bean
     public TopicExchange imageExchange() {
@@ -39,6 +54,15 @@ public class RabbitMQConfig {
         return new Queue(COMPRESSION_QUEUE);
     }
 
+    /**
+     * Reply queue of this instance. It is exclusive and removed with the connection,
+     * so replies to requests sent by this instance never reach another instance.
+     */
+    @Bean
+    public Queue replyQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(REPLY_QUEUE_PREFIX));
+    }
+
     @Bean
     public Binding compressionBinding(Queue compressionQueue, TopicExchange imageExchange) {
         return BindingBuilder.bind(compressionQueue).to(imageExchange).with(COMPRESSION_KEY);
@@ -92,14 +116,38 @@ public class RabbitMQConfig {
     @Bean
     public SimpleMessageListenerContainer messageListenerContainer(
             ConnectionFactory connectionFactory, 
-            ImageMessageListener messageListener) {
+            ImageMessageListener messageListener,
+            Queue compressionQueue,
+            Queue replyQueue) {
         
         SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        container.setQueueNames(COMPRESSION_QUEUE);
+        container.setQueues(compressionQueue, replyQueue);
         container.setMessageListener(messageListener);
 
+        // Replies are dispatched on virtual threads, more consumers are started under load
+        container.setConcurrentConsumers(concurrentConsumers);
+        container.setMaxConcurrentConsumers(Math.max(concurrentConsumers, maxConcurrentConsumers));
+        container.setPrefetchCount(prefetchCount);
+        container.setTaskExecutor(new VirtualThreadTaskExecutor("compression-listener-"));
+
         container.setAutoStartup(true);
         return container;
     }
+
+    @Bean
+    public MeterBinder compressionListenerMetrics(SimpleMessageListenerContainer messageListenerContainer) {
+        Tags tags = Tags.of("queue", COMPRESSION_QUEUE);
+        return registry -> {
+            Gauge.builder("messaging.listener.consumers", messageListenerContainer,
+                            SimpleMessageListenerContainer::getActiveConsumerCount)
+                    .description("Active consumers of the queue")
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("messaging.listener.consumers.max", () -> Math.max(concurrentConsumers, maxConcurrentConsumers))
+                    .description("Maximum consumers of the queue")
+                    .tags(tags)
+                    .register(registry);
+        };
+    }
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package com.shadowshiftstudio.compressionservice.config;
 
-import com.shadowshiftstudio.compressionservice.util.webp.CWebp;
+import shadowshift.studio.imagecodec.webp.CWebp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
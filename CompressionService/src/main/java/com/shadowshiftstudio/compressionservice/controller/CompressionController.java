@@ -1,6 +1,12 @@
 package com.shadowshiftstudio.compressionservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shadowshiftstudio.compressionservice.dto.BatchCompressionRequest;
 import com.shadowshiftstudio.compressionservice.model.Image;
+import com.shadowshiftstudio.compressionservice.service.compression.BatchCompressionService;
+import com.shadowshiftstudio.compressionservice.service.compression.BatchCompressionSummary;
+import com.shadowshiftstudio.compressionservice.service.compression.CompressionJob;
+import com.shadowshiftstudio.compressionservice.service.compression.CompressionJobService;
 import com.shadowshiftstudio.compressionservice.service.compression.CompressionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,19 +16,45 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/compression")
 @Tag(name = "Сервис сжатия", description = "API для обработки и сжатия изображений")
 public class CompressionController {
     private final CompressionService compressionService;
+    private final CompressionJobService compressionJobService;
+    private final BatchCompressionService batchCompressionService;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor batchExecutor = new VirtualThreadTaskExecutor("batch-compression-");
+
+    // Результаты пакета передаются все время его обработки, поэтому таймаут задается только для этого ответа
+    @Value("${compression.batch.timeout-ms:3600000}")
+    private long batchTimeoutMs;
 
     @Autowired
-    public CompressionController(CompressionService compressionService) {
+    public CompressionController(CompressionService compressionService, CompressionJobService compressionJobService,
+                                 BatchCompressionService batchCompressionService, ObjectMapper objectMapper) {
         this.compressionService = compressionService;
+        this.compressionJobService = compressionJobService;
+        this.batchCompressionService = batchCompressionService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -30,11 +62,13 @@ public class CompressionController {
      *
      * @param imageId идентификатор изображения
      * @param compressionLevel уровень сжатия (0-100)
-     * @return метаданные сжатого изображения
+     * @param async выполнить сжатие асинхронно и вернуть ID задачи
+     * @return метаданные сжатого изображения или созданная задача
      */
     @Operation(
         summary = "Сжать изображение",
-        description = "Сжимает существующее изображение с указанным уровнем компрессии"
+        description = "Сжимает существующее изображение с указанным уровнем компрессии. " +
+                "С параметром async=true возвращает 202 и ID задачи, статус которой доступен по /api/compression/jobs/{jobId}"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -42,6 +76,16 @@ public class CompressionController {
             description = "Изображение успешно сжато",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Image.class))
         ),
+        @ApiResponse(
+            responseCode = "202",
+            description = "Задача сжатия поставлена в очередь",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CompressionJob.class))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Очередь задач сжатия заполнена",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "400", 
             description = "Неверный уровень сжатия или изображение не найдено",
@@ -54,20 +98,43 @@ public class CompressionController {
         )
     })
     @PostMapping("/{imageId}")
-    public ResponseEntity<Image> compressImage(
+    public ResponseEntity<Object> compressImage(
             @Parameter(description = "Идентификатор изображения", required = true)
             @PathVariable String imageId, 
             
             @Parameter(description = "Уровень сжатия от 0 (без сжатия) до 100 (максимальное сжатие)", example = "50")
-            @RequestParam(defaultValue = "50") int compressionLevel) {
+            @RequestParam(defaultValue = "50") int compressionLevel,
+            
+            @Parameter(description = "Выполнить сжатие асинхронно", example = "false")
+            @RequestParam(defaultValue = "false") boolean async) {
         
         try {
             if (compressionLevel < 0 || compressionLevel > 100) {
                 return ResponseEntity.badRequest().build();
             }
             
+            if (async) {
+                CompressionJob job = compressionJobService.submit(imageId, compressionLevel);
+                // Адрес задачи строится от текущего запроса, чтобы учитывать префикс шлюза
+                ServletUriComponentsBuilder builder = ServletUriComponentsBuilder.fromCurrentRequest();
+                String requestPath = builder.build().getPath();
+                URI location = builder
+                        .replaceQuery(null)
+                        .replacePath(requestPath.substring(0, requestPath.lastIndexOf('/')))
+                        .path("/jobs/{jobId}")
+                        .buildAndExpand(job.getId())
+                        .toUri();
+                return ResponseEntity.accepted()
+                        .location(location)
+                        .body(job);
+            }
+            
             Image compressedImage = compressionService.compressImage(imageId, compressionLevel);
             return ResponseEntity.ok(compressedImage);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(Map.of("error", "Очередь задач сжатия заполнена"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -76,6 +143,127 @@ public class CompressionController {
         }
     }
     
+    /**
+     * Получает статус асинхронной задачи сжатия
+     *
+     * @param jobId идентификатор задачи
+     * @return состояние задачи и результат, если она завершена
+     */
+    @Operation(
+        summary = "Получить статус задачи сжатия",
+        description = "Возвращает состояние асинхронной задачи сжатия и метаданные изображения после ее завершения"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Состояние задачи",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CompressionJob.class))
+        ),
+        @ApiResponse(
+            responseCode = "404", 
+            description = "Задача не найдена или уже удалена",
+            content = @Content
+        )
+    })
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<CompressionJob> getJob(
+            @Parameter(description = "Идентификатор задачи", required = true)
+            @PathVariable String jobId) {
+        
+        return compressionJobService.getJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Пакетно сжимает изображения, заданные списком ID или фильтром
+     *
+     * @param request список ID или фильтр (mangaId, chapterId, sizeFilter) и уровень сжатия
+     * @return поток NDJSON: строка на каждое изображение и итоговая статистика в конце
+     */
+    @Operation(
+        summary = "Пакетное сжатие изображений",
+        description = "Сжимает изображения из списка imageIds или выбранные фильтром по манге, главе и размеру " +
+                "(small, medium, large, xlarge). Изображения обрабатываются параллельно, результат каждого " +
+                "передается отдельной строкой NDJSON по мере завершения, последняя строка содержит итоговую статистику"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Поток результатов сжатия",
+            content = @Content(mediaType = "application/x-ndjson")
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "Неверный уровень сжатия, фильтр или пустой запрос",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "500", 
+            description = "Не удалось получить список изображений",
+            content = @Content
+        )
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<ResponseBodyEmitter> compressBatch(@RequestBody BatchCompressionRequest request) {
+        int compressionLevel = request.getCompressionLevel();
+        if (compressionLevel < 0 || compressionLevel > 100) {
+            return batchError(HttpStatus.BAD_REQUEST, "Уровень сжатия должен быть от 0 до 100");
+        }
+        
+        List<String> imageIds;
+        try {
+            imageIds = batchCompressionService.resolveImageIds(request);
+        } catch (IllegalArgumentException e) {
+            return batchError(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            return batchError(HttpStatus.INTERNAL_SERVER_ERROR, "Не удалось получить список изображений");
+        }
+        
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTimeoutMs);
+        batchExecutor.execute(() -> {
+            try {
+                BatchCompressionSummary summary = batchCompressionService.compress(imageIds, compressionLevel,
+                    result -> sendLine(emitter, result));
+                sendLine(emitter, summary);
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(emitter);
+    }
+    
+    /**
+     * Ответ с ошибкой пакетного запроса в том же формате, что и у остальных методов.
+     * Тип ответа метода должен оставаться ResponseBodyEmitter, иначе поток результатов не будет передан
+     */
+    private ResponseEntity<ResponseBodyEmitter> batchError(HttpStatus status, String error) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        try {
+            emitter.send(Map.of("error", error), MediaType.APPLICATION_JSON);
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(status)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(emitter);
+    }
+    
+    private void sendLine(ResponseBodyEmitter emitter, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] line = Arrays.copyOf(json, json.length + 1);
+            line[json.length] = '\n';
+            emitter.send(line, MediaType.APPLICATION_NDJSON);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
     /**
      * Восстанавливает изображение до исходного вида
      *
@@ -1,7 +1,10 @@
 package com.shadowshiftstudio.compressionservice.controller;
 
+import com.shadowshiftstudio.compressionservice.dto.ImageCatalogPage;
 import com.shadowshiftstudio.compressionservice.model.Image;
+import com.shadowshiftstudio.compressionservice.service.client.ImageCatalogClient;
 import com.shadowshiftstudio.compressionservice.service.compression.CompressionService;
+import com.shadowshiftstudio.compressionservice.service.compression.SizeBucket;
 import com.shadowshiftstudio.compressionservice.service.ImageStorageService;
 import com.shadowshiftstudio.compressionservice.service.future.StatisticsIntegrationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,6 +15,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,7 +25,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Controller
@@ -33,13 +39,18 @@ public class WebController {
     private final ImageStorageService imageStorageService;
     private final CompressionService compressionService;
     private final StatisticsIntegrationService statisticsService;
+    private final ImageCatalogClient imageCatalogClient;
+
+    @Value("${web.gallery.page-size:60}")
+    private int galleryPageSize;
 
     @Autowired
     public WebController(ImageStorageService imageStorageService, CompressionService compressionService, 
-                        StatisticsIntegrationService statisticsService) {
+                        StatisticsIntegrationService statisticsService, ImageCatalogClient imageCatalogClient) {
         this.imageStorageService = imageStorageService;
         this.compressionService = compressionService;
         this.statisticsService = statisticsService;
+        this.imageCatalogClient = imageCatalogClient;
     }
 
     @Operation(
@@ -59,110 +70,65 @@ public class WebController {
             @RequestParam(required = false) String dateFilter,
             
             @Parameter(description = "Фильтр по размеру (small, medium, large, xlarge)") 
-            @RequestParam(required = false) String sizeFilter) {
-        
-        Map<String, Image> imagesMap = imageStorageService.getAllImageMetadata();
-        Map<String, Image> filteredImagesMap = new HashMap<>(imagesMap);
-        
-        filteredImagesMap.entrySet().removeIf(entry -> entry.getValue().getOriginalImageId() != null);
-        
-        if (search != null && !search.isEmpty()) {
-            String searchLower = search.toLowerCase();
-            filteredImagesMap.entrySet().removeIf(entry -> 
-                !entry.getValue().getOriginalFilename().toLowerCase().contains(searchLower));
-        }
+            @RequestParam(required = false) String sizeFilter,
+            
+            @Parameter(description = "Курсор следующей страницы галереи") 
+            @RequestParam(required = false) String cursor) {
         
+        LocalDateTime uploadedAfter = null;
         if (dateFilter != null && !dateFilter.isEmpty()) {
-            LocalDateTime filterDate = null;
-            
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
             switch (dateFilter) {
                 case "today":
-                    filterDate = LocalDateTime.now().minusDays(1);
+                    uploadedAfter = now.minusDays(1);
                     break;
                 case "week":
-                    filterDate = LocalDateTime.now().minusWeeks(1);
+                    uploadedAfter = now.minusWeeks(1);
                     break;
                 case "month":
-                    filterDate = LocalDateTime.now().minusMonths(1);
+                    uploadedAfter = now.minusMonths(1);
                     break;
                 case "year":
-                    filterDate = LocalDateTime.now().minusYears(1);
+                    uploadedAfter = now.minusYears(1);
                     break;
             }
-            
-            if (filterDate != null) {
-                LocalDateTime finalFilterDate = filterDate;
-                filteredImagesMap.entrySet().removeIf(entry -> 
-                    entry.getValue().getUploadedAt().isBefore(finalFilterDate));
-            }
         }
         
+        long minSize = 0;
+        long maxSize = Long.MAX_VALUE;
         if (sizeFilter != null && !sizeFilter.isEmpty()) {
-            long minSize = 0;
-            long maxSize = Long.MAX_VALUE;
-            
-            switch (sizeFilter) {
-                case "small":
-                    maxSize = 100 * 1024;
-                    break;
-                case "medium":
-                    minSize = 100 * 1024;
-                    maxSize = 1024 * 1024;
-                    break;
-                case "large":
-                    minSize = 1024 * 1024;
-                    maxSize = 5 * 1024 * 1024;
-                    break;
-                case "xlarge":
-                    minSize = 5 * 1024 * 1024;
-                    break;
+            try {
+                SizeBucket bucket = SizeBucket.fromName(sizeFilter);
+                minSize = bucket.getMinSize();
+                maxSize = bucket.getMaxSize();
+            } catch (IllegalArgumentException e) {
+                logger.debug("Неизвестный фильтр размера: {}", sizeFilter);
             }
-            
-            long finalMinSize = minSize;
-            long finalMaxSize = maxSize;
-            filteredImagesMap.entrySet().removeIf(entry -> {
-                long size = entry.getValue().getSize();
-                return size < finalMinSize || size > finalMaxSize;
-            });
         }
         
-        Map<String, Image> sortedImagesMap;
-        
-        if ("size_asc".equals(sortBy)) {
-            sortedImagesMap = new TreeMap<>(
-                Comparator.<String>comparingLong(id -> {
-                    Image img = filteredImagesMap.get(id);
-                    return img != null ? img.getSize() : 0;
-                })
-            );
-            sortedImagesMap.putAll(filteredImagesMap);
-        }
-        else if ("size_desc".equals(sortBy)) {
-            sortedImagesMap = new TreeMap<>(
-                Comparator.<String>comparingLong(id -> {
-                    Image img = filteredImagesMap.get(id);
-                    return img != null ? -img.getSize() : 0;
-                })
-            );
-            sortedImagesMap.putAll(filteredImagesMap);
+        // Сортировка по дате загрузки (от новых к старым) по умолчанию
+        String sort = "uploadedAt";
+        if ("size_asc".equals(sortBy) || "size_desc".equals(sortBy) || "views".equals(sortBy)) {
+            sort = sortBy;
         }
-        else {
-            // Сортировка по дате загрузки (от новых к старым) по умолчанию
-            sortedImagesMap = new TreeMap<>(
-                Comparator.<String>comparingLong(id -> {
-                    Image img = filteredImagesMap.get(id);
-                    return img != null && img.getUploadedAt() != null ? 
-                           -img.getUploadedAt().toEpochSecond(java.time.ZoneOffset.UTC) : 0;
-                })
-            );
-            sortedImagesMap.putAll(filteredImagesMap);
+        
+        // Фильтрация, сортировка и постраничный вывод выполняются в базе данных сервиса хранения
+        ImageCatalogPage catalogPage;
+        try {
+            catalogPage = imageCatalogClient.findOriginalImages(search, uploadedAfter, minSize, maxSize,
+                    sort, cursor, galleryPageSize);
+        } catch (IOException e) {
+            logger.error("Не удалось получить каталог изображений: {}", e.getMessage());
+            catalogPage = new ImageCatalogPage();
+            model.addAttribute("message", "Сервис хранения недоступен");
         }
         
-        // Примечание: статистические сортировки (views, downloads, popularity) 
-        // теперь обрабатываются в микросервисе статистики
+        // Примечание: статистические сортировки (downloads, popularity) 
+        // обрабатываются в микросервисе статистики
         logger.debug("Отображение главной страницы. Статистические данные теперь доступны через микросервис StatisticsRankingService.");
         
-        model.addAttribute("images", sortedImagesMap);
+        model.addAttribute("images", catalogPage.getImages());
+        model.addAttribute("nextCursor", catalogPage.getNextCursor());
         model.addAttribute("statisticsNote", "Статистика доступна через сервис StatisticsRankingService");
         model.addAttribute("search", search);
         model.addAttribute("sortBy", sortBy);
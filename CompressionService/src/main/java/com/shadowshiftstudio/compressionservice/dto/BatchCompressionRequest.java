@@ -0,0 +1,77 @@
+package com.shadowshiftstudio.compressionservice.dto;
+
+import java.util.List;
+
+/**
+ * Запрос пакетного сжатия.
+ * Изображения задаются явным списком ID или фильтром по манге, главе и размеру;
+ * если указан список ID, фильтр не применяется.
+ */
+public class BatchCompressionRequest {
+    private List<String> imageIds;
+    private String mangaId;
+    private String chapterId;
+    private String sizeFilter;
+    private int compressionLevel = 50;
+
+    public BatchCompressionRequest() {
+    }
+
+    /**
+     * @return true если задан явный список ID изображений
+     */
+    public boolean hasImageIds() {
+        return imageIds != null && !imageIds.isEmpty();
+    }
+
+    /**
+     * @return true если задан хотя бы один фильтр
+     */
+    public boolean hasFilter() {
+        return isSet(mangaId) || isSet(chapterId) || isSet(sizeFilter);
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    public List<String> getImageIds() {
+        return imageIds;
+    }
+
+    public void setImageIds(List<String> imageIds) {
+        this.imageIds = imageIds;
+    }
+
+    public String getMangaId() {
+        return mangaId;
+    }
+
+    public void setMangaId(String mangaId) {
+        this.mangaId = mangaId;
+    }
+
+    public String getChapterId() {
+        return chapterId;
+    }
+
+    public void setChapterId(String chapterId) {
+        this.chapterId = chapterId;
+    }
+
+    public String getSizeFilter() {
+        return sizeFilter;
+    }
+
+    public void setSizeFilter(String sizeFilter) {
+        this.sizeFilter = sizeFilter;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+}
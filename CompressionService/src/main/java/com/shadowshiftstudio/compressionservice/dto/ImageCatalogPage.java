@@ -0,0 +1,49 @@
+package com.shadowshiftstudio.compressionservice.dto;
+
+import com.shadowshiftstudio.compressionservice.model.Image;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Страница каталога изображений сервиса хранения.
+ * Изображения идут в порядке сортировки запроса.
+ */
+public class ImageCatalogPage {
+    private Map<String, Image> images = new LinkedHashMap<>();
+    private Long totalElements;
+    private String nextCursor;
+
+    public ImageCatalogPage() {
+    }
+
+    public Map<String, Image> getImages() {
+        return images;
+    }
+
+    public void setImages(Map<String, Image> images) {
+        this.images = images != null ? new LinkedHashMap<>(images) : new LinkedHashMap<>();
+    }
+
+    /**
+     * @return общее число изображений по фильтру или null при переходе по курсору
+     */
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    /**
+     * @return курсор следующей страницы или null, если страница последняя
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
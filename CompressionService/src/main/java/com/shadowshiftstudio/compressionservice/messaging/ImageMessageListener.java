@@ -4,6 +4,13 @@ import com.shadowshiftstudio.compressionservice.config.RabbitMQConfig;
 import com.shadowshiftstudio.compressionservice.dto.message.CompressionMessage;
 import com.shadowshiftstudio.compressionservice.dto.message.ImageMessage;
 import com.shadowshiftstudio.compressionservice.model.Image;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Message;
@@ -11,24 +18,63 @@ import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.amqp.core.MessageListener;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
+/**
+ * Listener for replies from the storage service.
+ * Pending requests and received binary data are keyed by the correlation ID of the request,
+ * so any number of requests for the same image may be in flight at once.
+ * Binary reply data is held in a cache bounded by total bytes and expiring after a TTL,
+ * so late or orphaned replies cannot accumulate on the heap.
+ */
 @Component
 public class ImageMessageListener implements MessageListener {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageMessageListener.class);
     private final Map<String, Consumer<ImageMessage>> pendingRequests = new ConcurrentHashMap<>();
-    private final Map<String, byte[]> imageDataCache = new ConcurrentHashMap<>();
     private final Map<String, String> pendingBinaryTransfers = new ConcurrentHashMap<>();
+    private final Cache<String, byte[]> imageDataCache;
 
     @Autowired
     private MessageConverter messageConverter;
+
+    @Autowired
+    public ImageMessageListener(MeterRegistry meterRegistry,
+                                @Value("${messaging.reply-cache.max-bytes:268435456}") long maxBytes,
+                                @Value("${messaging.reply-cache.ttl-seconds:120}") long ttlSeconds) {
+        this.imageDataCache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String correlationId, byte[] data) -> data.length)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String correlationId, byte[] data, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        logger.warn("Evicted unclaimed image data for correlation ID: {}, size: {} bytes, cause: {}",
+                                correlationId, data != null ? data.length : 0, cause);
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, imageDataCache, "storage.reply.data");
+        Gauge.builder("storage.reply.data.resident.bytes", imageDataCache,
+                        cache -> cache.policy().eviction()
+                                .map(eviction -> eviction.weightedSize().orElse(0L))
+                                .orElse(0L))
+                .description("Bytes of binary reply data waiting to be claimed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        logger.info("Reply data cache initialized: maxBytes={}, ttl={}s", maxBytes, ttlSeconds);
+    }
     
     @Override
     public void onMessage(Message amqpMessage) {
@@ -93,7 +139,7 @@ public class ImageMessageListener implements MessageListener {
                 }
             }
             
-            processImageMessage(message, receivedAction, receivedImageId);
+            processImageMessage(message, receivedAction, correlationId);
             
         } catch (Exception e) {
             logger.error("Error processing message: {}", e.getMessage(), e);
@@ -118,14 +164,19 @@ public class ImageMessageListener implements MessageListener {
                 return;
             }
             
+            if (correlationId == null) {
+                logger.error("Received binary message without correlation ID for image ID: {}", imageId);
+                return;
+            }
+            
             logger.info("Received binary data message: correlationId={}, imageId={}, action={}, size={} bytes", 
                     correlationId, imageId, action, dataLength);
             
             if (message.getBody() != null && message.getBody().length > 0) {
-                logger.debug("Storing binary data in cache for image ID: {}, data length: {} bytes", 
-                        imageId, message.getBody().length);
+                logger.debug("Storing binary data in cache for correlation ID: {}, data length: {} bytes", 
+                        correlationId, message.getBody().length);
                 
-                imageDataCache.put(imageId, message.getBody());
+                imageDataCache.put(correlationId, message.getBody());
                 
                 ImageMessage response = new ImageMessage();
                 response.setImageId(imageId);
@@ -144,12 +195,17 @@ public class ImageMessageListener implements MessageListener {
                     }
                 }
                 
-                Consumer<ImageMessage> callback = pendingRequests.remove(imageId);
+                pendingBinaryTransfers.remove(correlationId);
+                Consumer<ImageMessage> callback = pendingRequests.remove(correlationId);
                 if (callback != null) {
-                    logger.info("Found and executing callback for image ID: {}", imageId);
+                    logger.info("Found and executing callback for correlation ID: {}, image ID: {}", 
+                            correlationId, imageId);
                     callback.accept(response);
                 } else {
-                    logger.warn("No pending request found for binary data with imageId: {}", imageId);
+                    // Late reply to a cancelled or timed out request, nobody will claim the data
+                    imageDataCache.invalidate(correlationId);
+                    logger.warn("No pending request found for binary data with correlation ID: {}, image ID: {}", 
+                            correlationId, imageId);
                 }
             } else {
                 logger.error("Received binary message with no data for image ID: {}", imageId);
@@ -159,68 +215,70 @@ public class ImageMessageListener implements MessageListener {
         }
     }
     
-    private void processImageMessage(ImageMessage message, String action, String imageId) {
-        logger.debug("Processing message with action: {} for imageId: {}", action, imageId);
+    private void processImageMessage(ImageMessage message, String action, String correlationId) {
+        logger.debug("Processing message with action: {} for imageId: {}, correlation ID: {}", 
+                action, message.getImageId(), correlationId);
         
-        if (("IMAGE_DATA".equals(action) || "ORIGINAL_DATA".equals(action)) &&
-             imageDataCache.containsKey(imageId)) {
-            
-            logger.info("Found cached binary data for image ID: {} when processing action: {}", 
-                    imageId, action);
-            
-            Consumer<ImageMessage> callback = pendingRequests.remove(imageId);
-            if (callback != null) {
-                callback.accept(message);
-                return;
-            }
+        if (correlationId == null) {
+            logger.warn("Received response for imageId {} without correlation ID", message.getImageId());
+            return;
         }
 
-        Consumer<ImageMessage> callback = pendingRequests.remove(imageId);
+        Consumer<ImageMessage> callback = pendingRequests.remove(correlationId);
         if (callback != null) {
             callback.accept(message);
         } else {
-            logger.warn("Received response for imageId {} but no pending request found", imageId);
+            logger.warn("Received response for correlation ID {} but no pending request found", correlationId);
         }
     }
     
     /**
-     * Register a callback for a response to a specific image ID
+     * Register a callback for the reply to a request
      * 
-     * @param imageId ID of the image
+     * @param correlationId correlation ID of the request
      * @param callback callback to execute when response is received
      */
-    public void registerCallback(String imageId, Consumer<ImageMessage> callback) {
-        logger.debug("Registering callback for image ID: {}", imageId);
-        
-        if (imageDataCache.containsKey(imageId)) {
-            logger.info("Binary data already available for image ID: {}, executing callback immediately", imageId);
-            
-            ImageMessage response = new ImageMessage();
-            response.setImageId(imageId);
-            response.setAction("IMAGE_DATA");
-            
-            callback.accept(response);
-        } else {
-            pendingRequests.put(imageId, callback);
-        }
+    public void registerCallback(String correlationId, Consumer<ImageMessage> callback) {
+        logger.debug("Registering callback for correlation ID: {}", correlationId);
+        pendingRequests.put(correlationId, callback);
     }
     
     /**
-     * Get cached image data for an image ID
+     * Cancel a pending request, e.g. after a timeout, and drop any data received for it
      * 
-     * @param imageId ID of the image
+     * @param correlationId correlation ID of the request
+     */
+    public void cancel(String correlationId) {
+        pendingRequests.remove(correlationId);
+        pendingBinaryTransfers.remove(correlationId);
+        imageDataCache.invalidate(correlationId);
+    }
+    
+    /**
+     * Get image data received in reply to a request
+     * 
+     * @param correlationId correlation ID of the request
      * @return image data or null if not in cache
      */
-    public byte[] getImageData(String imageId) {
-        byte[] data = imageDataCache.remove(imageId); // Get and remove from cache
+    public byte[] getImageData(String correlationId) {
+        byte[] data = imageDataCache.getIfPresent(correlationId);
+        imageDataCache.invalidate(correlationId);
         if (data == null) {
-            logger.error("Image data not found in cache for image ID: {}", imageId);
+            logger.error("Image data not found in cache for correlation ID: {}", correlationId);
         } else {
-            logger.info("Retrieved image data from cache for image ID: {}, data length: {}", imageId, data.length);
+            logger.info("Retrieved image data from cache for correlation ID: {}, data length: {}", 
+                    correlationId, data.length);
         }
         return data;
     }
     
+    /**
+     * Returns the number of requests waiting for a reply
+     */
+    public int getPendingRequestCount() {
+        return pendingRequests.size();
+    }
+    
     /**
      * Gets all images data map from message cache
      * 
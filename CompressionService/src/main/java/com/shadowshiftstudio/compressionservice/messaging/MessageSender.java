@@ -2,8 +2,10 @@ package com.shadowshiftstudio.compressionservice.messaging;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import com.shadowshiftstudio.compressionservice.config.RabbitMQConfig;
 import com.shadowshiftstudio.compressionservice.dto.message.ImageMessage;
@@ -14,10 +16,12 @@ public class MessageSender {
     private static final Logger logger = LoggerFactory.getLogger(MessageSender.class);
     
     private final RabbitTemplate rabbitTemplate;
+    private final String replyQueueName;
     
     @Autowired
-    public MessageSender(RabbitTemplate rabbitTemplate) {
+    public MessageSender(RabbitTemplate rabbitTemplate, @Qualifier("replyQueue") Queue replyQueue) {
         this.rabbitTemplate = rabbitTemplate;
+        this.replyQueueName = replyQueue.getName();
     }
     
     /**
@@ -34,4 +38,26 @@ public class MessageSender {
                 RabbitMQConfig.STORAGE_KEY, 
                 message);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Sends a request to the image storage service.
+     * The storage service replies to the reply queue of this instance with the same correlation ID.
+     * 
+     * @param message the request to send
+     * @param correlationId unique ID used to match the reply with the request
+     */
+    public void sendRequestToStorage(ImageMessage message, String correlationId) {
+        logger.info("Sending request to storage service: {}, action: {}, correlationId: {}", 
+                message.getMessageId(), message.getAction(), correlationId);
+        
+        rabbitTemplate.convertAndSend(
+                RabbitMQConfig.IMAGE_EXCHANGE, 
+                RabbitMQConfig.STORAGE_KEY, 
+                message,
+                amqpMessage -> {
+                    amqpMessage.getMessageProperties().setCorrelationId(correlationId);
+                    amqpMessage.getMessageProperties().setReplyTo(replyQueueName);
+                    return amqpMessage;
+                });
+    }
+}
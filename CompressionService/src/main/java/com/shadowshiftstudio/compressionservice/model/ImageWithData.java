@@ -0,0 +1,81 @@
+package com.shadowshiftstudio.compressionservice.model;
+
+import java.nio.file.Path;
+
+/**
+ * Image metadata together with the current image data, received in a single reply.
+ * Large images may be passed by reference: the reply then carries a presigned URL to download
+ * the data and a presigned URL with a staging key to upload the result. Such data is downloaded
+ * into a temporary file rather than onto the heap.
+ */
+public class ImageWithData {
+
+    private final Image metadata;
+    private final byte[] data;
+    private final Path dataFile;
+    private final String downloadUrl;
+    private final String uploadUrl;
+    private final String stagingKey;
+
+    public ImageWithData(Image metadata, byte[] data) {
+        this(metadata, data, null, null, null);
+    }
+
+    public ImageWithData(Image metadata, byte[] data, String downloadUrl, String uploadUrl, String stagingKey) {
+        this(metadata, data, null, downloadUrl, uploadUrl, stagingKey);
+    }
+
+    private ImageWithData(Image metadata, byte[] data, Path dataFile, String downloadUrl, String uploadUrl,
+                          String stagingKey) {
+        this.metadata = metadata;
+        this.data = data;
+        this.dataFile = dataFile;
+        this.downloadUrl = downloadUrl;
+        this.uploadUrl = uploadUrl;
+        this.stagingKey = stagingKey;
+    }
+
+    /**
+     * Returns a copy of this reference with the downloaded data
+     * 
+     * @param dataFile file holding the downloaded image data
+     * @return image with data and the same upload reference
+     */
+    public ImageWithData withDataFile(Path dataFile) {
+        return new ImageWithData(metadata, null, dataFile, downloadUrl, uploadUrl, stagingKey);
+    }
+
+    public Image getMetadata() {
+        return metadata;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * @return file holding the image data if it was downloaded by reference, otherwise null
+     */
+    public Path getDataFile() {
+        return dataFile;
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    public String getUploadUrl() {
+        return uploadUrl;
+    }
+
+    public String getStagingKey() {
+        return stagingKey;
+    }
+
+    /**
+     * @return true if the result has to be uploaded through the presigned URL
+     */
+    public boolean hasUploadReference() {
+        return uploadUrl != null && stagingKey != null;
+    }
+}
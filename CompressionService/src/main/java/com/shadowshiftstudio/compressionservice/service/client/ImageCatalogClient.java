@@ -0,0 +1,115 @@
+package com.shadowshiftstudio.compressionservice.service.client;
+
+import com.shadowshiftstudio.compressionservice.dto.ImageCatalogPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST-клиент каталога изображений сервиса хранения.
+ * Используется для выбора изображений по фильтру без передачи метаданных через очередь.
+ */
+@Service
+public class ImageCatalogClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageCatalogClient.class);
+
+    private final RestTemplate restTemplate;
+
+    @Value("${storage.service.url:http://localhost:8081}")
+    private String storageServiceUrl;
+
+    @Autowired
+    public ImageCatalogClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    /**
+     * Получает ID изображений, подходящих под фильтр
+     * @param mangaId идентификатор манги или null
+     * @param chapterId идентификатор главы или null, имеет приоритет над мангой
+     * @param minSize минимальный размер в байтах (включительно)
+     * @param maxSize максимальный размер в байтах (не включительно)
+     * @return список ID изображений
+     * @throws IOException если сервис хранения недоступен
+     */
+    public List<String> findImageIds(String mangaId, String chapterId, long minSize, long maxSize) throws IOException {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(storageServiceUrl)
+                .path("/api/images/ids")
+                .queryParam("minSize", minSize)
+                .queryParam("maxSize", maxSize);
+        if (chapterId != null && !chapterId.isEmpty()) {
+            uri.queryParam("chapterId", chapterId);
+        } else if (mangaId != null && !mangaId.isEmpty()) {
+            uri.queryParam("mangaId", mangaId);
+        }
+
+        try {
+            ResponseEntity<List<String>> response = restTemplate.exchange(
+                    uri.build().encode().toUri(),
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<List<String>>() {}
+            );
+            return response.getBody() != null ? response.getBody() : new ArrayList<>();
+        } catch (RestClientException e) {
+            logger.error("Error retrieving image IDs from storage: {}", e.getMessage(), e);
+            throw new IOException("Failed to retrieve image IDs: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Получает страницу исходных изображений. Фильтрация, сортировка и постраничный вывод
+     * выполняются в базе данных сервиса хранения.
+     * @param search подстрока имени файла или null
+     * @param uploadedAfter нижняя граница даты загрузки или null
+     * @param minSize минимальный размер в байтах (включительно)
+     * @param maxSize максимальный размер в байтах (не включительно)
+     * @param sort поле сортировки сервиса хранения (uploadedAt, size_asc, size_desc, views)
+     * @param cursor курсор следующей страницы из предыдущего ответа или null
+     * @param size размер страницы
+     * @return страница каталога
+     * @throws IOException если сервис хранения недоступен
+     */
+    public ImageCatalogPage findOriginalImages(String search, LocalDateTime uploadedAfter, long minSize, long maxSize,
+                                               String sort, String cursor, int size) throws IOException {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(storageServiceUrl)
+                .path("/api/images")
+                .queryParam("type", "original")
+                .queryParam("sort", sort)
+                .queryParam("direction", "desc")
+                .queryParam("size", size)
+                .queryParam("minSize", minSize)
+                .queryParam("maxSize", maxSize);
+        if (search != null && !search.isEmpty()) {
+            uri.queryParam("search", search);
+        }
+        if (uploadedAfter != null) {
+            uri.queryParam("uploadedAfter", uploadedAfter);
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            uri.queryParam("cursor", cursor);
+        }
+
+        try {
+            ImageCatalogPage page = restTemplate.getForObject(uri.build().encode().toUri(), ImageCatalogPage.class);
+            return page != null ? page : new ImageCatalogPage();
+        } catch (RestClientException e) {
+            logger.error("Error retrieving image catalog from storage: {}", e.getMessage(), e);
+            throw new IOException("Failed to retrieve image catalog: " + e.getMessage(), e);
+        }
+    }
+}
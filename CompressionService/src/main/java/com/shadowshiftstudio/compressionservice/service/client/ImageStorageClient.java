@@ -5,36 +5,97 @@ import com.shadowshiftstudio.compressionservice.dto.message.ImageMessage;
 import com.shadowshiftstudio.compressionservice.messaging.ImageMessageListener;
 import com.shadowshiftstudio.compressionservice.messaging.MessageSender;
 import com.shadowshiftstudio.compressionservice.model.Image;
+import com.shadowshiftstudio.compressionservice.model.ImageWithData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 /**
- * Client service for interacting with the ImageStorageService via message broker
+ * Client service for interacting with the ImageStorageService via message broker.
+ * Every request carries a unique correlation ID and waits only for the reply with that ID;
+ * request latency is recorded per action as the storage.rpc.requests timer.
  */
 @Service
 public class ImageStorageClient {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageStorageClient.class);
     private static final int DEFAULT_TIMEOUT_SECONDS = 60;
+    private static final String WEBP_CONTENT_TYPE = "image/webp";
 
     private final MessageSender messageSender;
     private final ImageMessageListener messageListener;
+    private final MeterRegistry meterRegistry;
+    private final ObjectTransferClient objectTransferClient;
+
+    @Value("${messaging.claim-check.enabled:true}")
+    private boolean claimCheckEnabled;
 
     @Autowired
-    public ImageStorageClient(MessageSender messageSender, ImageMessageListener messageListener) {
+    public ImageStorageClient(MessageSender messageSender, ImageMessageListener messageListener,
+                              MeterRegistry meterRegistry, ObjectTransferClient objectTransferClient) {
         this.messageSender = messageSender;
         this.messageListener = messageListener;
+        this.meterRegistry = meterRegistry;
+        this.objectTransferClient = objectTransferClient;
+    }
+
+    /**
+     * Handles the reply to a request
+     */
+    @FunctionalInterface
+    private interface ResponseHandler<T> {
+        void handle(ImageMessage response, String correlationId, CompletableFuture<T> future);
+    }
+
+    /**
+     * Sends a request to the storage service and waits for the reply with the same correlation ID
+     * 
+     * @param request request message
+     * @param handler reply handler completing the future
+     * @return result produced by the handler
+     */
+    private <T> T exchange(ImageMessage request, ResponseHandler<T> handler)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        String correlationId = UUID.randomUUID().toString();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        messageListener.registerCallback(correlationId, response -> handler.handle(response, correlationId, future));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            messageSender.sendRequestToStorage(request, correlationId);
+            T result = future.get(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            outcome = "success";
+            return result;
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            throw e;
+        } finally {
+            messageListener.cancel(correlationId);
+            sample.stop(Timer.builder("storage.rpc.requests")
+                    .description("Latency of requests to the storage service")
+                    .tag("action", request.getAction())
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
     }
 
     /**
@@ -57,35 +118,30 @@ public class ImageStorageClient {
      */
     public byte[] getImage(String id) throws IOException {
         logger.info("Getting image data for image ID: {}", id);
-        CompletableFuture<byte[]> future = new CompletableFuture<>();
-
-        messageListener.registerCallback(id, message -> {
-            if ("IMAGE_DATA".equals(message.getAction())) {
-                byte[] imageData = messageListener.getImageData(id);
-                if (imageData != null) {
-                    logger.info("Image data successfully retrieved for ID: {}, size: {} bytes", 
-                        id, imageData.length);
-                    future.complete(imageData);
-                } else {
-                    logger.error("Retrieved null image data for ID: {} despite receiving IMAGE_DATA action", id);
-                    future.completeExceptionally(new IOException("Received IMAGE_DATA action but actual data is null"));
-                }
-            } else if ("NOT_FOUND".equals(message.getAction()) || "ERROR".equals(message.getAction())) {
-                logger.error("Storage service reported image not found or error for ID: {}", id);
-                future.completeExceptionally(new IOException("Image not found or error retrieving image"));
-            } else {
-                logger.warn("Received unexpected action: {} for image ID: {}", message.getAction(), id);
-            }
-        });
 
-        ImageMessage message = new ImageMessage();
-        message.setImageId(id);
-        message.setAction("GET_IMAGE");
-        messageSender.sendToStorage(message);
-        logger.debug("Sent GET_IMAGE request for image ID: {}", id);
+        ImageMessage request = new ImageMessage();
+        request.setImageId(id);
+        request.setAction("GET_IMAGE");
 
         try {
-            byte[] result = future.get(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            byte[] result = exchange(request, (message, correlationId, future) -> {
+                if ("IMAGE_DATA".equals(message.getAction())) {
+                    byte[] imageData = messageListener.getImageData(correlationId);
+                    if (imageData != null) {
+                        logger.info("Image data successfully retrieved for ID: {}, size: {} bytes", 
+                            id, imageData.length);
+                        future.complete(imageData);
+                    } else {
+                        logger.error("Retrieved null image data for ID: {} despite receiving IMAGE_DATA action", id);
+                        future.completeExceptionally(new IOException("Received IMAGE_DATA action but actual data is null"));
+                    }
+                } else if ("NOT_FOUND".equals(message.getAction()) || "ERROR".equals(message.getAction())) {
+                    logger.error("Storage service reported image not found or error for ID: {}", id);
+                    future.completeExceptionally(new IOException("Image not found or error retrieving image"));
+                } else {
+                    logger.warn("Received unexpected action: {} for image ID: {}", message.getAction(), id);
+                }
+            });
             if (result != null) {
                 logger.info("Successfully fetched image data for ID: {}, size: {} bytes", id, result.length);
             } else {
@@ -106,24 +162,19 @@ public class ImageStorageClient {
      * @throws IOException if retrieval fails
      */
     public byte[] getOriginalImageBackup(String id) throws IOException {
-        CompletableFuture<byte[]> future = new CompletableFuture<>();
-
-        messageListener.registerCallback(id, message -> {
-            if ("ORIGINAL_DATA".equals(message.getAction())) {
-                byte[] imageData = messageListener.getImageData(id);
-                future.complete(imageData);
-            } else if ("NOT_FOUND".equals(message.getAction()) || "ERROR".equals(message.getAction())) {
-                future.completeExceptionally(new IOException("Original image not found or error retrieving image"));
-            }
-        });
-
-        ImageMessage message = new ImageMessage();
-        message.setImageId(id);
-        message.setAction("GET_ORIGINAL");
-        messageSender.sendToStorage(message);
+        ImageMessage request = new ImageMessage();
+        request.setImageId(id);
+        request.setAction("GET_ORIGINAL");
 
         try {
-            return future.get(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return exchange(request, (message, correlationId, future) -> {
+                if ("ORIGINAL_DATA".equals(message.getAction())) {
+                    byte[] imageData = messageListener.getImageData(correlationId);
+                    future.complete(imageData);
+                } else if ("NOT_FOUND".equals(message.getAction()) || "ERROR".equals(message.getAction())) {
+                    future.completeExceptionally(new IOException("Original image not found or error retrieving image"));
+                }
+            });
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
             logger.error("Failed to get original image data for id: {}", id, e);
             throw new IOException("Failed to get original image: " + e.getMessage(), e);
@@ -138,53 +189,23 @@ public class ImageStorageClient {
      */
     public Image getImageMetadata(String id) {
         logger.info("Getting metadata for image ID: {}", id);
-        CompletableFuture<Image> future = new CompletableFuture<>();
-
-        messageListener.registerCallback(id, message -> {
-            if ("METADATA".equals(message.getAction())) {
-                Image image = new Image();
-                image.setId(id);
-                
-                if (message.getMetadata() != null) {
-                    if (message.getMetadata().containsKey("originalFilename")) {
-                        image.setOriginalFilename(message.getMetadata().get("originalFilename").toString());
-                    }
-                    if (message.getMetadata().containsKey("contentType")) {
-                        image.setContentType(message.getMetadata().get("contentType").toString());
-                    }
-                    if (message.getMetadata().containsKey("size")) {
-                        image.setSize(Long.parseLong(message.getMetadata().get("size").toString()));
-                    }
-                    if (message.getMetadata().containsKey("compressionLevel")) {
-                        image.setCompressionLevel(Integer.parseInt(message.getMetadata().get("compressionLevel").toString()));
-                    } else {
-                        image.setCompressionLevel(0);
-                    }
-                    if (message.getMetadata().containsKey("objectName")) {
-                        image.setObjectName(message.getMetadata().get("objectName").toString());
-                    }
-                    if (message.getMetadata().containsKey("originalImageId")) {
-                        image.setOriginalImageId(message.getMetadata().get("originalImageId").toString());
-                    }
-                }
-                
-                logger.info("Received metadata for image ID: {}, compressionLevel: {}", 
-                    id, image.getCompressionLevel());
-                future.complete(image);
-            } else if ("NOT_FOUND".equals(message.getAction()) || "ERROR".equals(message.getAction())) {
-                logger.warn("Image metadata not found for ID: {}", id);
-                future.complete(null);
-            }
-        });
 
-        ImageMessage message = new ImageMessage();
-        message.setImageId(id);
-        message.setAction("GET_METADATA");
-        messageSender.sendToStorage(message);
-        logger.debug("Sent GET_METADATA request for image ID: {}", id);
+        ImageMessage request = new ImageMessage();
+        request.setImageId(id);
+        request.setAction("GET_METADATA");
 
         try {
-            Image result = future.get(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Image result = exchange(request, (message, correlationId, future) -> {
+                if ("METADATA".equals(message.getAction())) {
+                    Image image = toImage(id, message.getMetadata());
+                    logger.info("Received metadata for image ID: {}, compressionLevel: {}", 
+                        id, image.getCompressionLevel());
+                    future.complete(image);
+                } else if ("NOT_FOUND".equals(message.getAction()) || "ERROR".equals(message.getAction())) {
+                    logger.warn("Image metadata not found for ID: {}", id);
+                    future.complete(null);
+                }
+            });
             if (result != null) {
                 logger.info("Successfully retrieved metadata for image ID: {}", id);
             } else {
@@ -197,6 +218,92 @@ public class ImageStorageClient {
         }
     }
 
+    /**
+     * Gets image data together with its metadata in a single round trip.
+     * Data passed by reference is downloaded into a temporary file, which the caller deletes.
+     * 
+     * @param id image ID
+     * @return image metadata and data
+     * @throws IOException if the image is not found or retrieval fails
+     */
+    public ImageWithData getImageWithMetadata(String id) throws IOException {
+        logger.info("Getting image data with metadata for image ID: {}", id);
+
+        ImageMessage request = new ImageMessage();
+        request.setImageId(id);
+        request.setAction("GET_IMAGE_WITH_METADATA");
+        request.addMetadata("claimCheck", claimCheckEnabled);
+
+        ImageWithData result;
+        try {
+            result = exchange(request, (message, correlationId, future) -> {
+                if ("IMAGE_WITH_METADATA".equals(message.getAction()) && message.getMetadata() != null
+                        && message.getMetadata().containsKey("downloadUrl")) {
+                    Map<String, Object> metadata = message.getMetadata();
+                    future.complete(new ImageWithData(toImage(id, metadata), null,
+                            metadata.get("downloadUrl").toString(),
+                            Objects.toString(metadata.get("uploadUrl"), null),
+                            Objects.toString(metadata.get("stagingKey"), null)));
+                } else if ("IMAGE_WITH_METADATA".equals(message.getAction())) {
+                    byte[] imageData = messageListener.getImageData(correlationId);
+                    if (imageData != null) {
+                        future.complete(new ImageWithData(toImage(id, message.getMetadata()), imageData));
+                    } else {
+                        future.completeExceptionally(new IOException("Received IMAGE_WITH_METADATA action but actual data is null"));
+                    }
+                } else if ("NOT_FOUND".equals(message.getAction())) {
+                    future.completeExceptionally(new IOException("Image not found with id: " + id));
+                } else if ("ERROR".equals(message.getAction())) {
+                    future.completeExceptionally(new IOException("Error retrieving image"));
+                }
+            });
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            logger.error("Failed to get image with metadata for id: {}", id, e);
+            throw new IOException("Failed to get image: " + e.getMessage(), e);
+        }
+
+        if (result.getData() == null && result.getDownloadUrl() != null) {
+            logger.debug("Downloading image by reference for ID: {}", id);
+            Path dataFile = Files.createTempFile("compression_source_", ".bin");
+            try {
+                objectTransferClient.download(result.getDownloadUrl(), dataFile);
+            } catch (IOException e) {
+                Files.deleteIfExists(dataFile);
+                throw e;
+            }
+            result = result.withDataFile(dataFile);
+        }
+        return result;
+    }
+
+    private Image toImage(String id, Map<String, Object> metadata) {
+        Image image = new Image();
+        image.setId(id);
+        image.setCompressionLevel(0);
+
+        if (metadata != null) {
+            if (metadata.containsKey("originalFilename")) {
+                image.setOriginalFilename(metadata.get("originalFilename").toString());
+            }
+            if (metadata.containsKey("contentType")) {
+                image.setContentType(metadata.get("contentType").toString());
+            }
+            if (metadata.containsKey("size")) {
+                image.setSize(Long.parseLong(metadata.get("size").toString()));
+            }
+            if (metadata.containsKey("compressionLevel")) {
+                image.setCompressionLevel(Integer.parseInt(metadata.get("compressionLevel").toString()));
+            }
+            if (metadata.containsKey("objectName")) {
+                image.setObjectName(metadata.get("objectName").toString());
+            }
+            if (metadata.containsKey("originalImageId")) {
+                image.setOriginalImageId(metadata.get("originalImageId").toString());
+            }
+        }
+        return image;
+    }
+
     /**
      * Updates image compression in storage service
      * 
@@ -207,49 +314,56 @@ public class ImageStorageClient {
      * @throws IOException if update fails
      */
     public Image updateImageCompression(String imageId, byte[] imageData, int compressionLevel) throws IOException {
-        CompletableFuture<Image> future = new CompletableFuture<>();
-
-        messageListener.registerCallback(imageId, message -> {
-            if ("UPDATED".equals(message.getAction())) {
-                Image image = new Image();
-                image.setId(imageId);
-                image.setCompressionLevel(compressionLevel);
-                
-                if (message.getMetadata() != null) {
-                    if (message.getMetadata().containsKey("originalFilename")) {
-                        image.setOriginalFilename(message.getMetadata().get("originalFilename").toString());
-                    }
-                    if (message.getMetadata().containsKey("contentType")) {
-                        image.setContentType(message.getMetadata().get("contentType").toString());
-                    }
-                    if (message.getMetadata().containsKey("size")) {
-                        image.setSize(Long.parseLong(message.getMetadata().get("size").toString()));
-                    }
-                    if (message.getMetadata().containsKey("objectName")) {
-                        image.setObjectName(message.getMetadata().get("objectName").toString());
-                    }
-                    if (message.getMetadata().containsKey("originalImageId")) {
-                        image.setOriginalImageId(message.getMetadata().get("originalImageId").toString());
-                    }
-                }
-                
-                logger.info("Image successfully updated: id={}, compressionLevel={}", 
-                    imageId, compressionLevel);
-                future.complete(image);
-            } else if ("NOT_FOUND".equals(message.getAction()) || "ERROR".equals(message.getAction())) {
-                future.completeExceptionally(new IOException("Image not found or error updating image"));
-            }
-        });
+        CompressionMessage request = new CompressionMessage();
+        request.setImageId(imageId);
+        request.setAction("UPDATE_COMPRESSION");
+        request.setImageData(imageData);
+        request.setCompressionLevel(compressionLevel);
+        return sendUpdate(request);
+    }
 
-        CompressionMessage message = new CompressionMessage();
-        message.setImageId(imageId);
-        message.setAction("UPDATE_COMPRESSION");
-        message.setImageData(imageData);
-        message.setCompressionLevel(compressionLevel);
-        messageSender.sendToStorage(message);
+    /**
+     * Updates image compression in storage service using the transfer mode of the fetched image:
+     * if the storage service issued an upload reference, the data is uploaded directly to MinIO
+     * and only the staging key is sent through the message broker
+     * 
+     * @param source image fetched with {@link #getImageWithMetadata(String)}
+     * @param imageFile file with the new image data
+     * @param compressionLevel compression level
+     * @return updated image metadata
+     * @throws IOException if update fails
+     */
+    public Image updateImageCompression(ImageWithData source, Path imageFile, int compressionLevel) throws IOException {
+        if (!source.hasUploadReference()) {
+            return updateImageCompression(source.getMetadata().getId(), Files.readAllBytes(imageFile), compressionLevel);
+        }
+
+        objectTransferClient.upload(source.getUploadUrl(), imageFile, WEBP_CONTENT_TYPE);
+
+        CompressionMessage request = new CompressionMessage();
+        request.setImageId(source.getMetadata().getId());
+        request.setAction("UPDATE_COMPRESSION");
+        request.setCompressionLevel(compressionLevel);
+        request.addMetadata("stagingKey", source.getStagingKey());
+        return sendUpdate(request);
+    }
+
+    private Image sendUpdate(CompressionMessage request) throws IOException {
+        String imageId = request.getImageId();
+        int compressionLevel = request.getCompressionLevel();
 
         try {
-            return future.get(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return exchange(request, (message, correlationId, future) -> {
+                if ("UPDATED".equals(message.getAction())) {
+                    Image image = toImage(imageId, message.getMetadata());
+                    image.setCompressionLevel(compressionLevel);
+                    logger.info("Image successfully updated: id={}, compressionLevel={}", 
+                        imageId, compressionLevel);
+                    future.complete(image);
+                } else if ("NOT_FOUND".equals(message.getAction()) || "ERROR".equals(message.getAction())) {
+                    future.completeExceptionally(new IOException("Image not found or error updating image"));
+                }
+            });
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
             logger.error("Failed to update image compression for id: {}", imageId, e);
             throw new IOException("Failed to update image compression: " + e.getMessage(), e);
@@ -264,25 +378,20 @@ public class ImageStorageClient {
      * @throws IOException if deletion fails
      */
     public boolean deleteImage(String id) throws IOException {
-        CompletableFuture<Boolean> future = new CompletableFuture<>();
-
-        messageListener.registerCallback(id, message -> {
-            if ("DELETED".equals(message.getAction())) {
-                future.complete(true);
-            } else if ("NOT_FOUND".equals(message.getAction())) {
-                future.complete(false);
-            } else if ("ERROR".equals(message.getAction())) {
-                future.completeExceptionally(new IOException("Error deleting image"));
-            }
-        });
-
-        ImageMessage message = new ImageMessage();
-        message.setImageId(id);
-        message.setAction("DELETE");
-        messageSender.sendToStorage(message);
+        ImageMessage request = new ImageMessage();
+        request.setImageId(id);
+        request.setAction("DELETE");
 
         try {
-            return future.get(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return exchange(request, (message, correlationId, future) -> {
+                if ("DELETED".equals(message.getAction())) {
+                    future.complete(true);
+                } else if ("NOT_FOUND".equals(message.getAction())) {
+                    future.complete(false);
+                } else if ("ERROR".equals(message.getAction())) {
+                    future.completeExceptionally(new IOException("Error deleting image"));
+                }
+            });
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
             logger.error("Failed to delete image id: {}", id, e);
             throw new IOException("Failed to delete image: " + e.getMessage(), e);
@@ -296,50 +405,32 @@ public class ImageStorageClient {
      */
     public Map<String, Image> getAllImages() {
         logger.info("Retrieving metadata for all images");
-        CompletableFuture<Map<String, Image>> future = new CompletableFuture<>();
         long startTime = System.currentTimeMillis();
 
         String requestId = "all_images_" + System.currentTimeMillis();
-        messageListener.registerCallback(requestId, message -> {
-            if ("ALL_METADATA".equals(message.getAction())) {
-                Map<String, Image> images = messageListener.getAllImagesData(requestId);
-                if (images != null) {
-                    logger.info("Received metadata for {} images from storage service", images.size());
-                    future.complete(images);
-                } else {
-                    logger.warn("Received null images data from storage service");
-                    future.complete(new HashMap<>());
-                }
-            } else if ("ERROR".equals(message.getAction())) {
-                logger.error("Error response from storage service when retrieving all images");
-                future.complete(new HashMap<>());
-            } else {
-                logger.warn("Unexpected response action: {} when retrieving all images", message.getAction());
-                future.complete(new HashMap<>());
-            }
-        });
+        ImageMessage request = new ImageMessage();
+        request.setImageId(requestId);
+        request.setAction("GET_ALL_METADATA");
 
-        // Set a timeout to prevent hanging if the storage service doesn't respond
-        CompletableFuture.runAsync(() -> {
-            try {
-                Thread.sleep(DEFAULT_TIMEOUT_SECONDS * 1000);
-                if (!future.isDone()) {
-                    logger.error("Request to get all images timed out after {} seconds", DEFAULT_TIMEOUT_SECONDS);
+        try {
+            Map<String, Image> result = exchange(request, (message, correlationId, future) -> {
+                if ("ALL_METADATA".equals(message.getAction())) {
+                    Map<String, Image> images = messageListener.getAllImagesData(requestId);
+                    if (images != null) {
+                        logger.info("Received metadata for {} images from storage service", images.size());
+                        future.complete(images);
+                    } else {
+                        logger.warn("Received null images data from storage service");
+                        future.complete(new HashMap<>());
+                    }
+                } else if ("ERROR".equals(message.getAction())) {
+                    logger.error("Error response from storage service when retrieving all images");
+                    future.complete(new HashMap<>());
+                } else {
+                    logger.warn("Unexpected response action: {} when retrieving all images", message.getAction());
                     future.complete(new HashMap<>());
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        });
-
-        ImageMessage message = new ImageMessage();
-        message.setImageId(requestId);
-        message.setAction("GET_ALL_METADATA");
-        messageSender.sendToStorage(message);
-        logger.debug("Sent GET_ALL_METADATA request with ID: {}", requestId);
-
-        try {
-            Map<String, Image> result = future.get(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            });
             long duration = System.currentTimeMillis() - startTime;
             logger.info("Retrieved metadata for {} images in {}ms", result.size(), duration);
             return result;
@@ -0,0 +1,81 @@
+package com.shadowshiftstudio.compressionservice.service.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Transfers image data directly from and to MinIO through presigned URLs issued by the storage service.
+ * Data is streamed from and to files, so large images are never held on the heap.
+ */
+@Service
+public class ObjectTransferClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectTransferClient.class);
+
+    private final RestTemplate restTemplate;
+
+    @Autowired
+    public ObjectTransferClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    /**
+     * Downloads an object through a presigned GET URL into a file
+     * 
+     * @param url presigned URL
+     * @param target file to write the object data to
+     * @throws IOException if the download fails
+     */
+    public void download(String url, Path target) throws IOException {
+        long start = System.currentTimeMillis();
+        try {
+            // URI.create keeps the presigned query string exactly as signed
+            restTemplate.execute(URI.create(url), HttpMethod.GET, null, response -> {
+                Files.copy(response.getBody(), target, StandardCopyOption.REPLACE_EXISTING);
+                return null;
+            });
+            logger.debug("Downloaded {} bytes in {}ms", Files.size(target), System.currentTimeMillis() - start);
+        } catch (RestClientException e) {
+            throw new IOException("Failed to download object: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Uploads a file through a presigned PUT URL
+     * 
+     * @param url presigned URL
+     * @param file file to upload
+     * @param contentType content type of the data
+     * @throws IOException if the upload fails
+     */
+    public void upload(String url, Path file, String contentType) throws IOException {
+        long start = System.currentTimeMillis();
+        long size = Files.size(file);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        // Presigned PUTs need the length up front, the body is then streamed from the file
+        headers.setContentLength(size);
+        try {
+            restTemplate.exchange(URI.create(url), HttpMethod.PUT,
+                    new HttpEntity<>(new FileSystemResource(file), headers), Void.class);
+            logger.debug("Uploaded {} bytes in {}ms", size, System.currentTimeMillis() - start);
+        } catch (RestClientException e) {
+            throw new IOException("Failed to upload object: " + e.getMessage(), e);
+        }
+    }
+}
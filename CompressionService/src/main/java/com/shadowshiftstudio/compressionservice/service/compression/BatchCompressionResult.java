@@ -0,0 +1,54 @@
+package com.shadowshiftstudio.compressionservice.service.compression;
+
+/**
+ * Результат сжатия одного изображения в составе пакета.
+ * Передается клиенту отдельной строкой NDJSON сразу после завершения.
+ */
+public class BatchCompressionResult {
+
+    private final String imageId;
+    private final boolean success;
+    private final long compressedSize;
+    private final long elapsedMillis;
+    private final String error;
+
+    private BatchCompressionResult(String imageId, boolean success, long compressedSize, long elapsedMillis, String error) {
+        this.imageId = imageId;
+        this.success = success;
+        this.compressedSize = compressedSize;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    static BatchCompressionResult completed(String imageId, long compressedSize, long elapsedMillis) {
+        return new BatchCompressionResult(imageId, true, compressedSize, elapsedMillis, null);
+    }
+
+    static BatchCompressionResult failed(String imageId, long elapsedMillis, String error) {
+        return new BatchCompressionResult(imageId, false, 0, elapsedMillis, error);
+    }
+
+    public String getType() {
+        return "result";
+    }
+
+    public String getImageId() {
+        return imageId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,146 @@
+package com.shadowshiftstudio.compressionservice.service.compression;
+
+import com.shadowshiftstudio.compressionservice.dto.BatchCompressionRequest;
+import com.shadowshiftstudio.compressionservice.model.Image;
+import com.shadowshiftstudio.compressionservice.service.client.ImageCatalogClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Сервис пакетного сжатия изображений.
+ * Каждый пакет обрабатывается скользящим окном: одновременно выполняется не больше
+ * заданного числа изображений, следующее запускается по завершении предыдущего.
+ * Результаты передаются в порядке завершения, без ожидания всего пакета.
+ */
+@Service
+public class BatchCompressionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchCompressionService.class);
+
+    private final CompressionService compressionService;
+    private final ImageCatalogClient imageCatalogClient;
+    private final int parallelism;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public BatchCompressionService(CompressionService compressionService,
+                                   ImageCatalogClient imageCatalogClient,
+                                   @Value("${compression.batch.parallelism:0}") int parallelism) {
+        this.compressionService = compressionService;
+        this.imageCatalogClient = imageCatalogClient;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        logger.info("Batch compression initialized: parallelism={}", this.parallelism);
+    }
+
+    /**
+     * Определяет список изображений пакета по запросу
+     * @param request запрос пакетного сжатия
+     * @return список ID изображений без повторов
+     * @throws IllegalArgumentException если не задан ни список ID, ни фильтр, или фильтр размера неизвестен
+     * @throws IOException если не удалось получить список изображений из сервиса хранения
+     */
+    public List<String> resolveImageIds(BatchCompressionRequest request) throws IOException {
+        if (request.hasImageIds()) {
+            return new ArrayList<>(new LinkedHashSet<>(request.getImageIds()));
+        }
+        if (!request.hasFilter()) {
+            throw new IllegalArgumentException("Either imageIds or a filter must be specified");
+        }
+
+        long minSize = 0;
+        long maxSize = Long.MAX_VALUE;
+        if (request.getSizeFilter() != null && !request.getSizeFilter().isEmpty()) {
+            SizeBucket bucket = SizeBucket.fromName(request.getSizeFilter());
+            minSize = bucket.getMinSize();
+            maxSize = bucket.getMaxSize();
+        }
+
+        List<String> imageIds = imageCatalogClient.findImageIds(
+                request.getMangaId(), request.getChapterId(), minSize, maxSize);
+        return new ArrayList<>(new LinkedHashSet<>(imageIds));
+    }
+
+    /**
+     * Сжимает изображения пакета с ограниченным параллелизмом
+     * @param imageIds ID изображений
+     * @param compressionLevel уровень сжатия (0-100)
+     * @param listener получатель результатов; исключение из него прерывает пакет
+     * @return итоговая статистика пакета
+     */
+    public BatchCompressionSummary compress(List<String> imageIds, int compressionLevel,
+                                            Consumer<BatchCompressionResult> listener) {
+        logger.info("Starting batch compression of {} images, level: {}, parallelism: {}",
+                imageIds.size(), compressionLevel, parallelism);
+
+        long start = System.currentTimeMillis();
+        BatchCompressionSummary summary = new BatchCompressionSummary(imageIds.size());
+        CompletionService<BatchCompressionResult> completion = new ExecutorCompletionService<>(executor);
+        List<Future<BatchCompressionResult>> running = new ArrayList<>();
+        Iterator<String> pending = imageIds.iterator();
+
+        try {
+            while (running.size() < parallelism && pending.hasNext()) {
+                String imageId = pending.next();
+                running.add(completion.submit(() -> compressOne(imageId, compressionLevel)));
+            }
+
+            for (int done = 0; done < running.size(); done++) {
+                BatchCompressionResult result = completion.take().get();
+                if (pending.hasNext()) {
+                    String imageId = pending.next();
+                    running.add(completion.submit(() -> compressOne(imageId, compressionLevel)));
+                }
+                summary.add(result);
+                listener.accept(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Batch compression interrupted");
+        } catch (ExecutionException e) {
+            logger.error("Unexpected batch compression failure", e.getCause());
+        } finally {
+            running.forEach(future -> future.cancel(true));
+            summary.finish(System.currentTimeMillis() - start);
+        }
+
+        logger.info("Batch compression finished: total={}, succeeded={}, failed={}, elapsed={}ms, {} images/s",
+                summary.getTotal(), summary.getSucceeded(), summary.getFailed(),
+                summary.getElapsedMillis(), String.format("%.2f", summary.getImagesPerSecond()));
+        return summary;
+    }
+
+    private BatchCompressionResult compressOne(String imageId, int compressionLevel) {
+        long start = System.currentTimeMillis();
+        try {
+            Image image = compressionService.compressImage(imageId, compressionLevel);
+            return BatchCompressionResult.completed(imageId, image != null ? image.getSize() : 0,
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.warn("Batch compression failed for image: {}: {}", imageId, e.getMessage());
+            return BatchCompressionResult.failed(imageId, System.currentTimeMillis() - start,
+                    e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
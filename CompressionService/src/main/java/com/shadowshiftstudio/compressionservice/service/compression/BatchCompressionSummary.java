@@ -0,0 +1,76 @@
+package com.shadowshiftstudio.compressionservice.service.compression;
+
+/**
+ * Итоговая статистика пакетного сжатия.
+ * Передается клиенту последней строкой NDJSON.
+ */
+public class BatchCompressionSummary {
+
+    private final int total;
+    private int succeeded;
+    private int failed;
+    private long compressedBytes;
+    private long elapsedMillis;
+
+    BatchCompressionSummary(int total) {
+        this.total = total;
+    }
+
+    void add(BatchCompressionResult result) {
+        if (result.isSuccess()) {
+            succeeded++;
+            compressedBytes += result.getCompressedSize();
+        } else {
+            failed++;
+        }
+    }
+
+    void finish(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getType() {
+        return "summary";
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return число необработанных изображений, если пакет был прерван
+     */
+    public int getSkipped() {
+        return total - succeeded - failed;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return число обработанных изображений в секунду
+     */
+    public double getImagesPerSecond() {
+        return elapsedMillis > 0 ? (succeeded + failed) * 1000.0 / elapsedMillis : 0;
+    }
+
+    /**
+     * @return объем записанных сжатых данных в байтах в секунду
+     */
+    public double getBytesPerSecond() {
+        return elapsedMillis > 0 ? compressedBytes * 1000.0 / elapsedMillis : 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.shadowshiftstudio.compressionservice.service.compression;
+
+import com.shadowshiftstudio.compressionservice.model.Image;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Асинхронная задача сжатия изображения.
+ * Хранит состояние выполнения и результат для опроса через API.
+ */
+public class CompressionJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String imageId;
+    private final int compressionLevel;
+    private final LocalDateTime createdAt;
+    private volatile Status status;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile Image result;
+    private volatile String error;
+
+    public CompressionJob(String imageId, int compressionLevel) {
+        this.id = UUID.randomUUID().toString();
+        this.imageId = imageId;
+        this.compressionLevel = compressionLevel;
+        this.createdAt = LocalDateTime.now();
+        this.status = Status.QUEUED;
+    }
+
+    void markRunning() {
+        this.startedAt = LocalDateTime.now();
+        this.status = Status.RUNNING;
+    }
+
+    void markCompleted(Image result) {
+        this.result = result;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    /**
+     * @return true если задача завершена успешно или с ошибкой
+     */
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getImageId() {
+        return imageId;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Image getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,110 @@
+package com.shadowshiftstudio.compressionservice.service.compression;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервис асинхронных задач сжатия.
+ * Задачи выполняются ограниченным пулом потоков с ограниченной очередью;
+ * завершенные задачи хранятся в таблице задач заданное время, после чего удаляются.
+ */
+@Service
+public class CompressionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionJobService.class);
+
+    private final CompressionService compressionService;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompressionJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${compression.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Autowired
+    public CompressionJobService(CompressionService compressionService,
+                                 @Value("${compression.jobs.pool-size:0}") int poolSize,
+                                 @Value("${compression.jobs.queue-capacity:100}") int queueCapacity) {
+        this.compressionService = compressionService;
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "compression-job-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Compression job executor initialized: threads={}, queueCapacity={}", threads, queueCapacity);
+    }
+
+    /**
+     * Ставит задачу сжатия в очередь
+     * @param imageId ID изображения
+     * @param compressionLevel уровень сжатия (0-100)
+     * @return созданная задача
+     * @throws RejectedExecutionException если очередь задач заполнена
+     */
+    public CompressionJob submit(String imageId, int compressionLevel) {
+        CompressionJob job = new CompressionJob(imageId, compressionLevel);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            logger.warn("Compression job queue is full, rejecting job for image: {}", imageId);
+            throw e;
+        }
+        logger.info("Queued compression job {} for image: {}, level: {}", job.getId(), imageId, compressionLevel);
+        return job;
+    }
+
+    /**
+     * Возвращает задачу по ID
+     * @param jobId ID задачи
+     * @return задача, если она существует и еще не удалена
+     */
+    public Optional<CompressionJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(CompressionJob job) {
+        job.markRunning();
+        try {
+            job.markCompleted(compressionService.compressImage(job.getImageId(), job.getCompressionLevel()));
+            logger.info("Compression job {} completed", job.getId());
+        } catch (Exception e) {
+            logger.error("Compression job {} failed for image: {}", job.getId(), job.getImageId(), e);
+            job.markFailed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Удаляет завершенные задачи старше срока хранения, в том числе когда новых задач не поступает
+     */
+    @Scheduled(fixedDelayString = "${compression.jobs.purge-interval-ms:60000}")
+    public void purgeExpiredJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,15 +1,18 @@
 package com.shadowshiftstudio.compressionservice.service.compression;
 
 import com.shadowshiftstudio.compressionservice.model.Image;
+import com.shadowshiftstudio.compressionservice.model.ImageWithData;
 import com.shadowshiftstudio.compressionservice.service.client.ImageStorageClient;
 import com.shadowshiftstudio.compressionservice.service.webp.WebpService;
-import com.shadowshiftstudio.compressionservice.util.webp.WebpOptions;
+import shadowshift.studio.imagecodec.webp.WebpOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @Service
 public class CompressionService {
@@ -38,27 +41,29 @@ public class CompressionService {
             throw new IllegalArgumentException("Compression level must be between 0 and 100");
         }
         
-        byte[] imageData = null;
-        Image imageMetadata = null;
-        
+        ImageWithData image;
         try {
-            imageData = imageStorageClient.getImage(imageId);
-            logger.info("Retrieved image data for ID: {}, size: {} bytes", imageId, 
-                imageData != null ? imageData.length : 0);
+            image = imageStorageClient.getImageWithMetadata(imageId);
         } catch (IOException e) {
             logger.error("Failed to retrieve image data for ID: {}", imageId, e);
             throw new IOException("Failed to retrieve image data: " + e.getMessage(), e);
         }
-        
+
         try {
-            imageMetadata = imageStorageClient.getImageMetadata(imageId);
-            logger.info("Retrieved metadata for image ID: {}, metadata present: {}", 
-                imageId, imageMetadata != null);
-        } catch (Exception e) {
-            logger.error("Failed to retrieve image metadata for ID: {}", imageId, e);
+            return compressImage(imageId, image, compressionLevel);
+        } finally {
+            deleteQuietly(image.getDataFile());
         }
-        
-        if (imageData == null) {
+    }
+
+    private Image compressImage(String imageId, ImageWithData image, int compressionLevel) throws Exception {
+        Image imageMetadata = image.getMetadata();
+        byte[] imageData = image.getData();
+        Path imageFile = image.getDataFile();
+        logger.info("Retrieved image data with metadata for ID: {}, size: {} bytes", imageId,
+            imageFile != null ? Files.size(imageFile) : imageData != null ? imageData.length : 0);
+        
+        if (imageData == null && imageFile == null) {
             logger.error("Image data not found for ID: {}", imageId);
             throw new IOException("Image data not found with id: " + imageId);
         }
@@ -82,6 +87,10 @@ public class CompressionService {
         options.withQuality(mapCompressionLevelToQuality(compressionLevel));
         
         logger.info("Converting image to WebP with quality: {}", mapCompressionLevelToQuality(compressionLevel));
+        if (imageFile != null) {
+            return compressImageFile(imageId, image, imageFile, options, compressionLevel);
+        }
+
         byte[] compressedData = webpService.convertToWebp(imageData, options);
         
         if (compressedData == null) {
@@ -98,6 +107,34 @@ public class CompressionService {
                 
         return updatedImage;
     }
+
+    /**
+     * Сжимает изображение, загруженное по ссылке, через временные файлы:
+     * данные изображения не попадают в память сервиса
+     */
+    private Image compressImageFile(String imageId, ImageWithData image, Path imageFile, WebpOptions options,
+                                    int compressionLevel) throws Exception {
+        Path compressedFile = Files.createTempFile("compression_result_", ".webp");
+        try {
+            if (!webpService.convertToWebp(imageFile, compressedFile, options)) {
+                logger.error("WebP conversion failed for image ID: {}", imageId);
+                throw new IOException("WebP conversion failed");
+            }
+
+            long originalSize = Files.size(imageFile);
+            long compressedSize = Files.size(compressedFile);
+            logger.info("Saving compressed image data, original size: {}, compressed size: {}",
+                originalSize, compressedSize);
+            Image updatedImage = imageStorageClient.updateImageCompression(image, compressedFile, compressionLevel);
+
+            logger.info("Image compressed successfully: id={}, compressionLevel={}, originalSize={}, compressedSize={}",
+                    imageId, compressionLevel, originalSize, compressedSize);
+
+            return updatedImage;
+        } finally {
+            deleteQuietly(compressedFile);
+        }
+    }
     
     /**
      * Restores an image to its original state
@@ -132,6 +169,17 @@ public class CompressionService {
         return imageStorageClient.updateImageCompression(imageId, originalData, 0);
     }
     
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary file {}: {}", file, e.getMessage());
+        }
+    }
+
     private int mapCompressionLevelToQuality(int compressionLevel) {
         return Math.max(0, Math.min(100, 100 - compressionLevel));
     }
@@ -0,0 +1,48 @@
+package com.shadowshiftstudio.compressionservice.service.compression;
+
+/**
+ * Диапазоны размеров изображений, используемые фильтром sizeFilter
+ */
+public enum SizeBucket {
+    SMALL(0, 100 * 1024),
+    MEDIUM(100 * 1024, 1024 * 1024),
+    LARGE(1024 * 1024, 5 * 1024 * 1024),
+    XLARGE(5 * 1024 * 1024, Long.MAX_VALUE);
+
+    private final long minSize;
+    private final long maxSize;
+
+    SizeBucket(long minSize, long maxSize) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Находит диапазон по имени фильтра (small, medium, large, xlarge)
+     * @param name имя фильтра без учета регистра
+     * @return диапазон размеров
+     * @throws IllegalArgumentException если фильтр неизвестен
+     */
+    public static SizeBucket fromName(String name) {
+        for (SizeBucket bucket : values()) {
+            if (bucket.name().equalsIgnoreCase(name)) {
+                return bucket;
+            }
+        }
+        throw new IllegalArgumentException("Unknown size filter: " + name);
+    }
+
+    /**
+     * @return минимальный размер в байтах (включительно)
+     */
+    public long getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @return максимальный размер в байтах (не включительно)
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
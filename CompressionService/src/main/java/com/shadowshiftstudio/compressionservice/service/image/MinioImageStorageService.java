@@ -6,7 +6,7 @@ import com.shadowshiftstudio.compressionservice.model.Image;
 import com.shadowshiftstudio.compressionservice.repository.ImageRepository;
 import com.shadowshiftstudio.compressionservice.service.ImageStorageService;
 import com.shadowshiftstudio.compressionservice.service.webp.WebpService;
-import com.shadowshiftstudio.compressionservice.util.webp.WebpOptions;
+import shadowshift.studio.imagecodec.webp.WebpOptions;
 import io.minio.*;
 import io.minio.messages.Item;
 import org.slf4j.Logger;
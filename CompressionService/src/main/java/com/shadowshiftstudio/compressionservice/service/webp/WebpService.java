@@ -1,13 +1,16 @@
 package com.shadowshiftstudio.compressionservice.service.webp;
 
 import com.shadowshiftstudio.compressionservice.model.Image;
-import com.shadowshiftstudio.compressionservice.util.webp.CWebpException;
-import com.shadowshiftstudio.compressionservice.util.webp.WebpConverter;
-import com.shadowshiftstudio.compressionservice.util.webp.WebpOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import shadowshift.studio.imagecodec.ImageCodec;
+import shadowshift.studio.imagecodec.webp.CWebpException;
+import shadowshift.studio.imagecodec.webp.WebpOptions;
+
+import java.nio.file.Path;
 
 /**
  * Сервис для работы с WebP изображениями
@@ -17,9 +20,16 @@ public class WebpService {
 
     private static final Logger logger = LoggerFactory.getLogger(WebpService.class);
     
+    private final ImageCodec imageCodec;
+    
     @Value("${webp.default-quality:100}")
     private int defaultQuality;
     
+    @Autowired
+    public WebpService(ImageCodec imageCodec) {
+        this.imageCodec = imageCodec;
+    }
+    
     /**
      * Конвертирует изображение в формат WebP с качеством по умолчанию
      * @param imageData байтовые данные исходного изображения
@@ -46,7 +56,7 @@ public class WebpService {
                 .withQuality(quality)
                 .withExact(true);
                 
-            return WebpConverter.imageToWebpByte(imageData, options);
+            return imageCodec.encodeWebp(imageData, options);
         } catch (CWebpException e) {
             logger.error("Failed to convert image to WebP: {}", e.getMessage(), e);
             return null;
@@ -66,13 +76,30 @@ public class WebpService {
         }
         
         try {
-            return WebpConverter.imageToWebpByte(imageData, options);
+            return imageCodec.encodeWebp(imageData, options);
         } catch (CWebpException e) {
             logger.error("Failed to convert image to WebP with custom options: {}", e.getMessage(), e);
             return null;
         }
     }
     
+    /**
+     * Конвертирует файл изображения в файл WebP, не загружая изображение в память
+     * @param input исходный файл изображения
+     * @param output файл для сконвертированных WebP данных
+     * @param options настройки конвертации
+     * @return true если конвертация удалась, false в противном случае
+     */
+    public boolean convertToWebp(Path input, Path output, WebpOptions options) {
+        try {
+            imageCodec.encodeWebp(input, output, options);
+            return true;
+        } catch (CWebpException e) {
+            logger.error("Failed to convert image file to WebP: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+    
     /**
      * Конвертирует изображение с оптимизацией для фотографий
      * @param imageData байтовые данные исходного изображения
@@ -97,6 +124,6 @@ public class WebpService {
      * @return true если формат поддерживается, false в противном случае
      */
     public boolean isSupportedFormat(byte[] imageData) {
-        return WebpConverter.isSupportedFormat(imageData);
+        return imageCodec.canEncode(imageData);
     }
 }
\ No newline at end of file
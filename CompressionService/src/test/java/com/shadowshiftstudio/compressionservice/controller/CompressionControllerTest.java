@@ -0,0 +1,104 @@
+package com.shadowshiftstudio.compressionservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shadowshiftstudio.compressionservice.model.Image;
+import com.shadowshiftstudio.compressionservice.service.client.ImageCatalogClient;
+import com.shadowshiftstudio.compressionservice.service.compression.BatchCompressionService;
+import com.shadowshiftstudio.compressionservice.service.compression.CompressionJobService;
+import com.shadowshiftstudio.compressionservice.service.compression.CompressionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CompressionControllerTest {
+
+    private CompressionService compressionService;
+    private BatchCompressionService batchCompressionService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        compressionService = mock(CompressionService.class);
+        batchCompressionService = new BatchCompressionService(compressionService, mock(ImageCatalogClient.class), 2);
+        CompressionController controller = new CompressionController(compressionService,
+                mock(CompressionJobService.class), batchCompressionService, new ObjectMapper());
+        ReflectionTestUtils.setField(controller, "batchTimeoutMs", 5000L);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchCompressionService.shutdown();
+    }
+
+    @Test
+    void batchStreamsOneLinePerImageAndSummaryWithItsOwnTimeout() throws Exception {
+        Image compressed = new Image();
+        compressed.setSize(100);
+        when(compressionService.compressImage(eq("a"), anyInt())).thenReturn(compressed);
+        when(compressionService.compressImage(eq("b"), anyInt())).thenThrow(new IOException("Изображение не найдено"));
+
+        MvcResult started = mockMvc.perform(post("/api/compression/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"imageIds\":[\"a\",\"b\"],\"compressionLevel\":50}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(5000L, started.getRequest().getAsyncContext().getTimeout());
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[2].contains("\"succeeded\":1"), lines[2]);
+        assertTrue(lines[2].contains("\"failed\":1"), lines[2]);
+        assertTrue(String.join("\n", lines).contains("Изображение не найдено"));
+    }
+
+    @Test
+    void batchWithInvalidLevelIsRejected() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/compression/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"imageIds\":[\"a\"],\"compressionLevel\":150}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Уровень сжатия должен быть от 0 до 100"));
+    }
+
+    @Test
+    void batchWithoutImagesOrFilterIsRejected() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/compression/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"compressionLevel\":50}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+}
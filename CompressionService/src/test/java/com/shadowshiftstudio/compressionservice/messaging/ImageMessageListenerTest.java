@@ -0,0 +1,149 @@
+package com.shadowshiftstudio.compressionservice.messaging;
+
+import com.shadowshiftstudio.compressionservice.config.RabbitMQConfig;
+import com.shadowshiftstudio.compressionservice.dto.message.ImageMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImageMessageListenerTest {
+
+    private MessageConverter converter;
+    private ImageMessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        RabbitMQConfig config = new RabbitMQConfig();
+        converter = config.jsonMessageConverter(config.classMapper());
+        listener = new ImageMessageListener(new SimpleMeterRegistry(), 1024 * 1024, 60);
+        ReflectionTestUtils.setField(listener, "messageConverter", converter);
+    }
+
+    @Test
+    void jsonReplyInvokesOnlyTheCallbackWithMatchingCorrelationId() {
+        AtomicReference<ImageMessage> first = new AtomicReference<>();
+        AtomicReference<ImageMessage> second = new AtomicReference<>();
+        listener.registerCallback("c1", first::set);
+        listener.registerCallback("c2", second::set);
+
+        listener.onMessage(jsonReply("img", "IMAGE_STATUS", "c2"));
+
+        assertNull(first.get());
+        assertEquals("img", second.get().getImageId());
+        assertEquals("IMAGE_STATUS", second.get().getAction());
+        assertEquals(1, listener.getPendingRequestCount());
+    }
+
+    @Test
+    void jsonReplyWithUnknownCorrelationIdIsDropped() {
+        AtomicReference<ImageMessage> received = new AtomicReference<>();
+        listener.registerCallback("c1", received::set);
+
+        listener.onMessage(jsonReply("img", "IMAGE_STATUS", "other"));
+
+        assertNull(received.get());
+        assertEquals(1, listener.getPendingRequestCount());
+    }
+
+    @Test
+    void binaryReplyIsMatchedByCorrelationIdAndClaimedOnce() {
+        AtomicReference<ImageMessage> received = new AtomicReference<>();
+        listener.registerCallback("c1", received::set);
+        listener.onMessage(binaryAnnouncement("img", "c1"));
+
+        listener.onMessage(binaryReply("img", "IMAGE_DATA", "c1", new byte[] {1, 2, 3}));
+
+        assertEquals("img", received.get().getImageId());
+        assertEquals("IMAGE_DATA", received.get().getAction());
+        assertEquals("image/png", received.get().getMetadata().get("contentType"));
+        assertArrayEquals(new byte[] {1, 2, 3}, listener.getImageData("c1"));
+        assertNull(listener.getImageData("c1"));
+        assertEquals(0, listener.getPendingRequestCount());
+    }
+
+    @Test
+    void concurrentRequestsForTheSameImageReceiveTheirOwnData() {
+        AtomicReference<ImageMessage> first = new AtomicReference<>();
+        AtomicReference<ImageMessage> second = new AtomicReference<>();
+        listener.registerCallback("c1", first::set);
+        listener.registerCallback("c2", second::set);
+
+        listener.onMessage(binaryReply("img", "ORIGINAL_DATA", "c2", new byte[] {2}));
+        listener.onMessage(binaryReply("img", "IMAGE_DATA", "c1", new byte[] {1}));
+
+        assertEquals("IMAGE_DATA", first.get().getAction());
+        assertEquals("ORIGINAL_DATA", second.get().getAction());
+        assertArrayEquals(new byte[] {1}, listener.getImageData("c1"));
+        assertArrayEquals(new byte[] {2}, listener.getImageData("c2"));
+    }
+
+    @Test
+    void binaryReplyWithoutPendingRequestIsNotKept() {
+        listener.onMessage(binaryReply("img", "IMAGE_DATA", "late", new byte[] {1}));
+
+        assertNull(listener.getImageData("late"));
+    }
+
+    @Test
+    void binaryReplyAfterCancelIsNotKept() {
+        AtomicReference<ImageMessage> received = new AtomicReference<>();
+        listener.registerCallback("c1", received::set);
+        listener.cancel("c1");
+
+        listener.onMessage(binaryReply("img", "IMAGE_DATA", "c1", new byte[] {1}));
+
+        assertNull(received.get());
+        assertNull(listener.getImageData("c1"));
+    }
+
+    @Test
+    void binaryReplyWithoutCorrelationIdIsIgnored() {
+        AtomicReference<ImageMessage> received = new AtomicReference<>();
+        listener.registerCallback("c1", received::set);
+
+        listener.onMessage(binaryReply("img", "IMAGE_DATA", null, new byte[] {1}));
+
+        assertNull(received.get());
+        assertEquals(1, listener.getPendingRequestCount());
+    }
+
+    private Message jsonReply(String imageId, String action, String correlationId) {
+        ImageMessage message = new ImageMessage();
+        message.setImageId(imageId);
+        message.setAction(action);
+        MessageProperties props = new MessageProperties();
+        props.setCorrelationId(correlationId);
+        return converter.toMessage(message, props);
+    }
+
+    private Message binaryAnnouncement(String imageId, String correlationId) {
+        ImageMessage message = new ImageMessage();
+        message.setImageId(imageId);
+        message.setAction("IMAGE_DATA");
+        message.addMetadata("binaryTransfer", true);
+        MessageProperties props = new MessageProperties();
+        props.setCorrelationId(correlationId);
+        return converter.toMessage(message, props);
+    }
+
+    private static Message binaryReply(String imageId, String action, String correlationId, byte[] data) {
+        MessageProperties props = new MessageProperties();
+        props.setContentType(MessageProperties.CONTENT_TYPE_BYTES);
+        props.setCorrelationId(correlationId);
+        props.setHeader("imageId", imageId);
+        props.setHeader("action", action);
+        props.setHeader("messageType", "binary");
+        props.setHeader("contentType", "image/png");
+        return new Message(data, props);
+    }
+}
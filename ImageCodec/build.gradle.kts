@@ -0,0 +1,28 @@
+plugins {
+	`java-library`
+}
+
+group = "shadowshift.studio"
+version = "0.0.1-SNAPSHOT"
+
+java {
+	toolchain {
+		languageVersion = JavaLanguageVersion.of(21)
+	}
+}
+
+repositories {
+	mavenCentral()
+}
+
+dependencies {
+	implementation("commons-io:commons-io:2.15.1") // Утилиты для работы с файлами
+
+	testImplementation(platform("org.junit:junit-bom:5.11.4"))
+	testImplementation("org.junit.jupiter:junit-jupiter")
+	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.withType<Test> {
+	useJUnitPlatform()
+}
@@ -0,0 +1,162 @@
+package shadowshift.studio.imagecodec;
+
+import shadowshift.studio.imagecodec.webp.CWebpEncoder;
+import shadowshift.studio.imagecodec.webp.CWebpException;
+import shadowshift.studio.imagecodec.webp.PooledWebpEncoder;
+import shadowshift.studio.imagecodec.webp.WebpEncoder;
+import shadowshift.studio.imagecodec.webp.WebpOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single entry point for image format detection and WebP encoding shared by the services.
+ * Encoding goes through a bounded {@link PooledWebpEncoder}; every call is counted so that
+ * the services can publish codec statistics.
+ */
+public class ImageCodec {
+
+    private final WebpEncoder encoder;
+    private final PooledWebpEncoder pool;
+
+    private final LongAdder encoded = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+
+    /**
+     * Create a codec encoding through the given encoder
+     * @param encoder WebP encoder backend
+     */
+    public ImageCodec(WebpEncoder encoder) {
+        this.encoder = encoder;
+        this.pool = encoder instanceof PooledWebpEncoder ? (PooledWebpEncoder) encoder : null;
+    }
+
+    /**
+     * Create a codec backed by a pool of cwebp processes
+     * @param settings pool and process settings
+     * @return configured codec
+     */
+    public static ImageCodec pooled(ImageCodecSettings settings) {
+        int poolSize = settings.getPoolSize() > 0 ? settings.getPoolSize() : Runtime.getRuntime().availableProcessors();
+        WebpEncoder processEncoder = new CWebpEncoder(settings.getJobTimeoutMillis(), settings.isUsePipes());
+        return new ImageCodec(new PooledWebpEncoder(processEncoder, poolSize, settings.getQueueCapacity(),
+                settings.getQueueTimeoutMillis(), settings.getMaxRetries()));
+    }
+
+    /**
+     * Detect the format of an image by its magic bytes
+     * @param imageData image data or at least its first {@link ImageFormat#HEADER_LENGTH} bytes
+     * @return detected format
+     */
+    public ImageFormat detectFormat(byte[] imageData) {
+        return ImageFormat.detect(imageData);
+    }
+
+    /**
+     * Check whether the image can be encoded to WebP
+     * @param imageData image data or at least its first {@link ImageFormat#HEADER_LENGTH} bytes
+     * @return true if the format is supported by the encoder
+     */
+    public boolean canEncode(byte[] imageData) {
+        return detectFormat(imageData).isWebpEncodable();
+    }
+
+    /**
+     * Encode an image to WebP
+     * @param imageData input image data
+     * @param options WebP options to apply
+     * @return WebP image data
+     * @throws CWebpException if the image could not be encoded or the encoder is saturated
+     */
+    public byte[] encodeWebp(byte[] imageData, WebpOptions options) throws CWebpException {
+        long start = System.nanoTime();
+        try {
+            byte[] result = encoder.encode(imageData, options);
+            encoded.increment();
+            bytesIn.add(imageData.length);
+            bytesOut.add(result.length);
+            return result;
+        } catch (CWebpException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            encodeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Detect the format of an image file by its magic bytes
+     * @param imageFile image file
+     * @return detected format
+     * @throws IOException if the file cannot be read
+     */
+    public ImageFormat detectFormat(Path imageFile) throws IOException {
+        try (InputStream in = Files.newInputStream(imageFile)) {
+            return ImageFormat.detect(in.readNBytes(ImageFormat.HEADER_LENGTH));
+        }
+    }
+
+    /**
+     * Check whether an image file can be encoded to WebP
+     * @param imageFile image file
+     * @return true if the format is supported by the encoder
+     * @throws IOException if the file cannot be read
+     */
+    public boolean canEncode(Path imageFile) throws IOException {
+        return detectFormat(imageFile).isWebpEncodable();
+    }
+
+    /**
+     * Encode an image file to a WebP file. Only the encoder process holds the image,
+     * so large images do not occupy the heap.
+     * @param input input image file
+     * @param output WebP file to write
+     * @param options WebP options to apply
+     * @throws CWebpException if the image could not be encoded or the encoder is saturated
+     */
+    public void encodeWebp(Path input, Path output, WebpOptions options) throws CWebpException {
+        long start = System.nanoTime();
+        try {
+            encoder.encode(input, output, options);
+            encoded.increment();
+            bytesIn.add(sizeOf(input));
+            bytesOut.add(sizeOf(output));
+        } catch (CWebpException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            encodeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the codec statistics
+     */
+    public ImageCodecStats getStats() {
+        return new ImageCodecStats(
+                encoded.sum(),
+                failures.sum(),
+                bytesIn.sum(),
+                bytesOut.sum(),
+                encodeNanos.sum(),
+                pool != null ? pool.getPoolSize() : 0,
+                pool != null ? pool.getActiveCount() : 0,
+                pool != null ? pool.getQueuedCount() : 0,
+                pool != null ? pool.getRejectedCount() : 0,
+                pool != null ? pool.getRetriedCount() : 0);
+    }
+}
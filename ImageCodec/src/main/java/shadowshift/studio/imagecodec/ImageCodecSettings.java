@@ -0,0 +1,101 @@
+package shadowshift.studio.imagecodec;
+
+import shadowshift.studio.imagecodec.webp.CWebp;
+
+/**
+ * Settings of the encoder pool behind {@link ImageCodec}.
+ * Follows the fluent {@code withX} style of the WebP options.
+ */
+public class ImageCodecSettings {
+
+    private int poolSize = 0;
+    private int queueCapacity = 64;
+    private long queueTimeoutMillis = 10_000;
+    private long jobTimeoutMillis = CWebp.DEFAULT_TIMEOUT_MILLIS;
+    private int maxRetries = 1;
+    private boolean usePipes = true;
+
+    /**
+     * Set the number of concurrently encoded jobs, 0 means one per CPU core
+     * @param poolSize number of encoder slots
+     * @return this settings object for chaining
+     */
+    public ImageCodecSettings withPoolSize(int poolSize) {
+        this.poolSize = Math.max(0, poolSize);
+        return this;
+    }
+
+    /**
+     * Set the number of jobs allowed to wait for a free slot
+     * @param queueCapacity queue capacity
+     * @return this settings object for chaining
+     */
+    public ImageCodecSettings withQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(0, queueCapacity);
+        return this;
+    }
+
+    /**
+     * Set the time a job may wait for a free slot
+     * @param queueTimeoutMillis timeout in milliseconds
+     * @return this settings object for chaining
+     */
+    public ImageCodecSettings withQueueTimeoutMillis(long queueTimeoutMillis) {
+        this.queueTimeoutMillis = Math.max(0, queueTimeoutMillis);
+        return this;
+    }
+
+    /**
+     * Set the time a single encoder run may take
+     * @param jobTimeoutMillis timeout in milliseconds
+     * @return this settings object for chaining
+     */
+    public ImageCodecSettings withJobTimeoutMillis(long jobTimeoutMillis) {
+        this.jobTimeoutMillis = jobTimeoutMillis > 0 ? jobTimeoutMillis : CWebp.DEFAULT_TIMEOUT_MILLIS;
+        return this;
+    }
+
+    /**
+     * Set the number of retries after an encoder crash or timeout
+     * @param maxRetries number of retries
+     * @return this settings object for chaining
+     */
+    public ImageCodecSettings withMaxRetries(int maxRetries) {
+        this.maxRetries = Math.max(0, maxRetries);
+        return this;
+    }
+
+    /**
+     * Set whether image data is streamed through stdin/stdout instead of temporary files
+     * @param usePipes true to use pipes
+     * @return this settings object for chaining
+     */
+    public ImageCodecSettings withPipes(boolean usePipes) {
+        this.usePipes = usePipes;
+        return this;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getQueueTimeoutMillis() {
+        return queueTimeoutMillis;
+    }
+
+    public long getJobTimeoutMillis() {
+        return jobTimeoutMillis;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public boolean isUsePipes() {
+        return usePipes;
+    }
+}
@@ -0,0 +1,102 @@
+package shadowshift.studio.imagecodec;
+
+/**
+ * Point-in-time statistics of an {@link ImageCodec}
+ */
+public class ImageCodecStats {
+
+    private final long encoded;
+    private final long failures;
+    private final long bytesIn;
+    private final long bytesOut;
+    private final long encodeNanos;
+    private final int poolSize;
+    private final int activeJobs;
+    private final int queuedJobs;
+    private final long rejectedJobs;
+    private final long retriedJobs;
+
+    public ImageCodecStats(long encoded, long failures, long bytesIn, long bytesOut, long encodeNanos,
+                           int poolSize, int activeJobs, int queuedJobs, long rejectedJobs, long retriedJobs) {
+        this.encoded = encoded;
+        this.failures = failures;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+        this.encodeNanos = encodeNanos;
+        this.poolSize = poolSize;
+        this.activeJobs = activeJobs;
+        this.queuedJobs = queuedJobs;
+        this.rejectedJobs = rejectedJobs;
+        this.retriedJobs = retriedJobs;
+    }
+
+    /**
+     * Returns the number of successfully encoded images
+     */
+    public long getEncoded() {
+        return encoded;
+    }
+
+    /**
+     * Returns the number of failed encodings, including rejected ones
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the total size of successfully encoded inputs
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * Returns the total size of produced WebP images
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * Returns the total time spent in encode calls, including waiting for a slot
+     */
+    public long getEncodeNanos() {
+        return encodeNanos;
+    }
+
+    /**
+     * Returns the number of encoder slots
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Returns the number of jobs currently being encoded
+     */
+    public int getActiveJobs() {
+        return activeJobs;
+    }
+
+    /**
+     * Returns the number of jobs waiting for a slot
+     */
+    public int getQueuedJobs() {
+        return queuedJobs;
+    }
+
+    /**
+     * Returns the number of jobs rejected because the pool was saturated
+     */
+    public long getRejectedJobs() {
+        return rejectedJobs;
+    }
+
+    /**
+     * Returns the number of retries after encoder crashes
+     */
+    public long getRetriedJobs() {
+        return retriedJobs;
+    }
+}
@@ -0,0 +1,92 @@
+package shadowshift.studio.imagecodec;
+
+/**
+ * Image formats recognised by their magic bytes.
+ * Every format knows whether cwebp is able to encode it to WebP.
+ */
+public enum ImageFormat {
+
+    JPEG("jpg", "image/jpeg", true),
+    PNG("png", "image/png", true),
+    TIFF("tif", "image/tiff", true),
+    WEBP("webp", "image/webp", true),
+    GIF("gif", "image/gif", false),
+    BMP("bmp", "image/bmp", false),
+    UNKNOWN("dat", "application/octet-stream", false);
+
+    /**
+     * Number of leading bytes needed to recognise every format
+     */
+    public static final int HEADER_LENGTH = 12;
+
+    private final String extension;
+    private final String contentType;
+    private final boolean webpEncodable;
+
+    ImageFormat(String extension, String contentType, boolean webpEncodable) {
+        this.extension = extension;
+        this.contentType = contentType;
+        this.webpEncodable = webpEncodable;
+    }
+
+    /**
+     * Detect the format from the first bytes of an image
+     * @param header image data, at least {@link #HEADER_LENGTH} bytes are needed for a reliable result
+     * @return detected format, {@link #UNKNOWN} if none matched
+     */
+    public static ImageFormat detect(byte[] header) {
+        if (header == null || header.length < 4) {
+            return UNKNOWN;
+        }
+
+        if (header[0] == (byte) 0xFF && header[1] == (byte) 0xD8 && header[2] == (byte) 0xFF) {
+            return JPEG;
+        }
+        if (header[0] == (byte) 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+            return PNG;
+        }
+        if (header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+            return GIF;
+        }
+        if (header.length >= HEADER_LENGTH && header[0] == 'R' && header[1] == 'I' && header[2] == 'F'
+                && header[3] == 'F' && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return WEBP;
+        }
+        if ((header[0] == 0x49 && header[1] == 0x49 && header[2] == 0x2A && header[3] == 0x00)
+                || (header[0] == 0x4D && header[1] == 0x4D && header[2] == 0x00 && header[3] == 0x2A)) {
+            return TIFF;
+        }
+        if (header[0] == 'B' && header[1] == 'M') {
+            return BMP;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns the usual file extension of the format
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns the MIME type of the format
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Returns true if the format is a known image format
+     */
+    public boolean isImage() {
+        return this != UNKNOWN;
+    }
+
+    /**
+     * Returns true if cwebp can encode this format to WebP
+     */
+    public boolean isWebpEncodable() {
+        return webpEncodable;
+    }
+}
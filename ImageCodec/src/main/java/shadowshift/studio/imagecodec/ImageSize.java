@@ -0,0 +1,139 @@
+package shadowshift.studio.imagecodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Pixel dimensions of an image, read from the format header without decoding the image
+ */
+public class ImageSize {
+
+    /**
+     * JPEG frame headers follow the metadata segments (EXIF, ICC profile), which are usually
+     * well within this many bytes
+     */
+    private static final int MAX_HEADER_BYTES = 256 * 1024;
+
+    private final int width;
+    private final int height;
+
+    public ImageSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Read the dimensions of a JPEG, PNG, GIF or WebP image
+     * @param imageData image data, the header is enough
+     * @return image dimensions, or null if the format is not supported or the header is malformed
+     */
+    public static ImageSize read(byte[] imageData) {
+        try {
+            return switch (ImageFormat.detect(imageData)) {
+                case PNG -> imageData.length >= 24
+                        ? new ImageSize(int32BigEndian(imageData, 16), int32BigEndian(imageData, 20)) : null;
+                case GIF -> imageData.length >= 10
+                        ? new ImageSize(uint16LittleEndian(imageData, 6), uint16LittleEndian(imageData, 8)) : null;
+                case WEBP -> readWebp(imageData);
+                case JPEG -> readJpeg(imageData);
+                default -> null;
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the dimensions of an image file from its first bytes
+     * @param imageFile image file
+     * @return image dimensions, or null if the format is not supported or the header is malformed
+     * @throws IOException if the file cannot be read
+     */
+    public static ImageSize read(Path imageFile) throws IOException {
+        try (InputStream in = Files.newInputStream(imageFile)) {
+            return read(in.readNBytes(MAX_HEADER_BYTES));
+        }
+    }
+
+    private static ImageSize readWebp(byte[] data) {
+        if (data.length < 30) {
+            return null;
+        }
+        String chunk = new String(data, 12, 4, StandardCharsets.US_ASCII);
+        switch (chunk) {
+            case "VP8 ":
+                // Lossy: 14-bit dimensions follow the key frame start code 9d 01 2a
+                return new ImageSize(uint16LittleEndian(data, 26) & 0x3FFF, uint16LittleEndian(data, 28) & 0x3FFF);
+            case "VP8L":
+                // Lossless: 14-bit width and height minus one, packed after the 0x2f signature
+                int b0 = data[21] & 0xFF;
+                int b1 = data[22] & 0xFF;
+                int b2 = data[23] & 0xFF;
+                int b3 = data[24] & 0xFF;
+                return new ImageSize(1 + (b0 | (b1 & 0x3F) << 8), 1 + (b1 >> 6 | b2 << 2 | (b3 & 0x0F) << 10));
+            case "VP8X":
+                // Extended: 24-bit canvas width and height minus one
+                return new ImageSize(1 + uint24LittleEndian(data, 24), 1 + uint24LittleEndian(data, 27));
+            default:
+                return null;
+        }
+    }
+
+    private static ImageSize readJpeg(byte[] data) {
+        int offset = 2;
+        while (offset + 9 < data.length) {
+            if ((data[offset] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = data[offset + 1] & 0xFF;
+            if (marker == 0xFF) {
+                offset++;
+                continue;
+            }
+            // SOF0-SOF15 carry the frame size; C4, C8 and CC are other segments in the same range
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                return new ImageSize(uint16BigEndian(data, offset + 7), uint16BigEndian(data, offset + 5));
+            }
+            offset += 2 + uint16BigEndian(data, offset + 2);
+        }
+        return null;
+    }
+
+    private static int uint16BigEndian(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 8 | data[offset + 1] & 0xFF;
+    }
+
+    private static int uint16LittleEndian(byte[] data, int offset) {
+        return data[offset] & 0xFF | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int uint24LittleEndian(byte[] data, int offset) {
+        return uint16LittleEndian(data, offset) | (data[offset + 2] & 0xFF) << 16;
+    }
+
+    private static int int32BigEndian(byte[] data, int offset) {
+        return uint16BigEndian(data, offset) << 16 | uint16BigEndian(data, offset + 2);
+    }
+
+    /**
+     * Returns the image width in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the image height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height;
+    }
+}
@@ -1,4 +1,4 @@
-package com.shadowshiftstudio.compressionservice.util.webp;
+package shadowshift.studio.imagecodec.webp;
 
 import java.io.*;
 import java.net.URL;
@@ -8,6 +8,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -29,9 +31,34 @@ public class CWebp {
     private static boolean webpBinaryInitialized = false;
 
     /**
-     * StringBuffer of command line
+     * Default time a single cwebp run may take before it is killed
      */
-    private StringBuffer command;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Arguments of the command line, starting with the cwebp binary
+     */
+    private final List<String> command = new ArrayList<>();
+
+    /**
+     * Time the process may run before it is destroyed
+     */
+    private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    /**
+     * Exit code of the last run, -1 if the process has not exited normally
+     */
+    private int exitCode = -1;
+
+    /**
+     * Whether the last run was killed because it exceeded the timeout
+     */
+    private boolean timedOut;
+
+    /**
+     * Whether image data is passed through stdin/stdout instead of temporary files
+     */
+    private boolean pipes = true;
 
     /**
      * Store the process output
@@ -50,11 +77,7 @@ public class CWebp {
         if (!webpBinaryInitialized) {
             initializeWebpBinary();
         }
-        command = new StringBuffer();
-        command.append(cwebpPath != null ? cwebpPath : "cwebp ");
-        if (!command.toString().endsWith(" ")) {
-            command.append(" ");
-        }
+        command.add(cwebpPath != null ? cwebpPath : "cwebp");
     }
 
     /**
@@ -154,6 +177,38 @@ public class CWebp {
         }
     }
 
+    /**
+     * Use the given cwebp binary instead of searching for one
+     * @param binaryPath path to the cwebp executable
+     * @return true if the binary exists and will be used
+     */
+    public static synchronized boolean configureBinary(String binaryPath) {
+        if (binaryPath == null || !Files.exists(Paths.get(binaryPath))) {
+            logger.warning("Configured WebP binary path is invalid: " + binaryPath);
+            return false;
+        }
+        setExecutablePermissions(new File(binaryPath));
+        cwebpPath = binaryPath;
+        webpBinaryInitialized = true;
+        logger.info("Using configured WebP binary: " + cwebpPath);
+        return true;
+    }
+
+    /**
+     * Check whether a cwebp binary has been found
+     * @return true if conversions can be executed
+     */
+    public static boolean isBinaryAvailable() {
+        if (!webpBinaryInitialized) {
+            try {
+                initializeWebpBinary();
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+        return cwebpPath != null;
+    }
+
     /**
      * Sets executable permissions on the binary file
      */
@@ -182,7 +237,8 @@ public class CWebp {
     }
 
     /**
-     * Convert raw image bytes to WebP format using temporary files
+     * Convert raw image bytes to WebP format.
+     * The data is streamed through the process stdin/stdout unless {@link #tempFiles()} was requested.
      * @param imageData input image data as byte array
      * @return WebP image data as byte array
      * @throws IOException if the conversion fails
@@ -192,6 +248,114 @@ public class CWebp {
             throw new IOException("WebP binary is not available. Please install cwebp or restart the service.");
         }
         
+        return pipes ? convertThroughPipes(imageData) : convertThroughTempFiles(imageData);
+    }
+
+    /**
+     * Convert image bytes feeding cwebp through stdin and reading the result from stdout,
+     * so that no file is written. The result is collected in a pooled reusable buffer.
+     */
+    private byte[] convertThroughPipes(byte[] imageData) throws IOException {
+        List<String> finalCommand = new ArrayList<>(command);
+        finalCommand.add("-o");
+        finalCommand.add("-");
+        finalCommand.add("--");
+        finalCommand.add("-");
+        
+        logger.fine("Executing WebP command: " + String.join(" ", finalCommand));
+        
+        exitCode = -1;
+        timedOut = false;
+        Process process = new ProcessBuilder(finalCommand).start();
+        WebpOutputBuffer output = WebpOutputBuffer.acquire();
+        boolean outputReleasable = false;
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        IOException[] readFailure = new IOException[1];
+        try {
+            // All three streams are served concurrently, so none of the pipes can fill up and block the encoder
+            Thread writer = Thread.startVirtualThread(() -> {
+                try (OutputStream stdin = process.getOutputStream()) {
+                    stdin.write(imageData);
+                } catch (IOException e) {
+                    // The encoder exited before reading all input, its exit code tells why
+                }
+            });
+            Thread errorReader = Thread.startVirtualThread(() -> {
+                try (InputStream stderr = process.getErrorStream()) {
+                    stderr.transferTo(errors);
+                } catch (IOException ignored) {
+                    // Only used for diagnostics
+                }
+            });
+            Thread outputReader = Thread.startVirtualThread(() -> {
+                try (InputStream stdout = process.getInputStream()) {
+                    output.readFrom(stdout);
+                } catch (IOException e) {
+                    readFailure[0] = e;
+                }
+            });
+            
+            boolean completed = process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (!completed) {
+                timedOut = true;
+                throw new IOException("WebP conversion process timed out after " + timeoutMillis + " ms");
+            }
+            writer.join();
+            errorReader.join();
+            outputReader.join();
+            outputReleasable = true;
+            
+            exitCode = process.exitValue();
+            if (exitCode != 0) {
+                this.processError = errors.toString();
+                logger.warning("cwebp process error: " + this.processError);
+                throw new IOException("WebP conversion failed with exit code: " + exitCode);
+            }
+            if (readFailure[0] != null) {
+                throw new IOException("Failed to read WebP output: " + readFailure[0].getMessage(), readFailure[0]);
+            }
+            if (output.size() == 0) {
+                throw new IOException("WebP conversion produced no output");
+            }
+            this.processOutput = errors.toString();
+            return output.toByteArray();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("WebP conversion was interrupted", e);
+        } finally {
+            // Never leave a stuck encoder behind, e.g. after a timeout or an interrupt
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+            // After a timeout or an interrupt the output reader may still be writing to the buffer
+            if (outputReleasable) {
+                WebpOutputBuffer.release(output);
+            }
+        }
+    }
+
+    /**
+     * Convert an image file to a WebP file. Neither image is loaded into memory,
+     * which keeps large images off the heap.
+     * @param input input image file
+     * @param output WebP file to write, replaced if it exists
+     * @throws IOException if the conversion fails
+     */
+    public void convertFile(Path input, Path output) throws IOException {
+        if (!webpBinaryInitialized || cwebpPath == null) {
+            throw new IOException("WebP binary is not available. Please install cwebp or restart the service.");
+        }
+
+        runOnFiles(input, output);
+        if (!Files.exists(output)) {
+            throw new IOException("WebP output file was not created");
+        }
+    }
+
+    /**
+     * Convert image bytes using temporary input and output files
+     */
+    private byte[] convertThroughTempFiles(byte[] imageData) throws IOException {
         // Create temporary directory for input and output files
         Path tempDir = Files.createTempDirectory("webp_conversion_");
         Path tempInputFile = tempDir.resolve("input_image.bin");
@@ -201,77 +365,79 @@ public class CWebp {
             // Write input data to temporary file
             Files.write(tempInputFile, imageData);
             
-            // Prepare command with temporary files
-            String finalCommand = this.getCommand();
+            runOnFiles(tempInputFile, tempOutputFile);
             
-            // Ensure command doesn't already have input or output parameters
-            if (!finalCommand.contains(" -o ")) {
-                finalCommand += " -o " + tempOutputFile.toString();
+            // Read output file if it exists
+            if (Files.exists(tempOutputFile)) {
+                byte[] webpData = Files.readAllBytes(tempOutputFile);
+                return webpData;
+            } else {
+                throw new IOException("WebP output file was not created");
             }
-            
-            // Add input file as the last parameter if not already present
-            if (!finalCommand.contains(tempInputFile.toString())) {
-                finalCommand += " " + tempInputFile.toString();
+        } finally {
+            // Clean up temporary files
+            try {
+                if (Files.exists(tempInputFile)) Files.delete(tempInputFile);
+                if (Files.exists(tempOutputFile)) Files.delete(tempOutputFile);
+                Files.delete(tempDir);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to clean up temporary files", e);
             }
+        }
+    }
+
+    /**
+     * Run cwebp reading the input file and writing the output file
+     */
+    private void runOnFiles(Path inputFile, Path outputFile) throws IOException {
+        Process process = null;
+        exitCode = -1;
+        timedOut = false;
+        try {
+            // Arguments are passed to the binary as is, without a shell in between
+            List<String> finalCommand = new ArrayList<>(command);
+            if (!finalCommand.contains("-o")) {
+                finalCommand.add("-o");
+                finalCommand.add(outputFile.toString());
+            }
+            finalCommand.add("--");
+            finalCommand.add(inputFile.toString());
             
-            logger.info("Executing WebP command: " + finalCommand);
+            logger.fine("Executing WebP command: " + String.join(" ", finalCommand));
             
-            // Build and start process
-            ProcessBuilder pb;
-            if (System.getProperty("os.name").toLowerCase().contains("win")) {
-                pb = new ProcessBuilder("cmd.exe", "/c", finalCommand);
-            } else {
-                pb = new ProcessBuilder("sh", "-c", finalCommand);
-            }
+            ProcessBuilder pb = new ProcessBuilder(finalCommand);
             
             // Redirect error stream to capture any error messages
             pb.redirectErrorStream(true);
-            Process process = pb.start();
+            process = pb.start();
             
-            // Capture output
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
-                }
-            }
-            
-            // Wait for process to complete with timeout
-            boolean completed = process.waitFor(30, TimeUnit.SECONDS);
+            // Wait for process to complete with timeout. The statistics cwebp prints
+            // are small enough to fit into the pipe buffer, so they are read afterwards
+            boolean completed = process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
             if (!completed) {
-                process.destroyForcibly();
-                throw new IOException("WebP conversion process timed out");
+                timedOut = true;
+                throw new IOException("WebP conversion process timed out after " + timeoutMillis + " ms");
             }
             
-            int exitCode = process.exitValue();
+            // Capture output
+            String output = new String(process.getInputStream().readAllBytes());
+            
+            exitCode = process.exitValue();
             if (exitCode != 0) {
-                this.processError = output.toString();
+                this.processError = output;
                 logger.warning("cwebp process error: " + this.processError);
                 throw new IOException("WebP conversion failed with exit code: " + exitCode);
             } else {
-                this.processOutput = output.toString();
-                logger.info("WebP conversion succeeded: " + this.processOutput);
-            }
-            
-            // Read output file if it exists
-            if (Files.exists(tempOutputFile)) {
-                byte[] webpData = Files.readAllBytes(tempOutputFile);
-                return webpData;
-            } else {
-                throw new IOException("WebP output file was not created");
+                this.processOutput = output;
+                logger.fine("WebP conversion succeeded: " + this.processOutput);
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("WebP conversion was interrupted", e);
         } finally {
-            // Clean up temporary files
-            try {
-                if (Files.exists(tempInputFile)) Files.delete(tempInputFile);
-                if (Files.exists(tempOutputFile)) Files.delete(tempOutputFile);
-                Files.delete(tempDir);
-            } catch (IOException e) {
-                logger.log(Level.WARNING, "Failed to clean up temporary files", e);
+            // Never leave a stuck encoder behind, e.g. after a timeout or an interrupt
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
             }
         }
     }
@@ -282,7 +448,7 @@ public class CWebp {
      * @return A new {@link CWebp} object for managing the subprocess
      */
     public CWebp lossless() {
-        command.append("-lossless ");
+        command.add("-lossless");
         return this;
     }
 
@@ -300,8 +466,8 @@ public class CWebp {
         if (level > 100 || level < 0) {
             return this;
         }
-        command.append("-near_lossless ");
-        command.append(level + " ");
+        command.add("-near_lossless");
+        command.add(String.valueOf(level));
         return this;
     }
 
@@ -317,8 +483,8 @@ public class CWebp {
         if (quality > 100 || quality < 0) {
             return this;
         }
-        command.append("-q ");
-        command.append(quality + " ");
+        command.add("-q");
+        command.add(String.valueOf(quality));
         return this;
     }
 
@@ -333,8 +499,8 @@ public class CWebp {
         if (alpha > 100 || alpha < 0) {
             return this;
         }
-        command.append("-alpha_q ");
-        command.append(alpha + " ");
+        command.add("-alpha_q");
+        command.add(String.valueOf(alpha));
         return this;
     }
 
@@ -347,7 +513,7 @@ public class CWebp {
      * @return A new {@link CWebp} object for managing the subprocess
      */
     public CWebp lowMemory() {
-        command.append("-low_memory ");
+        command.add("-low_memory");
         return this;
     }
 
@@ -365,11 +531,11 @@ public class CWebp {
         if (width == 0 || height == 0) {
             return this;
         }
-        command.append("-crop ");
-        command.append(x_position + " ");
-        command.append(y_position + " ");
-        command.append(width + " ");
-        command.append(height + " ");
+        command.add("-crop");
+        command.add(String.valueOf(x_position));
+        command.add(String.valueOf(y_position));
+        command.add(String.valueOf(width));
+        command.add(String.valueOf(height));
         return this;
     }
 
@@ -383,9 +549,9 @@ public class CWebp {
      * @return A new {@link CWebp} object for managing the subprocess
      */
     public CWebp resize(int width, int height) {
-        command.append("-resize ");
-        command.append(width + " ");
-        command.append(height + " ");
+        command.add("-resize");
+        command.add(String.valueOf(width));
+        command.add(String.valueOf(height));
         return this;
     }
 
@@ -394,8 +560,8 @@ public class CWebp {
      * @return A new {@link CWebp} object for managing the subprocess
      */
     public CWebp setMetadata(String metadata) {
-        command.append("-metadata ");
-        command.append(metadata + " ");
+        command.add("-metadata");
+        command.add(metadata);
         return this;
     }
 
@@ -404,7 +570,7 @@ public class CWebp {
      * @return A new {@link CWebp} object for managing the subprocess
      */
     public CWebp exact() {
-        command.append("-exact ");
+        command.add("-exact");
         return this;
     }
 
@@ -417,8 +583,8 @@ public class CWebp {
         if (size <= 0) {
             return this;
         }
-        command.append("-size ");
-        command.append(size + " ");
+        command.add("-size");
+        command.add(String.valueOf(size));
         return this;
     }
 
@@ -431,8 +597,8 @@ public class CWebp {
         if (strength < 0 || strength > 7) {
             return this;
         }
-        command.append("-sharpness ");
-        command.append(strength + " ");
+        command.add("-sharpness");
+        command.add(String.valueOf(strength));
         return this;
     }
 
@@ -445,8 +611,8 @@ public class CWebp {
         if (strength < 0 || strength > 100) {
             return this;
         }
-        command.append("-sns ");
-        command.append(strength + " ");
+        command.add("-sns");
+        command.add(String.valueOf(strength));
         return this;
     }
 
@@ -458,7 +624,7 @@ public class CWebp {
      * @return A new {@link CWebp} object for managing the subprocess
      */
     public CWebp input(String inputPath) {
-        command.append(inputPath + " ");
+        command.add(inputPath);
         return this;
     }
 
@@ -471,8 +637,8 @@ public class CWebp {
      * @return A new {@link CWebp} object for managing the subprocess
      */
     public CWebp output(String outputPath) {
-        command.append("-o ");
-        command.append(outputPath + " ");
+        command.add("-o");
+        command.add(outputPath);
         return this;
     }
 
@@ -480,7 +646,44 @@ public class CWebp {
      * Shows the command that would be executed
      */
     public String getCommand() {
-        return command.toString();
+        return String.join(" ", command);
+    }
+
+    /**
+     * Pass image data through temporary files instead of stdin/stdout.
+     * Only needed for cwebp builds that cannot read from stdin.
+     * @return A new {@link CWebp} object for managing the subprocess
+     */
+    public CWebp tempFiles() {
+        this.pipes = false;
+        return this;
+    }
+
+    /**
+     * Limit the time a single run of the process may take.
+     * The process is destroyed when the limit is exceeded.
+     * @param timeoutMillis timeout in milliseconds
+     * @return A new {@link CWebp} object for managing the subprocess
+     */
+    public CWebp timeout(long timeoutMillis) {
+        if (timeoutMillis > 0) {
+            this.timeoutMillis = timeoutMillis;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the exit code of the last run, -1 if the process did not exit normally
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Returns true if the last run was killed after exceeding the timeout
+     */
+    public boolean isTimedOut() {
+        return timedOut;
     }
 
     /**
@@ -0,0 +1,73 @@
+package shadowshift.studio.imagecodec.webp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * {@link WebpEncoder} running one cwebp process per job.
+ * The process is executed directly with an argument list, no shell is involved,
+ * and image data is streamed through its stdin/stdout unless temporary files are requested.
+ */
+public class CWebpEncoder implements WebpEncoder {
+
+    /**
+     * Exit code cwebp uses for its own errors (bad input, unsupported format)
+     */
+    private static final int CWEBP_ERROR_EXIT_CODE = 255;
+
+    private final long timeoutMillis;
+    private final boolean usePipes;
+
+    /**
+     * Create an encoder with the default per-job timeout
+     */
+    public CWebpEncoder() {
+        this(CWebp.DEFAULT_TIMEOUT_MILLIS, true);
+    }
+
+    /**
+     * Create an encoder with the given per-job timeout
+     * @param timeoutMillis time a single cwebp run may take before it is killed
+     * @param usePipes true to stream data through stdin/stdout, false to use temporary files
+     */
+    public CWebpEncoder(long timeoutMillis, boolean usePipes) {
+        this.timeoutMillis = timeoutMillis;
+        this.usePipes = usePipes;
+    }
+
+    @Override
+    public byte[] encode(byte[] imageData, WebpOptions options) throws CWebpException {
+        if (imageData == null || imageData.length == 0) {
+            throw new CWebpException("Input image byte array is empty or null");
+        }
+
+        CWebp cwebp = WebpConverter.createCommand(options).timeout(timeoutMillis);
+        if (!usePipes) {
+            cwebp.tempFiles();
+        }
+        try {
+            return cwebp.convertFromBytes(imageData);
+        } catch (IOException e) {
+            throw new CWebpException("Error processing image: " + e.getMessage(), e, isCrash(cwebp));
+        }
+    }
+
+    @Override
+    public void encode(Path input, Path output, WebpOptions options) throws CWebpException {
+        CWebp cwebp = WebpConverter.createCommand(options).timeout(timeoutMillis);
+        try {
+            cwebp.convertFile(input, output);
+        } catch (IOException e) {
+            throw new CWebpException("Error processing image file: " + e.getMessage(), e, isCrash(cwebp));
+        }
+    }
+
+    /**
+     * A run that timed out or was killed by a signal (exit code 128 + signal)
+     * says nothing about the input and may succeed when retried
+     */
+    private boolean isCrash(CWebp cwebp) {
+        int exitCode = cwebp.getExitCode();
+        return cwebp.isTimedOut() || (exitCode > 128 && exitCode != CWEBP_ERROR_EXIT_CODE);
+    }
+}
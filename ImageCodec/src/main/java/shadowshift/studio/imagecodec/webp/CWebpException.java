@@ -0,0 +1,70 @@
+package shadowshift.studio.imagecodec.webp;
+
+/**
+ * Exception thrown for WebP conversion errors
+ */
+public class CWebpException extends Exception {
+    
+    /**
+     * True if the encoder crashed, timed out or had no free slot rather than rejecting the input
+     */
+    private final boolean transientFailure;
+    
+    /**
+     * Create a new exception with a message
+     * @param message error message
+     */
+    public CWebpException(String message) {
+        super(message);
+        this.transientFailure = false;
+    }
+
+    /**
+     * Create a new exception with a cause
+     * @param cause the cause (which is saved for later retrieval by the getCause() method)
+     */
+    public CWebpException(Throwable cause) {
+        super(cause);
+        this.transientFailure = false;
+    }
+    
+    /**
+     * Create a new exception with message and cause
+     * @param message error message
+     * @param cause the cause (which is saved for later retrieval by the getCause() method)
+     */
+    public CWebpException(String message, Throwable cause) {
+        super(message, cause);
+        this.transientFailure = false;
+    }
+    
+    /**
+     * Create a new exception with command and exit code
+     * @param command the command that failed
+     * @param exitCode the exit code returned by the process
+     */
+    public CWebpException(String command, int exitCode) {
+        super("WebP conversion command failed with exit code " + exitCode + ": " + command);
+        this.transientFailure = false;
+    }
+    
+    /**
+     * Create a new exception with message and cause, marking whether a retry may succeed
+     * @param message error message
+     * @param cause the cause (which is saved for later retrieval by the getCause() method)
+     * @param transientFailure true if the encoder crashed, timed out or had no free slot
+     */
+    public CWebpException(String message, Throwable cause, boolean transientFailure) {
+        super(message, cause);
+        this.transientFailure = transientFailure;
+    }
+    
+    /**
+     * Check whether the failure was caused by the encoder itself (crash, timeout, no free slot)
+     * and not by the input, so that the job may be retried
+     * @return true if a retry may succeed
+     */
+    public boolean isTransient() {
+        return transientFailure;
+    }
+}
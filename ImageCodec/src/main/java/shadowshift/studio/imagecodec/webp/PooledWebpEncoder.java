@@ -0,0 +1,186 @@
+package shadowshift.studio.imagecodec.webp;
+
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of encoder slots in front of another {@link WebpEncoder}.
+ * At most {@code poolSize} jobs are encoded at the same time, at most {@code queueCapacity}
+ * callers wait for a free slot and callers beyond that are rejected right away, so a burst
+ * of requests cannot fork an unbounded number of encoder processes.
+ * Jobs failing because the encoder crashed or timed out are retried with a new encoder
+ * process; the retry keeps the job's slot, so retries never add to the concurrency.
+ * Rejected jobs fail with a transient {@link CWebpException}, since the input was never looked at.
+ */
+public class PooledWebpEncoder implements WebpEncoder {
+
+    private static final Logger logger = Logger.getLogger(PooledWebpEncoder.class.getName());
+
+    private final WebpEncoder delegate;
+    private final int poolSize;
+    private final int queueCapacity;
+    private final long queueTimeoutMillis;
+    private final int maxRetries;
+
+    private final Semaphore slots;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+
+    /**
+     * Create a pool in front of the given encoder
+     * @param delegate encoder doing the actual work
+     * @param poolSize number of jobs encoded concurrently
+     * @param queueCapacity number of jobs allowed to wait for a free slot
+     * @param queueTimeoutMillis time a job may wait for a free slot
+     * @param maxRetries number of retries after an encoder crash or timeout
+     */
+    public PooledWebpEncoder(WebpEncoder delegate, int poolSize, int queueCapacity,
+                             long queueTimeoutMillis, int maxRetries) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+        }
+        this.delegate = delegate;
+        this.poolSize = poolSize;
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.queueTimeoutMillis = Math.max(0, queueTimeoutMillis);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.slots = new Semaphore(poolSize, true);
+    }
+
+    @Override
+    public byte[] encode(byte[] imageData, WebpOptions options) throws CWebpException {
+        acquireSlot();
+        try {
+            byte[] result = encodeWithRetry(imageData, options);
+            completed.increment();
+            return result;
+        } catch (CWebpException e) {
+            failed.increment();
+            throw e;
+        } finally {
+            slots.release();
+        }
+    }
+
+    @Override
+    public void encode(Path input, Path output, WebpOptions options) throws CWebpException {
+        acquireSlot();
+        try {
+            encodeWithRetry(() -> {
+                delegate.encode(input, output, options);
+                return null;
+            });
+            completed.increment();
+        } catch (CWebpException e) {
+            failed.increment();
+            throw e;
+        } finally {
+            slots.release();
+        }
+    }
+
+    private byte[] encodeWithRetry(byte[] imageData, WebpOptions options) throws CWebpException {
+        return encodeWithRetry(() -> delegate.encode(imageData, options));
+    }
+
+    private <T> T encodeWithRetry(EncodeJob<T> job) throws CWebpException {
+        int attempt = 0;
+        while (true) {
+            try {
+                return job.run();
+            } catch (CWebpException e) {
+                if (!e.isTransient() || attempt >= maxRetries) {
+                    throw e;
+                }
+                attempt++;
+                retried.increment();
+                logger.warning("WebP encoder crashed, retrying (" + attempt + "/" + maxRetries + "): " + e.getMessage());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface EncodeJob<T> {
+        T run() throws CWebpException;
+    }
+
+    private void acquireSlot() throws CWebpException {
+        if (slots.tryAcquire()) {
+            return;
+        }
+
+        if (waiting.incrementAndGet() > queueCapacity) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new CWebpException("WebP encoder queue is full (" + queueCapacity + " jobs waiting)", null, true);
+        }
+        try {
+            if (!slots.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new CWebpException("No WebP encoder slot became free within " + queueTimeoutMillis + " ms", null, true);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CWebpException("Interrupted while waiting for a WebP encoder slot", e, true);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of jobs encoded concurrently
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Returns the number of jobs currently being encoded
+     */
+    public int getActiveCount() {
+        return poolSize - slots.availablePermits();
+    }
+
+    /**
+     * Returns the number of jobs currently waiting for a free slot
+     */
+    public int getQueuedCount() {
+        return waiting.get();
+    }
+
+    /**
+     * Returns the number of successfully encoded jobs
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Returns the number of jobs that failed after all retries
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the number of jobs rejected because the queue was full or the wait timed out
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of retries after encoder crashes
+     */
+    public long getRetriedCount() {
+        return retried.sum();
+    }
+}
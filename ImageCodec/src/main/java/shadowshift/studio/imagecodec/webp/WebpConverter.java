@@ -1,4 +1,4 @@
-package com.shadowshiftstudio.compressionservice.util.webp;
+package shadowshift.studio.imagecodec.webp;
 
 import java.io.*;
 import java.nio.file.Files;
@@ -71,49 +71,7 @@ public class WebpConverter {
         }
         
         try {
-            CWebp cwebp = new CWebp();
-            
-            // Apply all options
-            if (options.isLossless()) {
-                cwebp.lossless();
-            } else {
-                cwebp.quality(options.getQuality());
-            }
-            
-            // Alpha quality
-            if (options.getAlphaQuality() > 0) {
-                cwebp.alphaQ(options.getAlphaQuality());
-            }
-            
-            // Resize if specified
-            if (options.getWidth() > 0 && options.getHeight() > 0) {
-                cwebp.resize(options.getWidth(), options.getHeight());
-            }
-            
-            // Apply crop if specified
-            if (options.getCropWidth() > 0 && options.getCropHeight() > 0) {
-                cwebp.crop(options.getCropX(), options.getCropY(), options.getCropWidth(), options.getCropHeight());
-            }
-            
-            // Apply noise filtering
-            if (options.getNoiseFilter() > 0) {
-                cwebp.strongNoise(options.getNoiseFilter());
-            }
-            
-            // Apply sharpness
-            if (options.getSharpness() > 0) {
-                cwebp.sharpness(options.getSharpness());
-            }
-            
-            // Use low memory if requested
-            if (options.isLowMemory()) {
-                cwebp.lowMemory();
-            }
-            
-            // Set exact option if needed
-            if (options.isExact()) {
-                cwebp.exact();
-            }
+            CWebp cwebp = createCommand(options);
             
             // Perform direct in-memory conversion
             return cwebp.convertFromBytes(imageByte);
@@ -451,42 +409,11 @@ public class WebpConverter {
     }
 
     /**
-     * Converting image to WebP byte array
-     * @param imageFilePath input image file path
-     * @param quality compression factor for RGB channels
-     * @param tempDir temp directory for converting
-     * @param output output webp image path file
-     * @return WebP image byte array
-     * @throws IOException if an I/O error occurs
-     * @throws CWebpException if cwebp execution fails
-     */
-    private static byte[] getWebpBytes(String imageFilePath, int quality, Path tempDir, String output) throws IOException, CWebpException {
-        try {
-            CWebp cwebp = new CWebp().quality(quality);
-            
-            // If we have a file path, read the bytes
-            byte[] inputImageBytes = Files.readAllBytes(new File(imageFilePath).toPath());
-            
-            // Perform direct in-memory conversion
-            return cwebp.convertFromBytes(inputImageBytes);
-        } catch (IOException e) {
-            throw new CWebpException("WebP conversion failed: " + e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * Converting image to WebP byte array with advanced options
-     * @param imageFilePath input image file path
-     * @param options WebP options for conversion
-     * @param tempDir temp directory for converting
-     * @param output output webp image path file
-     * @return WebP image byte array
-     * @throws IOException if an I/O error occurs
-     * @throws CWebpException if cwebp execution fails
+     * Build a cwebp command for the given options
+     * @param options WebP options to apply
+     * @return configured {@link CWebp} command, ready to be executed
      */
-    private static byte[] getWebpBytesWithOptions(String imageFilePath, WebpOptions options, Path tempDir, String output) 
-            throws IOException, CWebpException {
-        
+    public static CWebp createCommand(WebpOptions options) {
         CWebp cwebp = new CWebp();
         
         // Apply all options
@@ -501,8 +428,8 @@ public class WebpConverter {
             cwebp.alphaQ(options.getAlphaQuality());
         }
         
-        // Resize if specified
-        if (options.getWidth() > 0 && options.getHeight() > 0) {
+        // Resize if specified, a zero dimension is derived from the aspect ratio
+        if (options.getWidth() > 0 || options.getHeight() > 0) {
             cwebp.resize(options.getWidth(), options.getHeight());
         }
         
@@ -531,6 +458,48 @@ public class WebpConverter {
             cwebp.exact();
         }
         
+        return cwebp;
+    }
+
+    /**
+     * Converting image to WebP byte array
+     * @param imageFilePath input image file path
+     * @param quality compression factor for RGB channels
+     * @param tempDir temp directory for converting
+     * @param output output webp image path file
+     * @return WebP image byte array
+     * @throws IOException if an I/O error occurs
+     * @throws CWebpException if cwebp execution fails
+     */
+    private static byte[] getWebpBytes(String imageFilePath, int quality, Path tempDir, String output) throws IOException, CWebpException {
+        try {
+            CWebp cwebp = new CWebp().quality(quality);
+            
+            // If we have a file path, read the bytes
+            byte[] inputImageBytes = Files.readAllBytes(new File(imageFilePath).toPath());
+            
+            // Perform direct in-memory conversion
+            return cwebp.convertFromBytes(inputImageBytes);
+        } catch (IOException e) {
+            throw new CWebpException("WebP conversion failed: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Converting image to WebP byte array with advanced options
+     * @param imageFilePath input image file path
+     * @param options WebP options for conversion
+     * @param tempDir temp directory for converting
+     * @param output output webp image path file
+     * @return WebP image byte array
+     * @throws IOException if an I/O error occurs
+     * @throws CWebpException if cwebp execution fails
+     */
+    private static byte[] getWebpBytesWithOptions(String imageFilePath, WebpOptions options, Path tempDir, String output) 
+            throws IOException, CWebpException {
+        
+        CWebp cwebp = createCommand(options);
+        
         try {
             // Read input image bytes
             byte[] inputImageBytes = Files.readAllBytes(new File(imageFilePath).toPath());
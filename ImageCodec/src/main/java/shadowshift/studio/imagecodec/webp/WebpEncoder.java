@@ -0,0 +1,28 @@
+package shadowshift.studio.imagecodec.webp;
+
+import java.nio.file.Path;
+
+/**
+ * Encoder backend converting raw image bytes to WebP.
+ * Implementations must be safe for concurrent use.
+ */
+public interface WebpEncoder {
+
+    /**
+     * Encode an image to WebP
+     * @param imageData input image data (PNG, JPEG, TIFF or WebP)
+     * @param options WebP options to apply
+     * @return WebP image data
+     * @throws CWebpException if the image could not be encoded
+     */
+    byte[] encode(byte[] imageData, WebpOptions options) throws CWebpException;
+
+    /**
+     * Encode an image file to a WebP file without loading either into memory
+     * @param input input image file (PNG, JPEG, TIFF or WebP)
+     * @param output WebP file to write
+     * @param options WebP options to apply
+     * @throws CWebpException if the image could not be encoded
+     */
+    void encode(Path input, Path output, WebpOptions options) throws CWebpException;
+}
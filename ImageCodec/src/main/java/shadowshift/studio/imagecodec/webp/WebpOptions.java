@@ -1,4 +1,4 @@
-package com.shadowshiftstudio.compressionservice.util.webp;
+package shadowshift.studio.imagecodec.webp;
 
 /**
  * Configuration options for WebP conversion
@@ -0,0 +1,88 @@
+package shadowshift.studio.imagecodec.webp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Growable byte buffer that reads encoder output straight into its backing array.
+ * A few instances are pooled across threads, see {@link #acquire()} and {@link #release(WebpOutputBuffer)};
+ * encoding runs on short-lived virtual threads, so per-thread buffers would never be reused.
+ */
+public class WebpOutputBuffer extends ByteArrayOutputStream {
+
+    private static final int INITIAL_CAPACITY = 256 * 1024;
+
+    /**
+     * Buffers that grew beyond this size are not kept for reuse
+     */
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024 * 1024;
+
+    /**
+     * Number of idle buffers kept for reuse, enough for the usual encoder pool sizes
+     */
+    private static final int POOL_CAPACITY = 8;
+
+    private static final BlockingQueue<WebpOutputBuffer> POOL = new ArrayBlockingQueue<>(POOL_CAPACITY);
+
+    /**
+     * Create a buffer with the given initial capacity
+     * @param capacity initial capacity in bytes
+     */
+    public WebpOutputBuffer(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Returns an empty buffer, reused from the pool if one is idle
+     */
+    public static WebpOutputBuffer acquire() {
+        WebpOutputBuffer buffer = POOL.poll();
+        return buffer != null ? buffer : new WebpOutputBuffer(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Return a buffer to the pool. Must only be called once nothing writes to or reads from
+     * the buffer any more; buffers that grew too large or do not fit into the pool are dropped.
+     * @param buffer buffer obtained from {@link #acquire()}
+     */
+    public static void release(WebpOutputBuffer buffer) {
+        if (buffer.buf.length > MAX_RETAINED_CAPACITY) {
+            return;
+        }
+        buffer.reset();
+        POOL.offer(buffer);
+    }
+
+    /**
+     * Read the stream until its end, appending everything to this buffer without intermediate copies
+     * @param in stream to read
+     * @return number of bytes read
+     * @throws IOException if reading fails
+     */
+    public synchronized long readFrom(InputStream in) throws IOException {
+        long total = 0;
+        while (true) {
+            if (count == buf.length) {
+                grow();
+            }
+            int read = in.read(buf, count, buf.length - count);
+            if (read < 0) {
+                return total;
+            }
+            count += read;
+            total += read;
+        }
+    }
+
+    private void grow() {
+        int newCapacity = buf.length < MAX_RETAINED_CAPACITY ? buf.length * 2 : buf.length + MAX_RETAINED_CAPACITY;
+        if (newCapacity < 0) {
+            throw new OutOfMemoryError("WebP output is too large");
+        }
+        buf = Arrays.copyOf(buf, newCapacity);
+    }
+}
@@ -0,0 +1,55 @@
+package shadowshift.studio.imagecodec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageFormatTest {
+
+    @Test
+    void detectsFormatsByMagicBytes() {
+        assertEquals(ImageFormat.JPEG, ImageFormat.detect(bytes(0xFF, 0xD8, 0xFF, 0xE0)));
+        assertEquals(ImageFormat.PNG, ImageFormat.detect(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)));
+        assertEquals(ImageFormat.GIF, ImageFormat.detect(bytes('G', 'I', 'F', '8', '9', 'a')));
+        assertEquals(ImageFormat.WEBP, ImageFormat.detect(bytes('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P')));
+        assertEquals(ImageFormat.TIFF, ImageFormat.detect(bytes(0x49, 0x49, 0x2A, 0x00)));
+        assertEquals(ImageFormat.TIFF, ImageFormat.detect(bytes(0x4D, 0x4D, 0x00, 0x2A)));
+        assertEquals(ImageFormat.BMP, ImageFormat.detect(bytes('B', 'M', 0, 0)));
+    }
+
+    @Test
+    void riffWithoutWebpTagIsUnknown() {
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.detect(bytes('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'A', 'V', 'E')));
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.detect(bytes('R', 'I', 'F', 'F', 0, 0, 0, 0)));
+    }
+
+    @Test
+    void shortOrMissingHeaderIsUnknown() {
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.detect(null));
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.detect(new byte[0]));
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.detect(bytes(0xFF, 0xD8, 0xFF)));
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.detect(bytes('%', 'P', 'D', 'F')));
+    }
+
+    @Test
+    void onlyFormatsCwebpReadsAreEncodable() {
+        assertTrue(ImageFormat.JPEG.isWebpEncodable());
+        assertTrue(ImageFormat.PNG.isWebpEncodable());
+        assertTrue(ImageFormat.TIFF.isWebpEncodable());
+        assertTrue(ImageFormat.WEBP.isWebpEncodable());
+        assertFalse(ImageFormat.GIF.isWebpEncodable());
+        assertFalse(ImageFormat.BMP.isWebpEncodable());
+        assertFalse(ImageFormat.UNKNOWN.isWebpEncodable());
+        assertFalse(ImageFormat.UNKNOWN.isImage());
+    }
+
+    static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+package shadowshift.studio.imagecodec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static shadowshift.studio.imagecodec.ImageFormatTest.bytes;
+
+class ImageSizeTest {
+
+    @Test
+    void readsPngHeader() {
+        byte[] png = bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A,
+                0, 0, 0, 13, 'I', 'H', 'D', 'R',
+                0, 0, 0x03, 0x20, 0, 0, 0x04, 0xB0);
+
+        assertSize(800, 1200, ImageSize.read(png));
+    }
+
+    @Test
+    void readsGifHeader() {
+        byte[] gif = bytes('G', 'I', 'F', '8', '9', 'a', 0x40, 0x01, 0xF0, 0x00);
+
+        assertSize(320, 240, ImageSize.read(gif));
+    }
+
+    @Test
+    void readsJpegFrameAfterMetadataSegments() {
+        byte[] jpeg = bytes(0xFF, 0xD8,
+                // APP0 with 14 bytes of payload
+                0xFF, 0xE0, 0x00, 0x10, 'J', 'F', 'I', 'F', 0, 1, 1, 0, 0, 1, 0, 1, 0, 0,
+                // DHT, which shares the SOF marker range
+                0xFF, 0xC4, 0x00, 0x03, 0x00,
+                // fill byte before SOF0
+                0xFF, 0xFF, 0xC0, 0x00, 0x11, 0x08, 0x02, 0x58, 0x03, 0x20, 0x03, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+        assertSize(800, 600, ImageSize.read(jpeg));
+    }
+
+    @Test
+    void readsLossyWebpHeader() {
+        byte[] webp = webp("VP8 ", 30);
+        webp[23] = (byte) 0x9D;
+        webp[24] = 0x01;
+        webp[25] = 0x2A;
+        // 14-bit dimensions, the top two bits are the scaling mode
+        webp[26] = (byte) 0x80;
+        webp[27] = (byte) 0xC2;
+        webp[28] = 0x58;
+        webp[29] = 0x42;
+
+        assertSize(640, 600, ImageSize.read(webp));
+    }
+
+    @Test
+    void readsLosslessWebpHeader() {
+        byte[] webp = webp("VP8L", 30);
+        webp[20] = 0x2F;
+        // width - 1 = 99 and height - 1 = 49, packed as two 14-bit fields
+        int packed = 99 | 49 << 14;
+        webp[21] = (byte) packed;
+        webp[22] = (byte) (packed >> 8);
+        webp[23] = (byte) (packed >> 16);
+        webp[24] = (byte) (packed >> 24);
+
+        assertSize(100, 50, ImageSize.read(webp));
+    }
+
+    @Test
+    void readsExtendedWebpHeader() {
+        byte[] webp = webp("VP8X", 30);
+        // 24-bit canvas width - 1 = 4999 and height - 1 = 2999
+        webp[24] = (byte) 0x87;
+        webp[25] = 0x13;
+        webp[26] = 0x00;
+        webp[27] = (byte) 0xB7;
+        webp[28] = 0x0B;
+        webp[29] = 0x00;
+
+        assertSize(5000, 3000, ImageSize.read(webp));
+    }
+
+    @Test
+    void truncatedOrUnsupportedHeadersHaveNoSize() {
+        assertNull(ImageSize.read(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)));
+        assertNull(ImageSize.read(bytes('G', 'I', 'F', '8', '9', 'a', 0x40)));
+        assertNull(ImageSize.read(Arrays.copyOf(webp("VP8 ", 30), 20)));
+        assertNull(ImageSize.read(webp("ALPH", 30)));
+        assertNull(ImageSize.read(bytes(0xFF, 0xD8, 0xFF, 0xE0, 0x00, 0x10, 0, 0, 0, 0, 0, 0)));
+        assertNull(ImageSize.read(bytes(0xFF, 0xD8, 0x00, 0x00, 0, 0, 0, 0, 0, 0, 0, 0)));
+        assertNull(ImageSize.read(bytes(0x49, 0x49, 0x2A, 0x00, 0, 0, 0, 0)));
+    }
+
+    @Test
+    void readsSizeFromFileHeader(@TempDir Path dir) throws IOException {
+        byte[] gif = Arrays.copyOf(bytes('G', 'I', 'F', '8', '9', 'a', 0x10, 0x00, 0x20, 0x00), 1024);
+        Path file = dir.resolve("image.gif");
+        Files.write(file, gif);
+
+        assertSize(16, 32, ImageSize.read(file));
+    }
+
+    private static byte[] webp(String chunk, int length) {
+        byte[] data = new byte[length];
+        System.arraycopy("RIFF".getBytes(), 0, data, 0, 4);
+        System.arraycopy("WEBP".getBytes(), 0, data, 8, 4);
+        System.arraycopy(chunk.getBytes(), 0, data, 12, 4);
+        return data;
+    }
+
+    private static void assertSize(int width, int height, ImageSize size) {
+        assertEquals(width + "x" + height, String.valueOf(size));
+    }
+}
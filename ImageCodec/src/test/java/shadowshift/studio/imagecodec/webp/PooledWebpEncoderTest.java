@@ -0,0 +1,176 @@
+package shadowshift.studio.imagecodec.webp;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledWebpEncoderTest {
+
+    private static final byte[] INPUT = {1, 2, 3};
+    private static final byte[] OUTPUT = {4, 5, 6};
+
+    @Test
+    void retriesTransientFailuresOnTheSameSlot() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        PooledWebpEncoder[] pool = new PooledWebpEncoder[1];
+        pool[0] = new PooledWebpEncoder(new FakeEncoder(data -> {
+            assertEquals(1, pool[0].getActiveCount());
+            if (attempts.incrementAndGet() < 3) {
+                throw new CWebpException("crashed", null, true);
+            }
+            return OUTPUT;
+        }), 1, 0, 0, 2);
+
+        assertArrayEquals(OUTPUT, pool[0].encode(INPUT, new WebpOptions()));
+        assertEquals(3, attempts.get());
+        assertEquals(2, pool[0].getRetriedCount());
+        assertEquals(1, pool[0].getCompletedCount());
+        assertEquals(0, pool[0].getActiveCount());
+    }
+
+    @Test
+    void stopsRetryingAfterMaxRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        PooledWebpEncoder pool = new PooledWebpEncoder(new FakeEncoder(data -> {
+            attempts.incrementAndGet();
+            throw new CWebpException("crashed", null, true);
+        }), 1, 0, 0, 2);
+
+        assertThrows(CWebpException.class, () -> pool.encode(INPUT, new WebpOptions()));
+        assertEquals(3, attempts.get());
+        assertEquals(1, pool.getFailedCount());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    void doesNotRetryInputErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+        PooledWebpEncoder pool = new PooledWebpEncoder(new FakeEncoder(data -> {
+            attempts.incrementAndGet();
+            throw new CWebpException("bad input");
+        }), 1, 0, 0, 2);
+
+        CWebpException e = assertThrows(CWebpException.class, () -> pool.encode(INPUT, new WebpOptions()));
+        assertFalse(e.isTransient());
+        assertEquals(1, attempts.get());
+        assertEquals(0, pool.getRetriedCount());
+    }
+
+    @Test
+    void rejectsRightAwayWhenTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PooledWebpEncoder pool = new PooledWebpEncoder(blockingEncoder(started, release), 1, 0, 10_000, 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> running = executor.submit(() -> pool.encode(INPUT, new WebpOptions()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            CWebpException e = assertThrows(CWebpException.class, () -> pool.encode(INPUT, new WebpOptions()));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+            assertTrue(e.isTransient());
+            assertEquals(1, pool.getRejectedCount());
+
+            release.countDown();
+            assertArrayEquals(OUTPUT, running.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsWhenNoSlotBecomesFreeInTime() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PooledWebpEncoder pool = new PooledWebpEncoder(blockingEncoder(started, release), 1, 1, 50, 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> pool.encode(INPUT, new WebpOptions()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            CWebpException e = assertThrows(CWebpException.class, () -> pool.encode(INPUT, new WebpOptions()));
+            assertTrue(e.isTransient());
+            assertEquals(1, pool.getRejectedCount());
+            assertEquals(0, pool.getQueuedCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void queuedJobRunsOnceASlotIsFree() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PooledWebpEncoder pool = new PooledWebpEncoder(blockingEncoder(started, release), 1, 1, 10_000, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = executor.submit(() -> pool.encode(INPUT, new WebpOptions()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<byte[]> second = executor.submit(() -> pool.encode(INPUT, new WebpOptions()));
+            while (pool.getQueuedCount() == 0) {
+                Thread.sleep(5);
+            }
+
+            release.countDown();
+            assertArrayEquals(OUTPUT, first.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(OUTPUT, second.get(5, TimeUnit.SECONDS));
+            assertEquals(2, pool.getCompletedCount());
+            assertEquals(0, pool.getRejectedCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static FakeEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new FakeEncoder(data -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CWebpException("interrupted", e);
+            }
+            return OUTPUT;
+        });
+    }
+
+    @FunctionalInterface
+    private interface EncodeFunction {
+        byte[] apply(byte[] data) throws CWebpException;
+    }
+
+    private static class FakeEncoder implements WebpEncoder {
+
+        private final EncodeFunction function;
+
+        FakeEncoder(EncodeFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        public byte[] encode(byte[] imageData, WebpOptions options) throws CWebpException {
+            return function.apply(imageData);
+        }
+
+        @Override
+        public void encode(Path input, Path output, WebpOptions options) throws CWebpException {
+            function.apply(null);
+        }
+    }
+}
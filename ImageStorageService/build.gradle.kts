@@ -32,6 +32,12 @@ dependencies {
 	testImplementation("com.h2database:h2")
 	
 	implementation("io.minio:minio:8.5.4")
+	
+	// Кэш часто читаемых изображений (W-TinyLFU)
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	
+	// Общий модуль кодирования изображений (подключается как included build)
+	implementation("shadowshift.studio:ImageCodec")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.4.0")
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
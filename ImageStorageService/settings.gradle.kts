@@ -1 +1,3 @@
 rootProject.name = "ImageStorageService"
+
+includeBuild("../ImageCodec")
@@ -1,8 +1,11 @@
 package shadowshift.studio.imagestorage.client;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -10,62 +13,89 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Клиент для взаимодействия с сервисом аутентификации и получения системных настроек
+ * Клиент для взаимодействия с сервисом аутентификации и получения системных настроек.
+ * Лимиты файлов и квоты пользователей кэшируются локально: значение обновляется в фоне
+ * по истечении интервала обновления, а при изменении настроек сбрасывается по событию
+ * из сервиса аутентификации. Если обновить настройки не удалось, используется прежнее
+ * значение до истечения максимального срока хранения.
  */
 @Component
 public class AuthServiceClient {
     private static final Logger logger = LoggerFactory.getLogger(AuthServiceClient.class);
+
+    private static final String FILE_LIMITS = "file-limits";
+    private static final String USER_QUOTAS = "user-quotas";
     
     private final RestTemplate restTemplate;
     private final String authServiceUrl;
+    private final LoadingCache<String, Map<String, String>> settingsCache;
 
     public AuthServiceClient(RestTemplate restTemplate, 
-                           @Value("${auth.service.url:http://localhost:8082}") String authServiceUrl) {
+                           @Value("${auth.service.url:http://localhost:8082}") String authServiceUrl,
+                           @Value("${auth.settings.cache.refresh-seconds:60}") long refreshSeconds,
+                           @Value("${auth.settings.cache.ttl-seconds:600}") long ttlSeconds) {
         this.restTemplate = restTemplate;
         this.authServiceUrl = authServiceUrl;
-        logger.info("AuthServiceClient initialized with URL: {}", authServiceUrl);
+        this.settingsCache = Caffeine.newBuilder()
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofSeconds(Math.max(ttlSeconds, refreshSeconds)))
+                .build(this::loadSettings);
+        logger.info("AuthServiceClient initialized with URL: {}, settings refresh: {}s, ttl: {}s",
+                authServiceUrl, refreshSeconds, ttlSeconds);
     }
     
     /**
      * Получить настройки лимитов файлов
      */
     public Map<String, String> getFileLimits() {
-        try {
-            String url = authServiceUrl + "/api/auth/system/settings/public/file-limits";
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return response.getBody();
-            }
-            return new HashMap<>();
-        } catch (Exception e) {
-            logger.error("Failed to get file limits from auth service", e);
-            return Collections.emptyMap();
-        }
+        return getSettings(FILE_LIMITS);
     }
     
     /**
      * Получить настройки квот пользователей
      */
     public Map<String, String> getUserQuotas() {
+        return getSettings(USER_QUOTAS);
+    }
+
+    /**
+     * Сбросить кэш системных настроек.
+     * Следующий запрос настроек загрузит их из сервиса аутентификации.
+     */
+    public void invalidateSettings() {
+        settingsCache.invalidateAll();
+        logger.info("System settings cache invalidated");
+    }
+
+    private Map<String, String> getSettings(String category) {
         try {
-            // Используем новый публичный эндпоинт вместо защищенного
-            String url = authServiceUrl + "/api/auth/system/settings/public/user-quotas";
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return response.getBody();
-            }
-            return new HashMap<>();
+            return settingsCache.get(category);
         } catch (Exception e) {
-            logger.error("Failed to get user quotas from auth service", e);
+            logger.error("Failed to get {} from auth service", category, e);
             return Collections.emptyMap();
         }
     }
+
+    /**
+     * Загрузка настроек из сервиса аутентификации. Ошибка загрузки не кэшируется,
+     * а при фоновом обновлении сохраняет прежнее значение.
+     */
+    private Map<String, String> loadSettings(String category) {
+        // Используем публичные эндпоинты вместо защищенных
+        String url = authServiceUrl + "/api/auth/system/settings/public/" + category;
+        ResponseEntity<Map<String, String>> response = restTemplate.exchange(
+                url, HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, String>>() {});
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new IllegalStateException("Unexpected response for " + category + ": " + response.getStatusCode());
+        }
+        logger.debug("Loaded {} from auth service", category);
+        return Collections.unmodifiableMap(response.getBody());
+    }
     
     /**
      * Получить категории изображений
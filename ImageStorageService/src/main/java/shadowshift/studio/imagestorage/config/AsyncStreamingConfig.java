@@ -0,0 +1,25 @@
+package shadowshift.studio.imagestorage.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Async request configuration for streamed image downloads.
+ * Each response body is written on its own virtual thread, so slow clients do not
+ * occupy a shared pool while the image is copied from MinIO.
+ */
+@Configuration
+public class AsyncStreamingConfig implements WebMvcConfigurer {
+
+    @Value("${image.streaming.timeout-ms:300000}")
+    private long streamingTimeoutMs;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new VirtualThreadTaskExecutor("image-stream-"));
+        configurer.setDefaultTimeout(streamingTimeoutMs);
+    }
+}
@@ -0,0 +1,79 @@
+package shadowshift.studio.imagestorage.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import shadowshift.studio.imagecodec.ImageCodec;
+import shadowshift.studio.imagecodec.ImageCodecSettings;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the shared image codec used on the upload path
+ */
+@Configuration
+public class ImageCodecConfig {
+
+    @Value("${webp.encoder.pool-size:0}")
+    private int poolSize;
+
+    @Value("${webp.encoder.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${webp.encoder.queue-timeout-ms:10000}")
+    private long queueTimeoutMillis;
+
+    @Value("${webp.encoder.job-timeout-ms:30000}")
+    private long jobTimeoutMillis;
+
+    @Value("${webp.encoder.max-retries:1}")
+    private int maxRetries;
+
+    @Value("${webp.encoder.use-pipes:true}")
+    private boolean usePipes;
+
+    @Bean
+    public ImageCodec imageCodec() {
+        return ImageCodec.pooled(new ImageCodecSettings()
+                .withPoolSize(poolSize)
+                .withQueueCapacity(queueCapacity)
+                .withQueueTimeoutMillis(queueTimeoutMillis)
+                .withJobTimeoutMillis(jobTimeoutMillis)
+                .withMaxRetries(maxRetries)
+                .withPipes(usePipes));
+    }
+
+    /**
+     * Publishes codec statistics through actuator metrics
+     */
+    @Bean
+    public MeterBinder imageCodecMetrics(ImageCodec imageCodec) {
+        return registry -> {
+            FunctionCounter.builder("image.codec.encoded", imageCodec, codec -> codec.getStats().getEncoded())
+                    .description("Images encoded to WebP")
+                    .register(registry);
+            FunctionCounter.builder("image.codec.failures", imageCodec, codec -> codec.getStats().getFailures())
+                    .description("Failed or rejected WebP encodings")
+                    .register(registry);
+            FunctionCounter.builder("image.codec.bytes.in", imageCodec, codec -> codec.getStats().getBytesIn())
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("image.codec.bytes.out", imageCodec, codec -> codec.getStats().getBytesOut())
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("image.codec.encode.time", imageCodec,
+                            codec -> TimeUnit.NANOSECONDS.toMillis(codec.getStats().getEncodeNanos()))
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("image.codec.pool.active", imageCodec, codec -> codec.getStats().getActiveJobs())
+                    .register(registry);
+            Gauge.builder("image.codec.pool.queued", imageCodec, codec -> codec.getStats().getQueuedJobs())
+                    .register(registry);
+            Gauge.builder("image.codec.pool.size", imageCodec, codec -> codec.getStats().getPoolSize())
+                    .register(registry);
+        };
+    }
+}
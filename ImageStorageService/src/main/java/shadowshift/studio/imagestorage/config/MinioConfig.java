@@ -1,5 +1,6 @@
 package shadowshift.studio.imagestorage.config;
 
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -24,4 +25,16 @@ public class MinioConfig {
                 .credentials(accessKey, secretKey)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Asynchronous client for writes that can be issued concurrently, such as an image
+     * and its backup copy
+     */
+    @Bean
+    public MinioAsyncClient minioAsyncClient() {
+        return MinioAsyncClient.builder()
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey)
+                .build();
+    }
+}
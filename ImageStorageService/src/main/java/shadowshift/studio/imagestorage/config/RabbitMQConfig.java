@@ -4,9 +4,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.NamedType;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
 import org.springframework.amqp.support.converter.ClassMapper;
 import org.springframework.amqp.support.converter.DefaultClassMapper;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
@@ -14,6 +21,7 @@ import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -29,6 +37,20 @@ public class RabbitMQConfig {
     public static final String STORAGE_QUEUE = "image-storage-queue";
     public static final String COMPRESSION_QUEUE = "image-compression-queue";
 
+    public static final String SYSTEM_SETTINGS_EXCHANGE = "system-settings-exchange";
+
+    public static final String STORAGE_LISTENER_ID = "storageListener";
+    public static final String STORAGE_LISTENER_FACTORY = "storageListenerContainerFactory";
+
+    @Value("${messaging.listener.concurrency:4}")
+    private int concurrentConsumers;
+
+    @Value("${messaging.listener.max-concurrency:16}")
+    private int maxConcurrentConsumers;
+
+    @Value("${messaging.listener.prefetch:10}")
+    private int prefetchCount;
+
     @Value("${exchange.image.statistics}")
     private String statisticsExchange;
 
@@ -47,6 +69,25 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(storageQueue).to(imageExchange).with(STORAGE_KEY);
     }
 
+    @Bean
+    public FanoutExchange systemSettingsExchange() {
+        return new FanoutExchange(SYSTEM_SETTINGS_EXCHANGE);
+    }
+
+    /**
+     * Per-instance queue for settings change events: every storage instance keeps its own
+     * settings cache, so each one has to receive every event.
+     */
+    @Bean
+    public Queue systemSettingsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding systemSettingsBinding(Queue systemSettingsQueue, FanoutExchange systemSettingsExchange) {
+        return BindingBuilder.bind(systemSettingsQueue).to(systemSettingsExchange);
+    }
+
     @Bean
     public ClassMapper classMapper() {
         DefaultClassMapper classMapper = new DefaultClassMapper();
@@ -95,6 +136,41 @@ public class RabbitMQConfig {
         return template;
     }
 
+    /**
+     * Container factory for the storage queue listener. Requests are handled by several consumers
+     * on virtual threads, so a slow MinIO call does not hold up the rest of the queue.
+     */
+    @Bean(name = STORAGE_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory storageListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setConcurrentConsumers(concurrentConsumers);
+        factory.setMaxConcurrentConsumers(Math.max(concurrentConsumers, maxConcurrentConsumers));
+        factory.setPrefetchCount(prefetchCount);
+        factory.setTaskExecutor(new VirtualThreadTaskExecutor("storage-listener-"));
+        return factory;
+    }
+
+    @Bean
+    public MeterBinder storageListenerMetrics(RabbitListenerEndpointRegistry listenerRegistry) {
+        Tags tags = Tags.of("queue", STORAGE_QUEUE);
+        return registry -> {
+            Gauge.builder("messaging.listener.consumers", listenerRegistry, RabbitMQConfig::activeStorageConsumers)
+                    .description("Active consumers of the queue")
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("messaging.listener.consumers.max", () -> Math.max(concurrentConsumers, maxConcurrentConsumers))
+                    .description("Maximum consumers of the queue")
+                    .tags(tags)
+                    .register(registry);
+        };
+    }
+
+    private static double activeStorageConsumers(RabbitListenerEndpointRegistry listenerRegistry) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(STORAGE_LISTENER_ID);
+        return container instanceof SimpleMessageListenerContainer simple ? simple.getActiveConsumerCount() : 0;
+    }
+
     @Bean
     public DirectExchange statisticsExchange() {
         return new DirectExchange(statisticsExchange);
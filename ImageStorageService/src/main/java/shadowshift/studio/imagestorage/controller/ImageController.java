@@ -8,16 +8,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import shadowshift.studio.imagestorage.exception.FileSizeLimitException;
 import shadowshift.studio.imagestorage.exception.UserQuotaExceededException;
 import shadowshift.studio.imagestorage.messaging.StatisticsEventSender;
+import shadowshift.studio.imagestorage.model.DedupStats;
 import shadowshift.studio.imagestorage.model.Image;
+import shadowshift.studio.imagestorage.model.ImageContent;
+import shadowshift.studio.imagestorage.model.ImageFilter;
+import shadowshift.studio.imagestorage.model.ImagePage;
+import shadowshift.studio.imagestorage.model.ImageSortField;
+import shadowshift.studio.imagestorage.model.ImageUsage;
+import shadowshift.studio.imagestorage.model.ImageVariant;
+import shadowshift.studio.imagestorage.model.ImageVersion;
 import shadowshift.studio.imagestorage.model.UserInfo;
 import shadowshift.studio.imagestorage.service.ImageStorageService;
 import shadowshift.studio.imagestorage.client.AuthServiceClient;
@@ -26,6 +38,9 @@ import shadowshift.studio.imagestorage.repository.manga.VolumeRepository;
 import shadowshift.studio.imagestorage.repository.manga.MangaRepository;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -43,6 +58,9 @@ public class ImageController {
     private final VolumeRepository volumeRepository;
     private final MangaRepository mangaRepository;
     private static final Logger logger = LoggerFactory.getLogger(ImageController.class);
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String CACHE_CONTROL = "public, max-age=86400"; // Cache for 24 hours
 
     @Autowired
     public ImageController(ImageStorageService imageStorageService, StatisticsEventSender statisticsEventSender, 
@@ -138,18 +156,26 @@ public class ImageController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Image returned successfully",
                     content = @Content(mediaType = "image/*")),
-            @ApiResponse(responseCode = "404", description = "Image not found")
+            @ApiResponse(responseCode = "206", description = "Requested byte range returned"),
+            @ApiResponse(responseCode = "304", description = "Image not modified since the cached version"),
+            @ApiResponse(responseCode = "404", description = "Image not found"),
+            @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<byte[]> getImage(
+    public ResponseEntity<StreamingResponseBody> getImage(
             @Parameter(description = "Image ID", required = true)
             @PathVariable String id,
             @Parameter(description = "Whether to download the image")
-            @RequestParam(required = false, defaultValue = "false") boolean download) {
+            @RequestParam(required = false, defaultValue = "false") boolean download,
+            @Parameter(description = "Rendition of the image: thumb, mobile or full")
+            @RequestParam(value = "variant", required = false) String variant,
+            @RequestHeader HttpHeaders requestHeaders) {
         try {
-            byte[] imageData = imageStorageService.getImage(id);
-            if (imageData == null) {
-                return ResponseEntity.notFound().build();
+            ImageVariant imageVariant;
+            try {
+                imageVariant = ImageVariant.fromParam(variant);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
             }
 
             Image metadata = imageStorageService.getImageMetadata(id);
@@ -157,6 +183,22 @@ public class ImageController {
                 return ResponseEntity.notFound().build();
             }
 
+            HttpHeaders headers = new HttpHeaders();
+            if (download) {
+                headers.setContentDispositionFormData("attachment", metadata.getOriginalFilename());
+            }
+
+            // Renditions are previews in lists and grids, they are not counted as views
+            if (imageVariant.isRendition()) {
+                return serveRendition(id, imageVariant, requestHeaders, headers);
+            }
+
+            ResponseEntity<StreamingResponseBody> response = serveImage(id, requestHeaders, headers);
+            if (response.getStatusCode() != HttpStatus.OK && response.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+                // Partial and failed reads are not counted, a resumed download is one view
+                return response;
+            }
+
             // Send statistics event for view
             statisticsEventSender.sendViewEvent(id);
             logger.debug("Sent view event for image: {}", id);
@@ -167,17 +209,7 @@ public class ImageController {
                 logger.debug("Sent download event for image: {}", id);
             }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(metadata.getContentType()));
-            
-            if (download) {
-                headers.setContentDispositionFormData("attachment", metadata.getOriginalFilename());
-            }
-
-            // Add Cache-Control header to enable browser caching
-            headers.setCacheControl("public, max-age=86400"); // Cache for 24 hours
-
-            return ResponseEntity.ok().headers(headers).body(imageData);
+            return response;
         } catch (IOException e) {
             logger.error("Error retrieving image: {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -190,7 +222,8 @@ public class ImageController {
             @ApiResponse(responseCode = "404", description = "Cover image not found or volume has no cover")
     })
     @GetMapping("/cover/volume/{volumeId}")
-    public ResponseEntity<byte[]> getVolumeCoverImage(@PathVariable String volumeId) {
+    public ResponseEntity<StreamingResponseBody> getVolumeCoverImage(@PathVariable String volumeId,
+                                                                     @RequestHeader HttpHeaders requestHeaders) {
         try {
             // Get the volume entity to find the cover image ID
             VolumeEntity volume = volumeRepository.findById(volumeId).orElse(null);
@@ -201,21 +234,7 @@ public class ImageController {
             
             // Get the image using the existing method
             String imageId = volume.getCoverImageId();
-            byte[] imageData = imageStorageService.getImage(imageId);
-            
-            if (imageData == null) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            Image metadata = imageStorageService.getImageMetadata(imageId);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(metadata.getContentType()));
-            headers.setContentLength(imageData.length);
-            
-            // Add Cache-Control header to enable browser caching
-            headers.setCacheControl("public, max-age=86400"); // Cache for 24 hours
-            
-            return new ResponseEntity<>(imageData, headers, HttpStatus.OK);
+            return serveImage(imageId, requestHeaders, new HttpHeaders());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -227,7 +246,8 @@ public class ImageController {
             @ApiResponse(responseCode = "404", description = "Cover image not found or manga has no cover")
     })
     @GetMapping("/cover/manga/{mangaId}")
-    public ResponseEntity<byte[]> getMangaCoverImage(@PathVariable String mangaId) {
+    public ResponseEntity<StreamingResponseBody> getMangaCoverImage(@PathVariable String mangaId,
+                                                                    @RequestHeader HttpHeaders requestHeaders) {
         try {
             // Get the manga entity to find the cover image ID
             shadowshift.studio.imagestorage.entity.manga.MangaEntity manga = 
@@ -239,26 +259,210 @@ public class ImageController {
             
             // Get the image using the existing method
             String imageId = manga.getPreviewImageId();
-            byte[] imageData = imageStorageService.getImage(imageId);
-            
-            if (imageData == null) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            Image metadata = imageStorageService.getImageMetadata(imageId);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(metadata.getContentType()));
-            headers.setContentLength(imageData.length);
-            
-            // Add Cache-Control header to enable browser caching
-            headers.setCacheControl("public, max-age=86400"); // Cache for 24 hours
-            
-            return new ResponseEntity<>(imageData, headers, HttpStatus.OK);
+            return serveImage(imageId, requestHeaders, new HttpHeaders());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Отвечает на запрос изображения с учетом условных заголовков и диапазона.
+     * Версия объекта запрашивается только для условных запросов и запросов диапазона,
+     * так что ответ 304 не читает данные из MinIO.
+     */
+    private ResponseEntity<StreamingResponseBody> serveImage(String imageId, HttpHeaders requestHeaders,
+                                                             HttpHeaders headers) throws IOException {
+        boolean conditional = !requestHeaders.getIfNoneMatch().isEmpty() || requestHeaders.getIfModifiedSince() >= 0;
+        boolean ranged = requestHeaders.getFirst(HttpHeaders.RANGE) != null;
+
+        if (!conditional && !ranged) {
+            ImageContent content = imageStorageService.openImage(imageId);
+            if (content == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return streamImage(content, headers, HttpStatus.OK);
+        }
+
+        ImageVersion version = imageStorageService.getImageVersion(imageId);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (isNotModified(requestHeaders, version)) {
+            addValidators(headers, version);
+            headers.setCacheControl(CACHE_CONTROL);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        if (ranged && isRangeApplicable(requestHeaders, version)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = requestHeaders.getRange();
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+
+            // Multiple ranges are not supported, such requests are answered with the whole image
+            if (ranges.size() == 1) {
+                long size = version.getSize();
+                long start;
+                long end;
+                try {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                } catch (IllegalArgumentException e) {
+                    start = size;
+                    end = size - 1;
+                }
+
+                if (start >= size || start > end) {
+                    headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+                }
+
+                ImageContent content = imageStorageService.openImage(imageId, start, end - start + 1);
+                if (content == null) {
+                    return ResponseEntity.notFound().build();
+                }
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                return streamImage(content, headers, HttpStatus.PARTIAL_CONTENT);
+            }
+        }
+
+        ImageContent content = imageStorageService.openImage(imageId);
+        if (content == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return streamImage(content, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Отвечает на запрос уменьшенного варианта изображения. Варианты невелики, поэтому
+     * диапазоны не поддерживаются, а условный запрос проверяется по открытому объекту.
+     */
+    private ResponseEntity<StreamingResponseBody> serveRendition(String imageId, ImageVariant variant,
+                                                                 HttpHeaders requestHeaders,
+                                                                 HttpHeaders headers) throws IOException {
+        ImageContent content = imageStorageService.openImageVariant(imageId, variant);
+        if (content == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (isNotModified(requestHeaders, content.getVersion())) {
+            content.close();
+            addValidators(headers, content.getVersion());
+            headers.setCacheControl(CACHE_CONTROL);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        return streamImage(content, headers, HttpStatus.OK);
+    }
+
+    /**
+     * If-None-Match takes precedence over If-Modified-Since, as in RFC 9110
+     */
+    private static boolean isNotModified(HttpHeaders requestHeaders, ImageVersion version) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            if (version.getETag() == null) {
+                return false;
+            }
+            for (String eTag : ifNoneMatch) {
+                // Weak comparison: W/"x" matches "x"
+                String candidate = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+                if ("*".equals(candidate) || version.getETag().equals(candidate)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince >= 0 && version.getLastModified() >= 0
+                && version.getLastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * A range is served only if If-Range is absent or still matches the current version,
+     * otherwise the client gets the whole new image
+     */
+    private static boolean isRangeApplicable(HttpHeaders requestHeaders, ImageVersion version) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(version.getETag());
+        }
+        try {
+            long date = requestHeaders.getFirstDate(HttpHeaders.IF_RANGE);
+            return version.getLastModified() >= 0 && version.getLastModified() / 1000 == date / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void addValidators(HttpHeaders headers, ImageVersion version) {
+        if (version.getETag() != null) {
+            headers.setETag(version.getETag());
+        }
+        if (version.getLastModified() >= 0) {
+            headers.setLastModified(version.getLastModified());
+        }
+    }
+
+    /**
+     * Передает изображение клиенту потоком напрямую из MinIO.
+     * Память на запрос ограничена буфером копирования и не зависит от размера изображения.
+     */
+    private ResponseEntity<StreamingResponseBody> streamImage(ImageContent content, HttpHeaders headers,
+                                                              HttpStatus status) {
+        headers.setContentType(MediaType.parseMediaType(content.getContentType()));
+        if (content.getContentLength() >= 0) {
+            headers.setContentLength(content.getContentLength());
+        }
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        addValidators(headers, content.getVersion());
+
+        // Add Cache-Control header to enable browser caching
+        headers.setCacheControl(CACHE_CONTROL);
+
+        StreamingResponseBody body = outputStream -> {
+            try (InputStream inputStream = content.getStream()) {
+                copy(inputStream, outputStream);
+            }
+        };
+        return ResponseEntity.status(status).headers(headers).body(body);
+    }
+
+    private static void copy(InputStream inputStream, OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int bytesRead;
+        while ((bytesRead = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, bytesRead);
+        }
+    }
+
+    @Operation(summary = "Find image IDs", description = "Returns IDs of images matching a manga, chapter or size filter")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "IDs returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid size range")
+    })
+    @GetMapping("/ids")
+    public ResponseEntity<List<String>> findImageIds(
+            @Parameter(description = "Manga ID")
+            @RequestParam(value = "mangaId", required = false) String mangaId,
+            @Parameter(description = "Chapter ID, takes precedence over manga ID")
+            @RequestParam(value = "chapterId", required = false) String chapterId,
+            @Parameter(description = "Minimal image size in bytes (inclusive)")
+            @RequestParam(value = "minSize", defaultValue = "0") long minSize,
+            @Parameter(description = "Maximal image size in bytes (exclusive)")
+            @RequestParam(value = "maxSize", defaultValue = "" + Long.MAX_VALUE) long maxSize) {
+        if (minSize < 0 || maxSize < minSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(imageStorageService.findImageIds(mangaId, chapterId, minSize, maxSize));
+    }
+
     @Operation(summary = "Get image metadata", description = "Returns metadata about the image")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Metadata returned successfully",
@@ -276,96 +480,93 @@ public class ImageController {
         return ResponseEntity.ok(image);
     }
 
-    @Operation(summary = "Get all images", description = "Returns metadata for all images")
+    @Operation(summary = "Get all images",
+            description = "Returns a page of image metadata. Filters, sorting and paging are applied by the database; "
+                    + "pass nextCursor from a previous page as cursor to continue by keyset")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Metadata returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or cursor"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping
     public ResponseEntity<?> getAllImages(
-            @Parameter(description = "Page number (0-based)")
+            @Parameter(description = "Page number (0-based), ignored with a cursor")
             @RequestParam(value = "page", defaultValue = "0") int page,
             @Parameter(description = "Page size")
             @RequestParam(value = "size", defaultValue = "20") int size,
-            @Parameter(description = "Sort field")
+            @Parameter(description = "Sort field (uploadedAt, size, size_asc, size_desc, accessCount, views)")
             @RequestParam(value = "sort", required = false) String sort,
             @Parameter(description = "Sort direction (asc or desc)")
-            @RequestParam(value = "direction", defaultValue = "desc") String direction) {
+            @RequestParam(value = "direction", defaultValue = "desc") String direction,
+            @Parameter(description = "Cursor of the next page (nextCursor of the previous response)")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Part of the file name, case insensitive")
+            @RequestParam(value = "search", required = false) String search,
+            @Parameter(description = "Uploaded at or after (ISO date-time)")
+            @RequestParam(value = "uploadedAfter", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime uploadedAfter,
+            @Parameter(description = "Uploaded before (ISO date-time)")
+            @RequestParam(value = "uploadedBefore", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime uploadedBefore,
+            @Parameter(description = "Minimal image size in bytes (inclusive)")
+            @RequestParam(value = "minSize", required = false) Long minSize,
+            @Parameter(description = "Maximal image size in bytes (exclusive)")
+            @RequestParam(value = "maxSize", required = false) Long maxSize,
+            @Parameter(description = "Image type: original, compressed or all")
+            @RequestParam(value = "type", defaultValue = "all") String type) {
+        long startTime = System.currentTimeMillis();
+
+        ImageFilter filter = new ImageFilter();
+        filter.setSearch(search);
+        filter.setUploadedAfter(uploadedAfter);
+        filter.setUploadedBefore(uploadedBefore);
+        filter.setMinSize(minSize);
+        filter.setMaxSize(maxSize);
+        if ("original".equalsIgnoreCase(type)) {
+            filter.setOriginal(true);
+        } else if ("compressed".equalsIgnoreCase(type)) {
+            filter.setOriginal(false);
+        }
+
+        Sort.Direction sortDirection;
+        if ("size_asc".equals(sort)) {
+            sortDirection = Sort.Direction.ASC;
+        } else if ("size_desc".equals(sort)) {
+            sortDirection = Sort.Direction.DESC;
+        } else {
+            sortDirection = "asc".equalsIgnoreCase(direction) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        }
+
+        page = Math.max(page, 0);
+        size = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
         try {
-            long startTime = System.currentTimeMillis();
-            
-            Map<String, Image> allImages = imageStorageService.getAllImageMetadata();
-            
-            // Prepare pagination response
-            Map<String, Object> response = new HashMap<>();
-            
-            // Apply pagination
-            int totalImages = allImages.size();
-            int totalPages = (int) Math.ceil((double) totalImages / size);
-            
-            // Ensure page is within bounds
-            if (page < 0) page = 0;
-            if (page >= totalPages && totalPages > 0) page = totalPages - 1;
-            
-            // Calculate start and end indices for the requested page
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, totalImages);
-            
-            // Sort the images based on the sort parameter
-            List<Image> imageList = new ArrayList<>(allImages.values());
-            
-            if (sort != null) {
-                switch (sort) {
-                    case "uploadedAt":
-                        imageList.sort(Comparator.comparing(Image::getUploadedAt));
-                        break;
-                    case "size_asc":
-                        imageList.sort(Comparator.comparing(Image::getSize));
-                        break;
-                    case "size_desc":
-                        imageList.sort(Comparator.comparing(Image::getSize).reversed());
-                        break;
-                    case "accessCount":
-                    case "views":
-                        imageList.sort(Comparator.comparing(Image::getAccessCount));
-                        break;
-                    default:
-                        // Default sort by upload date
-                        imageList.sort(Comparator.comparing(Image::getUploadedAt));
-                }
-            } else {
-                // Default sort by upload date
-                imageList.sort(Comparator.comparing(Image::getUploadedAt));
-            }
-            
-            // Apply sort direction
-            if (!"asc".equalsIgnoreCase(direction)) {
-                Collections.reverse(imageList);
-            }
-            
-            // Get the page of images
-            List<Image> pagedImages = imageList.size() > 0 ? 
-                imageList.subList(Math.min(startIndex, imageList.size()), Math.min(endIndex, imageList.size())) : 
-                new ArrayList<>();
-            
-            // Convert to map for response
-            Map<String, Image> pagedImagesMap = new HashMap<>();
-            for (Image image : pagedImages) {
+            ImagePage result = imageStorageService.findImages(filter, ImageSortField.fromParam(sort), sortDirection,
+                    cursor, page, size);
+
+            // Keep the sort order of the page in the response
+            Map<String, Image> pagedImagesMap = new LinkedHashMap<>();
+            for (Image image : result.getImages()) {
                 pagedImagesMap.put(image.getId(), image);
             }
-            
-            // Build the response
+
+            Map<String, Object> response = new HashMap<>();
             response.put("images", pagedImagesMap);
-            response.put("page", page);
-            response.put("size", size);
-            response.put("totalElements", totalImages);
-            response.put("totalPages", totalPages);
-            
+            response.put("page", result.getPage());
+            response.put("size", result.getSize());
+            response.put("totalElements", result.getTotalElements());
+            response.put("totalPages", result.getTotalPages());
+            response.put("nextCursor", result.getNextCursor());
+
             long duration = System.currentTimeMillis() - startTime;
-            logger.info("GET /api/images returned {} images (page {}/{}) in {}ms", 
-                    pagedImages.size(), page + 1, totalPages, duration);
-            
+            logger.info("GET /api/images returned {} images (page {}, cursor: {}) in {}ms",
+                    pagedImagesMap.size(), page + 1, cursor != null, duration);
+
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Error retrieving all images: {}", e.getMessage(), e);
             // Return empty response with error message
@@ -402,6 +603,18 @@ public class ImageController {
         }
     }
 
+    @Operation(summary = "Get deduplication statistics",
+            description = "Returns the number of shared content objects, the images referencing them, "
+                    + "the stored bytes and the bytes saved by not storing duplicates. Each object also has "
+                    + "a backup copy of the same size, so the backup bucket saves the same amount")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics returned successfully")
+    })
+    @GetMapping("/dedup/stats")
+    public ResponseEntity<DedupStats> getDedupStats() {
+        return ResponseEntity.ok(imageStorageService.getDedupStats());
+    }
+
     @Operation(summary = "Get user quota information", description = "Returns quota usage and limits for the current user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Quota information returned successfully"),
@@ -426,11 +639,6 @@ public class ImageController {
             long diskSpaceUsed = 0;
             long maxDiskSpace = 1024 * 1024 * 1024; // 1GB by default
             
-            // Count user's images
-            Map<String, Image> allImages = imageStorageService.getAllImageMetadata();
-            long totalSize = 0;
-            long userImagesCount = 0;
-            
             // Попытаемся получить информацию о пользователе
             Map<String, Object> userInfoFromAuth = Collections.emptyMap();
             
@@ -456,15 +664,10 @@ public class ImageController {
                           userId, username, userRole);
             }
             
-            // Подсчитываем количество и размер изображений пользователя
-            for (Image image : allImages.values()) {
-                String imageUserId = image.getUserId();
-                logger.info("Checking image {} for userId {}", image.getId(), imageUserId);
-                if ((userId != null && userId.equals(imageUserId))) {
-                    userImagesCount++;
-                    totalSize += image.getSize();
-                }
-            }
+            // Подсчитываем количество и размер изображений пользователя агрегирующим запросом
+            ImageUsage usage = userId != null ? imageStorageService.getUserUsage(userId) : new ImageUsage(0L, 0L);
+            long userImagesCount = usage.getImageCount();
+            long totalSize = usage.getTotalSize();
 
             logger.info("User {} (id={}) has {} images with total size {} bytes", 
                        username, userId, userImagesCount, totalSize);
@@ -9,11 +9,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import shadowshift.studio.imagestorage.model.manga.Chapter;
+import shadowshift.studio.imagestorage.model.manga.ChapterManifest;
 import shadowshift.studio.imagestorage.service.manga.ChapterService;
 
 import java.util.List;
@@ -103,6 +106,56 @@ public class ChapterController {
         return ResponseEntity.ok(chapter);
     }
 
+    @Operation(summary = "Get chapter manifest",
+            description = "Returns everything a reader needs to open a chapter in one call: chapter metadata "
+                    + "and its ordered pages with image dimensions, sizes, content hashes and image URLs")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Manifest built",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ChapterManifest.class))),
+            @ApiResponse(responseCode = "304", description = "Manifest not modified since the cached version"),
+            @ApiResponse(responseCode = "404", description = "Chapter not found")
+    })
+    @GetMapping("/{id}/manifest")
+    public ResponseEntity<ChapterManifest> getChapterManifest(
+            @Parameter(description = "Chapter ID", required = true)
+            @PathVariable String id,
+            @RequestHeader HttpHeaders requestHeaders) {
+        
+        logger.info("Getting manifest for chapter: {}", id);
+        ChapterManifest manifest = chapterService.getChapterManifest(id);
+        
+        if (manifest == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        // Opening the manifest replaces the chapter request of a reader, so it is a view as well
+        chapterService.incrementViewCount(id);
+        
+        // Clients keep the manifest and revalidate it with the ETag on every open
+        if (matchesETag(requestHeaders.getIfNoneMatch(), manifest.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(manifest.getETag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        
+        return ResponseEntity.ok()
+                .eTag(manifest.getETag())
+                .cacheControl(CacheControl.noCache())
+                .body(manifest);
+    }
+
+    private static boolean matchesETag(List<String> ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch) {
+            // Weak comparison: W/"x" matches "x"
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(value) || eTag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Operation(summary = "Get all chapters for a volume", description = "Returns all chapters for the specified volume")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Chapters retrieved successfully")
@@ -91,6 +91,57 @@ public class PageController {
         }
     }
 
+    @Operation(summary = "Upload pages in bulk",
+            description = "Uploads the pages of a chapter as several files or as one zip archive. "
+                    + "Images are processed in parallel and either all pages are created or none")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Pages uploaded and created successfully"),
+            @ApiResponse(responseCode = "400", description = "No files, too many files, an empty archive or archive entries over the size limits"),
+            @ApiResponse(responseCode = "404", description = "Chapter not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/{chapterId}/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<Page>> uploadPages(
+            @Parameter(description = "Chapter ID", required = true)
+            @PathVariable String chapterId,
+            @Parameter(description = "Number of the first page (0 to append after the existing pages)")
+            @RequestParam(value = "startPageNumber", defaultValue = "0") int startPageNumber,
+            @Parameter(description = "Image files in page order")
+            @RequestParam(value = "files", required = false) List<MultipartFile> files,
+            @Parameter(description = "Zip archive with page images, ordered by entry name")
+            @RequestParam(value = "archive", required = false) MultipartFile archive,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        
+        try {
+            // Use a default user ID if not provided
+            if (userId == null || userId.isEmpty()) {
+                userId = "system";
+            }
+            
+            List<Page> uploadedPages;
+            if (archive != null && !archive.isEmpty()) {
+                logger.info("Uploading pages for chapter {} from archive: {}", chapterId, archive.getOriginalFilename());
+                uploadedPages = pageService.uploadPagesFromArchive(chapterId, startPageNumber, archive, userId);
+            } else if (files != null && !files.isEmpty()) {
+                logger.info("Uploading {} pages for chapter {}", files.size(), chapterId);
+                uploadedPages = pageService.uploadPages(chapterId, startPageNumber, files, userId);
+            } else {
+                return ResponseEntity.badRequest().build();
+            }
+            
+            if (uploadedPages == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(uploadedPages);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected bulk page upload: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            logger.error("Error uploading pages: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @Operation(summary = "Update a page", description = "Updates an existing page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Page updated successfully",
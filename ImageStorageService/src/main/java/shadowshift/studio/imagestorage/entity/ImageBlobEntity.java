@@ -0,0 +1,85 @@
+package shadowshift.studio.imagestorage.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored image content shared by all images uploaded with identical source data.
+ * The object and its backup copy are named by the content hash and removed when the
+ * last referencing image is deleted or compressed.
+ */
+@Entity
+@Table(name = "image_blobs")
+public class ImageBlobEntity {
+
+    // SHA-256 of the uploaded source data, hex encoded
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private String objectName;
+
+    // Size of the stored WebP object
+    private long size;
+
+    private int refCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public ImageBlobEntity() {
+    }
+
+    public ImageBlobEntity(String contentHash, String objectName, long size) {
+        this.contentHash = contentHash;
+        this.objectName = objectName;
+        this.size = size;
+        this.refCount = 1;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    public void setObjectName(String objectName) {
+        this.objectName = objectName;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
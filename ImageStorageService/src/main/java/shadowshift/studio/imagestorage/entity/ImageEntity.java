@@ -3,12 +3,20 @@ package shadowshift.studio.imagestorage.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "images")
+@Table(name = "images", indexes = {
+        // Sort columns of the image list, id makes the order unique for keyset paging
+        @Index(name = "idx_images_uploaded_at_id", columnList = "uploadedAt, id"),
+        @Index(name = "idx_images_size_id", columnList = "size, id"),
+        @Index(name = "idx_images_access_count_id", columnList = "accessCount, id"),
+        // Per-user quota aggregates, size is included so SUM(size) is answered from the index
+        @Index(name = "idx_images_user_id_size", columnList = "userId, size")
+})
 public class ImageEntity {
     
     @Id
@@ -35,9 +43,20 @@ public class ImageEntity {
     @Column(nullable = false)
     private LocalDateTime lastAccessed;
     
+    // Incremented in batches by AccessCountRecorder, entity saves must not overwrite it
+    @Column(updatable = false)
     private int accessCount;
     
     private String userId;
+    
+    // Set while the image references a shared ImageBlobEntity object
+    @Column(length = 64)
+    private String contentHash;
+    
+    // Read from the image header on upload, null for images stored before
+    private Integer width;
+    
+    private Integer height;
 
     public String getId() {
         return id;
@@ -130,4 +149,28 @@ public class ImageEntity {
     public void setUserId(String userId) {
         this.userId = userId;
     }
-}
\ No newline at end of file
+
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+    
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+    
+    public Integer getHeight() {
+        return height;
+    }
+    
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+}
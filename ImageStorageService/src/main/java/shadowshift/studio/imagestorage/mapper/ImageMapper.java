@@ -24,6 +24,9 @@ public class ImageMapper {
         model.setLastAccessed(entity.getLastAccessed());
         model.setAccessCount(entity.getAccessCount());
         model.setUserId(entity.getUserId());
+        model.setContentHash(entity.getContentHash());
+        model.setWidth(entity.getWidth());
+        model.setHeight(entity.getHeight());
         
         return model;
     }
@@ -45,6 +48,9 @@ public class ImageMapper {
         entity.setLastAccessed(model.getLastAccessed());
         entity.setAccessCount(model.getAccessCount());
         entity.setUserId(model.getUserId());
+        entity.setContentHash(model.getContentHash());
+        entity.setWidth(model.getWidth());
+        entity.setHeight(model.getHeight());
         
         return entity;
     }
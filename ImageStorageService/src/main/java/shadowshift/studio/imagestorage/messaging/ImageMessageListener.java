@@ -2,6 +2,8 @@ package shadowshift.studio.imagestorage.messaging;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
@@ -14,6 +16,7 @@ import shadowshift.studio.imagestorage.config.RabbitMQConfig;
 import shadowshift.studio.imagestorage.dto.message.CompressionMessage;
 import shadowshift.studio.imagestorage.dto.message.ImageMessage;
 import shadowshift.studio.imagestorage.model.Image;
+import shadowshift.studio.imagestorage.service.ClaimCheckService;
 import shadowshift.studio.imagestorage.service.ImageStorageService;
 
 import java.io.IOException;
@@ -27,16 +30,22 @@ public class ImageMessageListener {
     private final ImageStorageService imageStorageService;
     private final MessageSender messageSender;
     private final MessageConverter messageConverter;
+    private final MeterRegistry meterRegistry;
+    private final ClaimCheckService claimCheckService;
 
     @Autowired
     public ImageMessageListener(ImageStorageService imageStorageService, MessageSender messageSender, 
-                              MessageConverter messageConverter) {
+                              MessageConverter messageConverter, MeterRegistry meterRegistry,
+                              ClaimCheckService claimCheckService) {
         this.imageStorageService = imageStorageService;
+        this.claimCheckService = claimCheckService;
         this.messageSender = messageSender;
         this.messageConverter = messageConverter;
+        this.meterRegistry = meterRegistry;
     }
 
-    @RabbitListener(queues = {RabbitMQConfig.STORAGE_QUEUE})
+    @RabbitListener(id = RabbitMQConfig.STORAGE_LISTENER_ID, queues = {RabbitMQConfig.STORAGE_QUEUE},
+            containerFactory = RabbitMQConfig.STORAGE_LISTENER_FACTORY)
     public void processStorageMessage(Message amqpMessage) {
         try {
             MessageProperties props = amqpMessage.getMessageProperties();
@@ -68,7 +77,7 @@ public class ImageMessageListener {
             ImageMessage message = (ImageMessage) convertedMessage;
             logger.info("Processing storage message: {}, action: {}", message.getMessageId(), message.getAction());
             
-            processImageMessage(message);
+            processImageMessage(message, ReplyAddress.of(props));
             
         } catch (Exception e) {
             logger.error("Error processing message", e);
@@ -76,35 +85,39 @@ public class ImageMessageListener {
             MessageProperties props = amqpMessage.getMessageProperties();
             if (props != null && props.getHeaders() != null && props.getHeaders().containsKey("imageId")) {
                 String imageId = props.getHeaders().get("imageId").toString();
-                sendErrorResponse(imageId, "Message processing error: " + e.getMessage());
+                sendErrorResponse(imageId, "Message processing error: " + e.getMessage(), ReplyAddress.of(props));
             }
         }
     }
     
-    private void processImageMessage(ImageMessage message) {
+    private void processImageMessage(ImageMessage message, ReplyAddress replyAddress) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String action = message.getAction();
         try {
-            String action = message.getAction();
             String imageId = message.getImageId();
             
             switch (action) {
                 case "GET_IMAGE":
-                    handleGetImageRequest(imageId, message.getMessageId());
+                    handleGetImageRequest(imageId, replyAddress);
+                    break;
+                case "GET_IMAGE_WITH_METADATA":
+                    handleGetImageWithMetadataRequest(message, replyAddress);
                     break;
                 case "GET_ORIGINAL":
-                    handleGetOriginalRequest(imageId, message.getMessageId());
+                    handleGetOriginalRequest(imageId, replyAddress);
                     break;
                 case "GET_METADATA":
-                    handleGetMetadataRequest(imageId, message.getMessageId());
+                    handleGetMetadataRequest(imageId, replyAddress);
                     break;
                 case "GET_ALL_METADATA":
-                    handleGetAllMetadataRequest(imageId);
+                    handleGetAllMetadataRequest(imageId, replyAddress);
                     break;
                 case "DELETE":
-                    handleDeleteRequest(imageId, message.getMessageId());
+                    handleDeleteRequest(imageId, replyAddress);
                     break;
                 case "UPDATE_COMPRESSION":
                     if (message instanceof CompressionMessage) {
-                        handleUpdateCompressionRequest((CompressionMessage) message);
+                        handleUpdateCompressionRequest((CompressionMessage) message, replyAddress);
                     } else {
                         logger.error("Expected CompressionMessage but received: {}", message.getClass().getName());
                     }
@@ -119,11 +132,17 @@ public class ImageMessageListener {
             ImageMessage response = new ImageMessage();
             response.setImageId(message.getImageId());
             response.setAction("ERROR");
-            messageSender.sendToCompression(response);
+            messageSender.sendReply(response, replyAddress);
+        } finally {
+            sample.stop(Timer.builder("storage.messages.handled")
+                    .description("Time spent handling requests of the compression service")
+                    .tag("action", action != null ? action : "UNKNOWN")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
         }
     }
     
-    private void handleGetImageRequest(String imageId, String messageId) {
+    private void handleGetImageRequest(String imageId, ReplyAddress replyAddress) {
         try {
             byte[] imageData = imageStorageService.getImage(imageId);
             Image metadata = imageStorageService.getImageMetadata(imageId);
@@ -142,21 +161,78 @@ public class ImageMessageListener {
                 logger.debug("Preparing to send image data: ID={}, size={}, compressionLevel={}, imageData null={}",
                     imageId, imageData.length, metadata.getCompressionLevel(), (response.getImageData() == null));
                 
-                messageSender.sendBinaryToCompression(response, imageData);
+                messageSender.sendBinaryReply(response, imageData, replyAddress);
                 logger.info("Sent image data response for image ID: {}, data size: {} bytes", 
                     imageId, imageData.length);
             } else {
                 logger.warn("Image or metadata not found for ID: {}", imageId);
-                sendNotFoundResponse(imageId);
+                sendNotFoundResponse(imageId, replyAddress);
+            }
+            
+        } catch (IOException e) {
+            logger.error("Error retrieving image: {}", imageId, e);
+            sendErrorResponse(imageId, "Failed to retrieve image: " + e.getMessage(), replyAddress);
+        }
+    }
+    
+    /**
+     * Sends image data together with its full metadata in a single binary reply,
+     * so the compression service does not need a separate GET_METADATA round trip.
+     * Large images are sent by reference if the requester supports it: the reply carries
+     * a presigned download URL and a presigned upload URL for the result instead of the data.
+     */
+    private void handleGetImageWithMetadataRequest(ImageMessage request, ReplyAddress replyAddress) {
+        String imageId = request.getImageId();
+        try {
+            Image metadata = imageStorageService.getImageMetadata(imageId);
+            if (metadata == null) {
+                logger.warn("Image metadata not found for ID: {}", imageId);
+                sendNotFoundResponse(imageId, replyAddress);
+                return;
+            }
+            
+            boolean claimCheckAccepted = request.getMetadata() != null
+                    && Boolean.TRUE.equals(request.getMetadata().get("claimCheck"));
+            if (claimCheckAccepted && claimCheckService.shouldUseClaimCheck(metadata.getSize())) {
+                String stagingKey = claimCheckService.createStagingKey(imageId);
+                
+                ImageMessage response = new ImageMessage();
+                response.setImageId(imageId);
+                response.setAction("IMAGE_WITH_METADATA");
+                addImageMetadata(response, metadata);
+                response.addMetadata("downloadUrl", claimCheckService.createDownloadUrl(metadata.getObjectName()));
+                response.addMetadata("uploadUrl", claimCheckService.createUploadUrl(stagingKey));
+                response.addMetadata("stagingKey", stagingKey);
+                
+                messageSender.sendReply(response, replyAddress);
+                logger.info("Sent image reference for image ID: {}, size: {} bytes", imageId, metadata.getSize());
+                return;
+            }
+            
+            byte[] imageData = imageStorageService.getImage(imageId);
+            if (imageData == null) {
+                logger.warn("Image data not found for ID: {}", imageId);
+                sendNotFoundResponse(imageId, replyAddress);
+                return;
             }
             
+            CompressionMessage response = new CompressionMessage();
+            response.setImageId(imageId);
+            response.setAction("IMAGE_WITH_METADATA");
+            response.setCompressionLevel(metadata.getCompressionLevel());
+            addImageMetadata(response, metadata);
+            
+            messageSender.sendBinaryReply(response, imageData, replyAddress);
+            logger.info("Sent image data with metadata for image ID: {}, data size: {} bytes, compressionLevel: {}", 
+                imageId, imageData.length, metadata.getCompressionLevel());
+            
         } catch (IOException e) {
             logger.error("Error retrieving image: {}", imageId, e);
-            sendErrorResponse(imageId, "Failed to retrieve image: " + e.getMessage());
+            sendErrorResponse(imageId, "Failed to retrieve image: " + e.getMessage(), replyAddress);
         }
     }
     
-    private void handleGetOriginalRequest(String imageId, String messageId) {
+    private void handleGetOriginalRequest(String imageId, ReplyAddress replyAddress) {
         try {
             byte[] originalData = imageStorageService.getOriginalImageBackup(imageId);
             
@@ -171,21 +247,21 @@ public class ImageMessageListener {
                 
                 logger.debug("Sending original image data: ID={}, size={}", imageId, originalData.length);
                 
-                messageSender.sendToCompression(response);
+                messageSender.sendReply(response, replyAddress);
                 logger.info("Sent original image data response for image ID: {}, data size: {} bytes",
                     imageId, originalData.length);
             } else {
                 logger.warn("Original image backup not found for ID: {}", imageId);
-                sendNotFoundResponse(imageId);
+                sendNotFoundResponse(imageId, replyAddress);
             }
             
         } catch (IOException e) {
             logger.error("Error retrieving original image: {}", imageId, e);
-            sendErrorResponse(imageId, "Failed to retrieve original image: " + e.getMessage());
+            sendErrorResponse(imageId, "Failed to retrieve original image: " + e.getMessage(), replyAddress);
         }
     }
     
-    private void handleGetMetadataRequest(String imageId, String messageId) {
+    private void handleGetMetadataRequest(String imageId, ReplyAddress replyAddress) {
         Image metadata = imageStorageService.getImageMetadata(imageId);
         
         if (metadata != null) {
@@ -206,13 +282,13 @@ public class ImageMessageListener {
             logger.info("Sending metadata for image ID: {}, compressionLevel: {}", 
                 imageId, metadata.getCompressionLevel());
             
-            messageSender.sendToCompression(response);
+            messageSender.sendReply(response, replyAddress);
         } else {
-            sendNotFoundResponse(imageId);
+            sendNotFoundResponse(imageId, replyAddress);
         }
     }
     
-    private void handleGetAllMetadataRequest(String requestId) {
+    private void handleGetAllMetadataRequest(String requestId, ReplyAddress replyAddress) {
         logger.info("Processing GET_ALL_METADATA request with ID: {}", requestId);
         try {
             Map<String, Image> allImages = imageStorageService.getAllImageMetadata();
@@ -221,16 +297,16 @@ public class ImageMessageListener {
             response.setImageId(requestId);
             response.setAction("ALL_METADATA");
             
-            messageSender.sendToCompression(response, allImages);
+            messageSender.sendReply(response, allImages, replyAddress);
             logger.info("Sent metadata for {} images to compression service", allImages.size());
             
         } catch (Exception e) {
             logger.error("Error retrieving all image metadata", e);
-            sendErrorResponse(requestId, "Failed to retrieve all image metadata: " + e.getMessage());
+            sendErrorResponse(requestId, "Failed to retrieve all image metadata: " + e.getMessage(), replyAddress);
         }
     }
     
-    private void handleDeleteRequest(String imageId, String messageId) {
+    private void handleDeleteRequest(String imageId, ReplyAddress replyAddress) {
         try {
             boolean deleted = imageStorageService.deleteImage(imageId);
             
@@ -239,35 +315,43 @@ public class ImageMessageListener {
                 response.setImageId(imageId);
                 response.setAction("DELETED");
                 
-                messageSender.sendToCompression(response);
+                messageSender.sendReply(response, replyAddress);
             } else {
-                sendNotFoundResponse(imageId);
+                sendNotFoundResponse(imageId, replyAddress);
             }
             
         } catch (IOException e) {
             logger.error("Error deleting image: {}", imageId, e);
-            sendErrorResponse(imageId, "Failed to delete image: " + e.getMessage());
+            sendErrorResponse(imageId, "Failed to delete image: " + e.getMessage(), replyAddress);
         }
     }
     
-    private void handleUpdateCompressionRequest(CompressionMessage message) {
+    private void handleUpdateCompressionRequest(CompressionMessage message, ReplyAddress replyAddress) {
         try {
             String imageId = message.getImageId();
             byte[] imageData = message.getImageData();
             int compressionLevel = message.getCompressionLevel();
+            Object stagingKey = message.getMetadata() != null ? message.getMetadata().get("stagingKey") : null;
             
-            if (imageData == null || imageData.length == 0) {
+            Image updatedImage;
+            if ((imageData == null || imageData.length == 0) && stagingKey != null) {
+                logger.debug("Received staged image data for compression: ID={}, key={}, compressionLevel={}", 
+                    imageId, stagingKey, compressionLevel);
+                
+                updatedImage = imageStorageService.updateImageCompressionFromStaging(
+                        imageId, stagingKey.toString(), compressionLevel);
+            } else if (imageData == null || imageData.length == 0) {
                 logger.error("Received UPDATE_COMPRESSION request with no image data for ID: {}", imageId);
-                sendErrorResponse(imageId, "No image data provided");
+                sendErrorResponse(imageId, "No image data provided", replyAddress);
                 return;
+            } else {
+                logger.debug("Received image data for compression: ID={}, size={}, compressionLevel={}", 
+                    imageId, imageData.length, compressionLevel);
+                
+                updatedImage = imageStorageService.updateImageCompression(
+                        imageId, imageData, compressionLevel);
             }
             
-            logger.debug("Received image data for compression: ID={}, size={}, compressionLevel={}", 
-                imageId, imageData.length, compressionLevel);
-            
-            Image updatedImage = imageStorageService.updateImageCompression(
-                    imageId, imageData, compressionLevel);
-            
             if (updatedImage != null) {
                 ImageMessage response = new ImageMessage();
                 response.setImageId(imageId);
@@ -286,31 +370,43 @@ public class ImageMessageListener {
                 logger.info("Sending updated metadata for image ID: {}, compressionLevel: {}", 
                     imageId, updatedImage.getCompressionLevel());
                 
-                messageSender.sendToCompression(response);
+                messageSender.sendReply(response, replyAddress);
             } else {
-                sendNotFoundResponse(imageId);
+                sendNotFoundResponse(imageId, replyAddress);
             }
             
         } catch (IOException e) {
             logger.error("Error updating image compression: {}", message.getImageId(), e);
-            sendErrorResponse(message.getImageId(), "Failed to update image: " + e.getMessage());
+            sendErrorResponse(message.getImageId(), "Failed to update image: " + e.getMessage(), replyAddress);
+        }
+    }
+    
+    private void addImageMetadata(ImageMessage response, Image metadata) {
+        response.addMetadata("originalFilename", metadata.getOriginalFilename());
+        response.addMetadata("contentType", metadata.getContentType());
+        response.addMetadata("size", metadata.getSize());
+        response.addMetadata("compressionLevel", metadata.getCompressionLevel());
+        response.addMetadata("objectName", metadata.getObjectName());
+        
+        if (metadata.getOriginalImageId() != null) {
+            response.addMetadata("originalImageId", metadata.getOriginalImageId());
         }
     }
     
-    private void sendNotFoundResponse(String imageId) {
+    private void sendNotFoundResponse(String imageId, ReplyAddress replyAddress) {
         ImageMessage response = new ImageMessage();
         response.setImageId(imageId);
         response.setAction("NOT_FOUND");
         
-        messageSender.sendToCompression(response);
+        messageSender.sendReply(response, replyAddress);
     }
     
-    private void sendErrorResponse(String imageId, String errorMessage) {
+    private void sendErrorResponse(String imageId, String errorMessage, ReplyAddress replyAddress) {
         ImageMessage response = new ImageMessage();
         response.setImageId(imageId);
         response.setAction("ERROR");
         response.addMetadata("errorMessage", errorMessage);
         
-        messageSender.sendToCompression(response);
+        messageSender.sendReply(response, replyAddress);
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.MessagePropertiesBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,8 +40,19 @@ public class MessageSender {
      * @param message the message to send
      */
     public void sendToCompression(ImageMessage message) {
-        logger.info("Sending message to compression service: {}, action: {}", 
-                message.getMessageId(), message.getAction());
+        sendReply(message, ReplyAddress.NONE);
+    }
+    
+    /**
+     * Sends a reply to a request of the compression service.
+     * The reply carries the correlation ID of the request and goes to its replyTo queue, if set.
+     * 
+     * @param message the reply to send
+     * @param address reply address of the request
+     */
+    public void sendReply(ImageMessage message, ReplyAddress address) {
+        logger.info("Sending message to compression service: {}, action: {}, correlationId: {}", 
+                message.getMessageId(), message.getAction(), address.getCorrelationId());
         
         if (message instanceof CompressionMessage) {
             CompressionMessage compMsg = (CompressionMessage) message;
@@ -50,15 +62,31 @@ public class MessageSender {
                 byte[] imageData = compMsg.getImageData();
                 compMsg.setImageData(null);
                 
-                sendBinaryToCompression(compMsg, imageData);
+                sendBinaryReply(compMsg, imageData, address);
                 return;
             }
         }
         
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.IMAGE_EXCHANGE, 
-                RabbitMQConfig.COMPRESSION_KEY, 
-                message);
+        send(message, address);
+    }
+    
+    private void send(ImageMessage message, ReplyAddress address) {
+        MessagePostProcessor correlation = amqpMessage -> {
+            if (address.getCorrelationId() != null) {
+                amqpMessage.getMessageProperties().setCorrelationId(address.getCorrelationId());
+            }
+            return amqpMessage;
+        };
+        
+        if (address.hasReplyTo()) {
+            rabbitTemplate.convertAndSend("", address.getReplyTo(), message, correlation);
+        } else {
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.IMAGE_EXCHANGE, 
+                    RabbitMQConfig.COMPRESSION_KEY, 
+                    message,
+                    correlation);
+        }
     }
     
     /**
@@ -68,6 +96,17 @@ public class MessageSender {
      * @param imagesMap map of image metadata to include with the message
      */
     public void sendToCompression(ImageMessage message, Map<String, Image> imagesMap) {
+        sendReply(message, imagesMap, ReplyAddress.NONE);
+    }
+    
+    /**
+     * Sends a reply with image metadata map to a request of the compression service
+     * 
+     * @param message the reply to send
+     * @param imagesMap map of image metadata to include with the message
+     * @param address reply address of the request
+     */
+    public void sendReply(ImageMessage message, Map<String, Image> imagesMap, ReplyAddress address) {
         logger.info("Sending message with {} images to compression service: {}, action: {}", 
                 imagesMap.size(), message.getMessageId(), message.getAction());
         
@@ -88,10 +127,7 @@ public class MessageSender {
             if (i >= 100) break;
         }
         
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.IMAGE_EXCHANGE, 
-                RabbitMQConfig.COMPRESSION_KEY, 
-                message);
+        send(message, address);
     }
     
     /**
@@ -102,12 +138,24 @@ public class MessageSender {
      * @param imageData the binary image data
      */
     public void sendBinaryToCompression(CompressionMessage message, byte[] imageData) {
+        sendBinaryReply(message, imageData, ReplyAddress.NONE);
+    }
+    
+    /**
+     * Sends a reply with binary image data to a request of the compression service
+     * 
+     * @param message the message containing metadata
+     * @param imageData the binary image data
+     * @param address reply address of the request
+     */
+    public void sendBinaryReply(CompressionMessage message, byte[] imageData, ReplyAddress address) {
         if (imageData == null || imageData.length == 0) {
             logger.error("Attempted to send null or empty image data");
             return;
         }
         
-        String correlationId = UUID.randomUUID().toString();
+        String correlationId = address.getCorrelationId() != null ? 
+                address.getCorrelationId() : UUID.randomUUID().toString();
         String imageId = message.getImageId();
         
         logger.info("Sending binary image data to compression service: {}, action: {}, size: {} bytes, correlationId: {}",
@@ -139,10 +187,14 @@ public class MessageSender {
             
             logger.debug("Sending single binary message with all metadata in headers for imageId: {}", imageId);
             
-            rabbitTemplate.send(
-                    RabbitMQConfig.IMAGE_EXCHANGE,
-                    RabbitMQConfig.COMPRESSION_KEY,
-                    binaryMessage);
+            if (address.hasReplyTo()) {
+                rabbitTemplate.send("", address.getReplyTo(), binaryMessage);
+            } else {
+                rabbitTemplate.send(
+                        RabbitMQConfig.IMAGE_EXCHANGE,
+                        RabbitMQConfig.COMPRESSION_KEY,
+                        binaryMessage);
+            }
             
             logger.debug("Successfully sent binary message with correlationId: {}", correlationId);
             
@@ -0,0 +1,50 @@
+package shadowshift.studio.imagestorage.messaging;
+
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Where and under which correlation ID a reply to a request has to be sent
+ */
+public class ReplyAddress {
+
+    /**
+     * Address of replies to requests sent without a correlation ID
+     */
+    public static final ReplyAddress NONE = new ReplyAddress(null, null);
+
+    private final String correlationId;
+    private final String replyTo;
+
+    public ReplyAddress(String correlationId, String replyTo) {
+        this.correlationId = correlationId;
+        this.replyTo = replyTo;
+    }
+
+    /**
+     * Creates the reply address of a received request
+     * 
+     * @param properties properties of the request
+     * @return reply address
+     */
+    public static ReplyAddress of(MessageProperties properties) {
+        if (properties == null) {
+            return NONE;
+        }
+        return new ReplyAddress(properties.getCorrelationId(), properties.getReplyTo());
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public String getReplyTo() {
+        return replyTo;
+    }
+
+    /**
+     * @return true if the reply has to be sent directly to the reply queue of the requester
+     */
+    public boolean hasReplyTo() {
+        return replyTo != null && !replyTo.isEmpty();
+    }
+}
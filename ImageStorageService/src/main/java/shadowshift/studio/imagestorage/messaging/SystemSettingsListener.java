@@ -0,0 +1,35 @@
+package shadowshift.studio.imagestorage.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import shadowshift.studio.imagestorage.client.AuthServiceClient;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Listens for system settings changes published by the auth service and drops the
+ * locally cached settings, so new limits apply without waiting for the cache to expire.
+ * Each instance consumes from its own anonymous queue bound to the settings fanout exchange.
+ */
+@Component
+public class SystemSettingsListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemSettingsListener.class);
+
+    private final AuthServiceClient authServiceClient;
+
+    @Autowired
+    public SystemSettingsListener(AuthServiceClient authServiceClient) {
+        this.authServiceClient = authServiceClient;
+    }
+
+    @RabbitListener(queues = "#{systemSettingsQueue.name}")
+    public void onSettingsChanged(Message message) {
+        logger.debug("System settings changed: {}", new String(message.getBody(), StandardCharsets.UTF_8));
+        authServiceClient.invalidateSettings();
+    }
+}
@@ -0,0 +1,48 @@
+package shadowshift.studio.imagestorage.model;
+
+/**
+ * Статистика дедупликации содержимого изображений. Резервные копии дедуплицируются
+ * вместе с основными объектами, поэтому в бакете резервных копий экономится столько же
+ */
+public class DedupStats {
+
+    private final long blobs;
+    private final long references;
+    private final long storedBytes;
+    private final long savedBytes;
+
+    public DedupStats(Long blobs, Long references, Long storedBytes, Long savedBytes) {
+        this.blobs = blobs != null ? blobs : 0;
+        this.references = references != null ? references : 0;
+        this.storedBytes = storedBytes != null ? storedBytes : 0;
+        this.savedBytes = savedBytes != null ? savedBytes : 0;
+    }
+
+    /**
+     * @return число хранимых объектов с общим содержимым
+     */
+    public long getBlobs() {
+        return blobs;
+    }
+
+    /**
+     * @return число изображений, ссылающихся на эти объекты
+     */
+    public long getReferences() {
+        return references;
+    }
+
+    /**
+     * @return размер хранимых объектов в байтах
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * @return объем, который заняли бы повторяющиеся копии без дедупликации, в байтах
+     */
+    public long getSavedBytes() {
+        return savedBytes;
+    }
+}
@@ -16,6 +16,9 @@ public class Image {
     private LocalDateTime lastAccessed;
     private int accessCount;
     private String userId;
+    private String contentHash;
+    private Integer width;
+    private Integer height;
 
     public Image(String originalFilename, String contentType, long size) {
         this.id = UUID.randomUUID().toString();
@@ -27,7 +30,14 @@ public class Image {
         this.lastAccessed = LocalDateTime.now();
         this.accessCount = 0;
         
-        this.objectName = id + "_" + originalFilename.replace(" ", "_");
+        this.objectName = objectNameFor(id, originalFilename);
+    }
+
+    /**
+     * Имя объекта изображения, не разделяющего данные с другими изображениями
+     */
+    public static String objectNameFor(String id, String originalFilename) {
+        return id + "_" + originalFilename.replace(" ", "_");
     }
     
     public Image() {
@@ -124,4 +134,37 @@ public class Image {
     public void setUserId(String userId) {
         this.userId = userId;
     }
+
+    /**
+     * @return SHA-256 исходных данных, если изображение ссылается на общий объект, иначе null
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * @return ширина изображения в пикселях, null если размеры неизвестны
+     */
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    /**
+     * @return высота изображения в пикселях, null если размеры неизвестны
+     */
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
 }
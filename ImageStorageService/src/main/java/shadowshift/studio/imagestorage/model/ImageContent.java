@@ -0,0 +1,52 @@
+package shadowshift.studio.imagestorage.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Открытый поток данных изображения из хранилища.
+ * Данные не загружаются в память целиком: поток читается напрямую из объекта MinIO
+ * и должен быть закрыт после передачи клиенту.
+ */
+public class ImageContent implements Closeable {
+
+    private final InputStream stream;
+    private final long contentLength;
+    private final String contentType;
+    private final ImageVersion version;
+
+    public ImageContent(InputStream stream, long contentLength, String contentType, ImageVersion version) {
+        this.stream = stream;
+        this.contentLength = contentLength;
+        this.contentType = contentType;
+        this.version = version;
+    }
+
+    public InputStream getStream() {
+        return stream;
+    }
+
+    /**
+     * @return размер передаваемых данных в байтах или -1, если неизвестен
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return версия объекта, из которого читаются данные
+     */
+    public ImageVersion getVersion() {
+        return version;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
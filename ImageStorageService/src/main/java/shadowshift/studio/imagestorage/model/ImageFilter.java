@@ -0,0 +1,82 @@
+package shadowshift.studio.imagestorage.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фильтр списка изображений. Все условия необязательны и применяются в запросе к базе данных.
+ */
+public class ImageFilter {
+
+    private String search;
+    private LocalDateTime uploadedAfter;
+    private LocalDateTime uploadedBefore;
+    private Long minSize;
+    private Long maxSize;
+    private Boolean original;
+
+    /**
+     * @return подстрока имени файла без учета регистра
+     */
+    public String getSearch() {
+        return search;
+    }
+
+    public void setSearch(String search) {
+        this.search = search;
+    }
+
+    /**
+     * @return нижняя граница даты загрузки (включительно)
+     */
+    public LocalDateTime getUploadedAfter() {
+        return uploadedAfter;
+    }
+
+    public void setUploadedAfter(LocalDateTime uploadedAfter) {
+        this.uploadedAfter = uploadedAfter;
+    }
+
+    /**
+     * @return верхняя граница даты загрузки (не включительно)
+     */
+    public LocalDateTime getUploadedBefore() {
+        return uploadedBefore;
+    }
+
+    public void setUploadedBefore(LocalDateTime uploadedBefore) {
+        this.uploadedBefore = uploadedBefore;
+    }
+
+    /**
+     * @return минимальный размер в байтах (включительно)
+     */
+    public Long getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(Long minSize) {
+        this.minSize = minSize;
+    }
+
+    /**
+     * @return максимальный размер в байтах (не включительно)
+     */
+    public Long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(Long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return true - только исходные изображения, false - только сжатые варианты, null - все
+     */
+    public Boolean getOriginal() {
+        return original;
+    }
+
+    public void setOriginal(Boolean original) {
+        this.original = original;
+    }
+}
@@ -0,0 +1,53 @@
+package shadowshift.studio.imagestorage.model;
+
+import java.util.List;
+
+/**
+ * Страница списка изображений.
+ * При переходе по курсору общее число элементов не вычисляется и равно null.
+ */
+public class ImagePage {
+
+    private final List<Image> images;
+    private final int page;
+    private final int size;
+    private final Long totalElements;
+    private final Integer totalPages;
+    private final String nextCursor;
+
+    public ImagePage(List<Image> images, int page, int size, Long totalElements, Integer totalPages, String nextCursor) {
+        this.images = images;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Image> getImages() {
+        return images;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    /**
+     * @return курсор следующей страницы или null, если страница последняя
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,46 @@
+package shadowshift.studio.imagestorage.model;
+
+/**
+ * Поля сортировки списка изображений. Для каждого поля есть индекс (поле, id),
+ * по которому выполняется и сортировка, и постраничный переход по курсору.
+ */
+public enum ImageSortField {
+    UPLOADED_AT("uploadedAt"),
+    SIZE("size"),
+    ACCESS_COUNT("accessCount");
+
+    private final String property;
+
+    ImageSortField(String property) {
+        this.property = property;
+    }
+
+    /**
+     * Находит поле по параметру сортировки API (uploadedAt, size, size_asc, size_desc, accessCount, views)
+     * @param sort параметр сортировки или null
+     * @return поле сортировки, по умолчанию дата загрузки
+     */
+    public static ImageSortField fromParam(String sort) {
+        if (sort == null) {
+            return UPLOADED_AT;
+        }
+        switch (sort) {
+            case "size":
+            case "size_asc":
+            case "size_desc":
+                return SIZE;
+            case "accessCount":
+            case "views":
+                return ACCESS_COUNT;
+            default:
+                return UPLOADED_AT;
+        }
+    }
+
+    /**
+     * @return имя свойства сущности
+     */
+    public String getProperty() {
+        return property;
+    }
+}
@@ -0,0 +1,26 @@
+package shadowshift.studio.imagestorage.model;
+
+/**
+ * Использование хранилища пользователем: число изображений и их общий размер
+ */
+public class ImageUsage {
+
+    private final long imageCount;
+    private final long totalSize;
+
+    public ImageUsage(Long imageCount, Long totalSize) {
+        this.imageCount = imageCount != null ? imageCount : 0;
+        this.totalSize = totalSize != null ? totalSize : 0;
+    }
+
+    public long getImageCount() {
+        return imageCount;
+    }
+
+    /**
+     * @return общий размер изображений в байтах
+     */
+    public long getTotalSize() {
+        return totalSize;
+    }
+}
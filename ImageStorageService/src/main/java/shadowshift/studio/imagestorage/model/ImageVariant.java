@@ -0,0 +1,49 @@
+package shadowshift.studio.imagestorage.model;
+
+/**
+ * Варианты представления изображения. Уменьшенные варианты хранятся отдельными объектами
+ * рядом с основным и создаются при загрузке или при первом запросе.
+ */
+public enum ImageVariant {
+    THUMB("thumb"),
+    MOBILE("mobile"),
+    FULL("full");
+
+    private final String name;
+
+    ImageVariant(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Находит вариант по параметру API
+     * @param variant параметр variant или null
+     * @return вариант, по умолчанию полное изображение
+     * @throws IllegalArgumentException если вариант неизвестен
+     */
+    public static ImageVariant fromParam(String variant) {
+        if (variant == null || variant.isEmpty()) {
+            return FULL;
+        }
+        for (ImageVariant value : values()) {
+            if (value.name.equalsIgnoreCase(variant)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown image variant: " + variant);
+    }
+
+    /**
+     * @return имя варианта в API и в именах объектов
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return true, если вариант является уменьшенной копией основного изображения
+     */
+    public boolean isRendition() {
+        return this != FULL;
+    }
+}
@@ -0,0 +1,38 @@
+package shadowshift.studio.imagestorage.model;
+
+/**
+ * Версия объекта изображения в хранилище, используемая для условных запросов и запросов диапазонов.
+ * ETag берется из объекта MinIO и меняется при любой перезаписи данных изображения.
+ */
+public class ImageVersion {
+
+    private final String eTag;
+    private final long lastModified;
+    private final long size;
+
+    /**
+     * @param eTag ETag объекта MinIO, с кавычками или без
+     * @param lastModified время последнего изменения в миллисекундах или -1, если неизвестно
+     * @param size полный размер объекта в байтах
+     */
+    public ImageVersion(String eTag, long lastModified, long size) {
+        this.eTag = eTag != null && !eTag.isEmpty() ? "\"" + eTag.replace("\"", "") + "\"" : null;
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+    /**
+     * @return строгий ETag в кавычках или null, если неизвестен
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,95 @@
+package shadowshift.studio.imagestorage.model.manga;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Манифест главы для читалки: метаданные главы и упорядоченные страницы с размерами
+ * и URL изображений, чтобы клиент мог открыть главу одним запросом
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChapterManifest {
+    private String chapterId;
+    private String volumeId;
+    private double chapterNumber;
+    private String title;
+    private boolean isPublished;
+    private int pageCount;
+    private List<ManifestPage> pages;
+    
+    // Version of the manifest content, sent as the ETag header
+    @JsonIgnore
+    private String eTag;
+
+    public ChapterManifest() {
+        this.pages = new ArrayList<>();
+    }
+
+    // Getters and setters
+    public String getChapterId() {
+        return chapterId;
+    }
+
+    public void setChapterId(String chapterId) {
+        this.chapterId = chapterId;
+    }
+
+    public String getVolumeId() {
+        return volumeId;
+    }
+
+    public void setVolumeId(String volumeId) {
+        this.volumeId = volumeId;
+    }
+
+    public double getChapterNumber() {
+        return chapterNumber;
+    }
+
+    public void setChapterNumber(double chapterNumber) {
+        this.chapterNumber = chapterNumber;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public boolean isPublished() {
+        return isPublished;
+    }
+
+    public void setPublished(boolean published) {
+        isPublished = published;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public List<ManifestPage> getPages() {
+        return pages;
+    }
+
+    public void setPages(List<ManifestPage> pages) {
+        this.pages = pages;
+    }
+
+    @JsonIgnore
+    public String getETag() {
+        return eTag;
+    }
+
+    public void setETag(String eTag) {
+        this.eTag = eTag;
+    }
+}
@@ -0,0 +1,119 @@
+package shadowshift.studio.imagestorage.model.manga;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Map;
+
+/**
+ * Страница в манифесте главы: данные страницы и её изображения вместе с готовыми URL
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ManifestPage {
+    private String id;
+    private int pageNumber;
+    private String imageId;
+    private Integer width;
+    private Integer height;
+    private Long size;
+    private String contentHash;
+    private String url;
+    private Map<String, String> renditions;
+
+    public ManifestPage() {
+    }
+
+    /**
+     * Конструктор для выборки страниц главы вместе с изображениями одним запросом
+     */
+    public ManifestPage(String id, int pageNumber, String imageId, Integer width, Integer height,
+                        Long size, String contentHash) {
+        this.id = id;
+        this.pageNumber = pageNumber;
+        this.imageId = imageId;
+        this.width = width;
+        this.height = height;
+        this.size = size;
+        this.contentHash = contentHash;
+    }
+
+    // Getters and setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    public void setPageNumber(int pageNumber) {
+        this.pageNumber = pageNumber;
+    }
+
+    public String getImageId() {
+        return imageId;
+    }
+
+    public void setImageId(String imageId) {
+        this.imageId = imageId;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    /**
+     * @return размер полного изображения в байтах, null если изображение не найдено
+     */
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * @return URL полного изображения
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    /**
+     * @return URL уменьшенных вариантов изображения по их именам
+     */
+    public Map<String, String> getRenditions() {
+        return renditions;
+    }
+
+    public void setRenditions(Map<String, String> renditions) {
+        this.renditions = renditions;
+    }
+}
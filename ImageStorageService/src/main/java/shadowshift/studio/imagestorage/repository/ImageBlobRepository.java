@@ -0,0 +1,65 @@
+package shadowshift.studio.imagestorage.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import shadowshift.studio.imagestorage.entity.ImageBlobEntity;
+import shadowshift.studio.imagestorage.model.DedupStats;
+
+import java.time.LocalDateTime;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlobEntity, String> {
+    /**
+     * Увеличивает счетчик ссылок на объект атомарным обновлением строки
+     * @param contentHash хэш содержимого
+     * @return 1, если объект существует, иначе 0
+     */
+    @Modifying
+    @Query("UPDATE ImageBlobEntity b SET b.refCount = b.refCount + 1 WHERE b.contentHash = :contentHash")
+    int incrementRefCount(@Param("contentHash") String contentHash);
+    
+    /**
+     * Добавляет запись объекта, если записи с таким хэшем еще нет. Если такую же запись
+     * добавляет незавершенная транзакция, ожидает ее завершения.
+     * @param contentHash хэш содержимого
+     * @param objectName имя объекта
+     * @param size размер объекта
+     * @param refCount начальное число ссылок
+     * @param createdAt время создания
+     * @return 1, если запись добавлена, иначе 0
+     */
+    @Modifying
+    @Query(value = "INSERT INTO image_blobs (content_hash, object_name, size, ref_count, created_at) " +
+                   "VALUES (:contentHash, :objectName, :size, :refCount, :createdAt) " +
+                   "ON CONFLICT (content_hash) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("contentHash") String contentHash, @Param("objectName") String objectName,
+                       @Param("size") long size, @Param("refCount") int refCount,
+                       @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * Уменьшает счетчик ссылок на объект
+     * @param contentHash хэш содержимого
+     * @return 1, если объект существует, иначе 0
+     */
+    @Modifying
+    @Query("UPDATE ImageBlobEntity b SET b.refCount = b.refCount - 1 WHERE b.contentHash = :contentHash")
+    int decrementRefCount(@Param("contentHash") String contentHash);
+    
+    /**
+     * Удаляет запись объекта, на который больше нет ссылок
+     * @param contentHash хэш содержимого
+     * @return 1, если запись удалена, иначе 0
+     */
+    @Modifying
+    @Query("DELETE FROM ImageBlobEntity b WHERE b.contentHash = :contentHash AND b.refCount <= 0")
+    int deleteUnreferenced(@Param("contentHash") String contentHash);
+    
+    /**
+     * Подсчитывает статистику дедупликации одним агрегирующим запросом
+     * @return число объектов, ссылок, хранимый и сэкономленный объем
+     */
+    @Query("SELECT new shadowshift.studio.imagestorage.model.DedupStats(COUNT(b), COALESCE(SUM(b.refCount), 0L), " +
+           "COALESCE(SUM(b.size), 0L), COALESCE(SUM((b.refCount - 1) * b.size), 0L)) FROM ImageBlobEntity b")
+    DedupStats getDedupStats();
+}
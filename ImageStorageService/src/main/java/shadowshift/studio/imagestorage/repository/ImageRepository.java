@@ -1,13 +1,15 @@
 package shadowshift.studio.imagestorage.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import shadowshift.studio.imagestorage.entity.ImageEntity;
+import shadowshift.studio.imagestorage.model.ImageUsage;
 
 import java.util.List;
 
-public interface ImageRepository extends JpaRepository<ImageEntity, String> { 
+public interface ImageRepository extends JpaRepository<ImageEntity, String>, JpaSpecificationExecutor<ImageEntity> {
     /**
      * Подсчитывает количество изображений, принадлежащих указанному пользователю
      * @param userId идентификатор пользователя
@@ -15,6 +17,16 @@ public interface ImageRepository extends JpaRepository<ImageEntity, String> {
      */
     long countByUserId(String userId);
     
+    /**
+     * Подсчитывает число и общий размер изображений пользователя одним агрегирующим запросом
+     * по индексу (user_id, size), без чтения строк изображений
+     * @param userId идентификатор пользователя
+     * @return использование хранилища пользователем
+     */
+    @Query("SELECT new shadowshift.studio.imagestorage.model.ImageUsage(COUNT(i), COALESCE(SUM(i.size), 0L)) " +
+           "FROM ImageEntity i WHERE i.userId = :userId")
+    ImageUsage getUsageByUserId(@Param("userId") String userId);
+    
     /**
      * Находит все оригинальные изображения (не сжатые варианты) пользователя
      * @param userId идентификатор пользователя
@@ -30,4 +42,39 @@ public interface ImageRepository extends JpaRepository<ImageEntity, String> {
      */
     @Query("SELECT i FROM ImageEntity i WHERE i.userId = :userId AND i.originalImageId IS NOT NULL")
     List<ImageEntity> findCompressedImagesByUserId(@Param("userId") String userId);
-}
\ No newline at end of file
+    
+    /**
+     * Находит ID всех изображений с размером в заданном диапазоне
+     * @param minSize минимальный размер в байтах (включительно)
+     * @param maxSize максимальный размер в байтах (не включительно)
+     * @return список ID изображений в порядке загрузки
+     */
+    @Query("SELECT i.id FROM ImageEntity i WHERE i.size >= :minSize AND i.size < :maxSize ORDER BY i.uploadedAt")
+    List<String> findIdsBySizeRange(@Param("minSize") long minSize, @Param("maxSize") long maxSize);
+    
+    /**
+     * Находит ID изображений страниц манги с размером в заданном диапазоне
+     * @param mangaId идентификатор манги
+     * @param minSize минимальный размер в байтах (включительно)
+     * @param maxSize максимальный размер в байтах (не включительно)
+     * @return список ID изображений в порядке томов, глав и страниц
+     */
+    @Query("SELECT i.id FROM PageEntity p JOIN p.chapter c JOIN c.volume v, ImageEntity i " +
+           "WHERE i.id = p.imageId AND v.manga.id = :mangaId AND i.size >= :minSize AND i.size < :maxSize " +
+           "ORDER BY v.volumeNumber, c.chapterNumber, p.pageNumber")
+    List<String> findIdsByMangaIdAndSizeRange(@Param("mangaId") String mangaId,
+                                              @Param("minSize") long minSize, @Param("maxSize") long maxSize);
+    
+    /**
+     * Находит ID изображений страниц главы с размером в заданном диапазоне
+     * @param chapterId идентификатор главы
+     * @param minSize минимальный размер в байтах (включительно)
+     * @param maxSize максимальный размер в байтах (не включительно)
+     * @return список ID изображений в порядке страниц
+     */
+    @Query("SELECT i.id FROM PageEntity p, ImageEntity i " +
+           "WHERE i.id = p.imageId AND p.chapter.id = :chapterId AND i.size >= :minSize AND i.size < :maxSize " +
+           "ORDER BY p.pageNumber")
+    List<String> findIdsByChapterIdAndSizeRange(@Param("chapterId") String chapterId,
+                                                @Param("minSize") long minSize, @Param("maxSize") long maxSize);
+}
@@ -0,0 +1,79 @@
+package shadowshift.studio.imagestorage.repository;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import shadowshift.studio.imagestorage.entity.ImageEntity;
+import shadowshift.studio.imagestorage.model.ImageFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Условия запросов списка изображений
+ */
+public final class ImageSpecifications {
+
+    private ImageSpecifications() {
+    }
+
+    /**
+     * Строит условие по фильтру списка
+     * @param filter фильтр, пустые условия пропускаются
+     * @return условие запроса
+     */
+    public static Specification<ImageEntity> matching(ImageFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getSearch() != null && !filter.getSearch().isBlank()) {
+                String pattern = "%" + filter.getSearch().toLowerCase()
+                        .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+                predicates.add(cb.like(cb.lower(root.get("originalFilename")), pattern, '\\'));
+            }
+            if (filter.getUploadedAfter() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("uploadedAt"), filter.getUploadedAfter()));
+            }
+            if (filter.getUploadedBefore() != null) {
+                predicates.add(cb.lessThan(root.get("uploadedAt"), filter.getUploadedBefore()));
+            }
+            if (filter.getMinSize() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("size"), filter.getMinSize()));
+            }
+            if (filter.getMaxSize() != null) {
+                predicates.add(cb.lessThan(root.get("size"), filter.getMaxSize()));
+            }
+            if (filter.getOriginal() != null) {
+                predicates.add(filter.getOriginal()
+                        ? cb.isNull(root.get("originalImageId"))
+                        : cb.isNotNull(root.get("originalImageId")));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Строит условие keyset-пагинации: строки строго после (value, id) в порядке сортировки.
+     * Идентификатор разрешает совпадения значения сортировки, поэтому порядок однозначен.
+     * @param property свойство сортировки
+     * @param direction направление сортировки
+     * @param value значение свойства последней строки предыдущей страницы
+     * @param id идентификатор последней строки предыдущей страницы
+     * @return условие запроса
+     */
+    public static <T extends Comparable<? super T>> Specification<ImageEntity> after(
+            String property, Sort.Direction direction, T value, String id) {
+        return (root, query, cb) -> {
+            Path<T> path = root.get(property);
+            Path<String> idPath = root.get("id");
+            if (direction.isAscending()) {
+                return cb.or(cb.greaterThan(path, value),
+                        cb.and(cb.equal(path, value), cb.greaterThan(idPath, id)));
+            }
+            return cb.or(cb.lessThan(path, value),
+                    cb.and(cb.equal(path, value), cb.lessThan(idPath, id)));
+        };
+    }
+}
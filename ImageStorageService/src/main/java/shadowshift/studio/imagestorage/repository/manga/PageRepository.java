@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import shadowshift.studio.imagestorage.entity.manga.PageEntity;
+import shadowshift.studio.imagestorage.model.manga.ManifestPage;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,4 +28,10 @@ public interface PageRepository extends JpaRepository<PageEntity, String> {
     long countByVolumeId(String volumeId);
     
     long countByChapterId(String chapterId);
+    
+    @Query("SELECT new shadowshift.studio.imagestorage.model.manga.ManifestPage("
+            + "p.id, p.pageNumber, p.imageId, i.width, i.height, i.size, i.contentHash) "
+            + "FROM PageEntity p LEFT JOIN ImageEntity i ON i.id = p.imageId "
+            + "WHERE p.chapter.id = :chapterId ORDER BY p.pageNumber")
+    List<ManifestPage> findManifestPages(String chapterId);
 }
\ No newline at end of file
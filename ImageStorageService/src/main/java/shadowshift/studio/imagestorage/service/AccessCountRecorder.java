@@ -0,0 +1,93 @@
+package shadowshift.studio.imagestorage.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts image accesses in memory and writes them to the database in periodic batches.
+ * Reads only bump a striped counter, so viewing an image does not write to its row;
+ * each flush adds the accumulated counts with one batched UPDATE.
+ * Counters idle for a whole interval are dropped; the drop only happens while the counter is
+ * still zero, and an increment that lands on an already dropped counter is moved to a new one.
+ */
+@Component
+public class AccessCountRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessCountRecorder.class);
+    private static final String INCREMENT_SQL = "UPDATE images SET access_count = access_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AccessCountRecorder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Record one access to an image
+     *
+     * @param imageId image ID
+     */
+    public void record(String imageId) {
+        LongAdder counter = pending.get(imageId);
+        if (counter == null) {
+            counter = pending.computeIfAbsent(imageId, id -> new LongAdder());
+        }
+        counter.increment();
+        if (pending.get(imageId) != counter) {
+            // The counter was dropped as idle meanwhile, carry the increment over to a live one
+            long orphaned = counter.sumThenReset();
+            if (orphaned > 0) {
+                pending.computeIfAbsent(imageId, id -> new LongAdder()).add(orphaned);
+            }
+        }
+    }
+
+    /**
+     * Write accumulated access counts to the database
+     */
+    @Scheduled(fixedDelayString = "${image.access-count.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> increments = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                increments.add(new Object[]{count, entry.getKey()});
+            } else {
+                pending.computeIfPresent(entry.getKey(), (id, counter) -> counter.sum() == 0 ? null : counter);
+            }
+        }
+
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, increments);
+            logger.debug("Flushed access counts for {} images", increments.size());
+        } catch (Exception e) {
+            // Keep the counts for the next flush
+            logger.error("Failed to flush access counts for {} images", increments.size(), e);
+            for (Object[] increment : increments) {
+                pending.computeIfAbsent((String) increment[1], id -> new LongAdder()).add((Long) increment[0]);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,158 @@
+package shadowshift.studio.imagestorage.service;
+
+import io.minio.BucketExistsArgs;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.SetBucketLifecycleArgs;
+import io.minio.http.Method;
+import io.minio.messages.Expiration;
+import io.minio.messages.LifecycleConfiguration;
+import io.minio.messages.LifecycleRule;
+import io.minio.messages.RuleFilter;
+import io.minio.messages.Status;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claim-check transfer of image data between the services.
+ * Instead of image bytes, messages carry presigned MinIO URLs: one to download the current
+ * object and one to upload the result into a staging bucket, from which the storage service
+ * copies it into place. Staging objects that are never committed expire by a lifecycle rule.
+ */
+@Service
+public class ClaimCheckService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClaimCheckService.class);
+
+    private final MinioClient minioClient;
+
+    @Value("${minio.bucket:images}")
+    private String bucketName;
+
+    @Value("${minio.staging.bucket:image-staging}")
+    private String stagingBucketName;
+
+    @Value("${messaging.claim-check.enabled:true}")
+    private boolean enabled;
+
+    @Value("${messaging.claim-check.threshold-bytes:262144}")
+    private long thresholdBytes;
+
+    @Value("${messaging.claim-check.url-expiry-seconds:300}")
+    private int urlExpirySeconds;
+
+    @Value("${messaging.claim-check.staging-expiry-days:1}")
+    private int stagingExpiryDays;
+
+    @Autowired
+    public ClaimCheckService(MinioClient minioClient) {
+        this.minioClient = minioClient;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            logger.info("Claim-check transfer is disabled, image data is sent through the message broker");
+            return;
+        }
+
+        try {
+            boolean stagingBucketExists = minioClient.bucketExists(
+                    BucketExistsArgs.builder().bucket(stagingBucketName).build()
+            );
+
+            if (!stagingBucketExists) {
+                minioClient.makeBucket(
+                        MakeBucketArgs.builder().bucket(stagingBucketName).build()
+                );
+                logger.info("Created new staging bucket: {}", stagingBucketName);
+            }
+
+            LifecycleRule expireStaged = new LifecycleRule(Status.ENABLED, null,
+                    new Expiration((ZonedDateTime) null, stagingExpiryDays, null),
+                    new RuleFilter(""), "expire-staged-uploads", null, null, null);
+            minioClient.setBucketLifecycle(
+                    SetBucketLifecycleArgs.builder()
+                            .bucket(stagingBucketName)
+                            .config(new LifecycleConfiguration(List.of(expireStaged)))
+                            .build()
+            );
+        } catch (Exception e) {
+            logger.error("Failed to initialize staging bucket: {}", stagingBucketName, e);
+        }
+    }
+
+    /**
+     * Check whether an image should be transferred by reference instead of in the message body
+     *
+     * @param size image size in bytes
+     * @return true if claim-check transfer should be used
+     */
+    public boolean shouldUseClaimCheck(long size) {
+        return enabled && size >= thresholdBytes;
+    }
+
+    /**
+     * Create a presigned URL to download an image object
+     *
+     * @param objectName name of the object in the image bucket
+     * @return presigned GET URL
+     * @throws IOException if the URL cannot be created
+     */
+    public String createDownloadUrl(String objectName) throws IOException {
+        return presign(Method.GET, bucketName, objectName);
+    }
+
+    /**
+     * Create a staging key for an upload of new image data
+     *
+     * @param imageId image ID
+     * @return object name in the staging bucket
+     */
+    public String createStagingKey(String imageId) {
+        return imageId + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Create a presigned URL to upload new image data into the staging bucket
+     *
+     * @param stagingKey object name in the staging bucket
+     * @return presigned PUT URL
+     * @throws IOException if the URL cannot be created
+     */
+    public String createUploadUrl(String stagingKey) throws IOException {
+        return presign(Method.PUT, stagingBucketName, stagingKey);
+    }
+
+    /**
+     * Returns the bucket staged uploads are written to
+     */
+    public String getStagingBucketName() {
+        return stagingBucketName;
+    }
+
+    private String presign(Method method, String bucket, String objectName) throws IOException {
+        try {
+            return minioClient.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(method)
+                            .bucket(bucket)
+                            .object(objectName)
+                            .expiry(urlExpirySeconds)
+                            .build()
+            );
+        } catch (Exception e) {
+            throw new IOException("Failed to create presigned URL: " + e.getMessage(), e);
+        }
+    }
+}
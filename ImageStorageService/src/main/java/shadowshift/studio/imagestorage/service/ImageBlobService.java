@@ -0,0 +1,146 @@
+package shadowshift.studio.imagestorage.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import shadowshift.studio.imagestorage.entity.ImageBlobEntity;
+import shadowshift.studio.imagestorage.model.DedupStats;
+import shadowshift.studio.imagestorage.repository.ImageBlobRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Reference counting of content-addressed image objects.
+ * Uploads with identical source data share one stored object, named by the SHA-256 of the
+ * source, so a repeated upload skips both the WebP conversion and the MinIO write.
+ * Shared objects are never modified in place: an image that is compressed moves to an
+ * object of its own and drops its reference.
+ */
+@Service
+public class ImageBlobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBlobService.class);
+    private static final String OBJECT_PREFIX = "sha256_";
+
+    private final ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    public ImageBlobService(ImageBlobRepository imageBlobRepository) {
+        this.imageBlobRepository = imageBlobRepository;
+    }
+
+    /**
+     * Compute the content hash of an uploaded file, reading it through a fixed-size buffer
+     *
+     * @param file source image file
+     * @return hex encoded SHA-256
+     * @throws IOException if the file cannot be read
+     */
+    public String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns the object name for content with the given hash
+     */
+    public String objectName(String contentHash) {
+        return OBJECT_PREFIX + contentHash + ".webp";
+    }
+
+    /**
+     * Add a reference to stored content
+     *
+     * @param contentHash content hash
+     * @return the blob, or null if no content with this hash is stored
+     */
+    @Transactional
+    public ImageBlobEntity acquire(String contentHash) {
+        if (imageBlobRepository.incrementRefCount(contentHash) == 0) {
+            return null;
+        }
+        return imageBlobRepository.findById(contentHash).orElse(null);
+    }
+
+    /**
+     * Record content with a single reference in the caller's transaction, before its object is
+     * written. The new row stays locked until the transaction ends, so a concurrent upload of the
+     * same content waits here and then references this content instead of writing it again.
+     *
+     * @param contentHash content hash
+     * @param objectName name of the object to store
+     * @param size size of the object to store
+     * @return false if the same content is already registered
+     */
+    @Transactional
+    public boolean register(String contentHash, String objectName, long size) {
+        if (imageBlobRepository.insertIfAbsent(contentHash, objectName, size, 1, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        logger.debug("Registered content: hash={}, object={}, size={}", contentHash, objectName, size);
+        return true;
+    }
+
+    /**
+     * Remove the objects of content whose registration was rolled back. The hash is claimed with
+     * an unreferenced row while the objects are removed, so an upload of the same content that
+     * registers meanwhile waits and writes its objects afterwards. Nothing is removed if the
+     * content has been registered by another upload.
+     *
+     * @param contentHash content hash
+     * @param objectName name of the stored object
+     * @param size size of the stored object
+     * @param removeObjects removes the stored objects
+     * @return true if the objects were removed
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean discard(String contentHash, String objectName, long size, Runnable removeObjects) {
+        if (imageBlobRepository.insertIfAbsent(contentHash, objectName, size, 0, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        removeObjects.run();
+        imageBlobRepository.deleteUnreferenced(contentHash);
+        logger.debug("Discarded content of a rolled back upload: hash={}, object={}", contentHash, objectName);
+        return true;
+    }
+
+    /**
+     * Drop a reference to stored content
+     *
+     * @param contentHash content hash
+     * @return true if this was the last reference and the stored objects can be removed
+     */
+    @Transactional
+    public boolean release(String contentHash) {
+        imageBlobRepository.decrementRefCount(contentHash);
+        return imageBlobRepository.deleteUnreferenced(contentHash) > 0;
+    }
+
+    /**
+     * Returns deduplication statistics of the stored content
+     */
+    @Transactional(readOnly = true)
+    public DedupStats getStats() {
+        return imageBlobRepository.getDedupStats();
+    }
+}
@@ -0,0 +1,220 @@
+package shadowshift.studio.imagestorage.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import shadowshift.studio.imagestorage.model.ImageContent;
+import shadowshift.studio.imagestorage.model.ImageVersion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+/**
+ * Byte-budgeted cache of hot image data in front of MinIO.
+ * Admission and eviction follow Caffeine's W-TinyLFU policy, so one-off reads (e.g. images
+ * fetched for compression) do not displace frequently viewed pages and covers.
+ * Data can be kept on the heap or in direct buffers outside of it.
+ */
+@Component
+public class ImageDataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDataCache.class);
+
+    private final Cache<String, CachedImage> cache;
+    private final boolean enabled;
+    private final boolean offHeap;
+    private final long maxObjectBytes;
+
+    /**
+     * Loads a whole image object for caching
+     */
+    @FunctionalInterface
+    public interface Loader {
+        CachedImage load() throws IOException;
+    }
+
+    @Autowired
+    public ImageDataCache(MeterRegistry meterRegistry,
+                          @Value("${image.cache.enabled:true}") boolean enabled,
+                          @Value("${image.cache.max-bytes:268435456}") long maxBytes,
+                          @Value("${image.cache.max-object-bytes:4194304}") long maxObjectBytes,
+                          @Value("${image.cache.off-heap:false}") boolean offHeap,
+                          @Value("${image.cache.expire-after-access-minutes:60}") long expireAfterAccessMinutes) {
+        this.enabled = enabled;
+        this.offHeap = offHeap;
+        this.maxObjectBytes = maxObjectBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(enabled ? maxBytes : 0)
+                .weigher((String id, CachedImage image) -> image.getSize())
+                .expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "image.data");
+        Gauge.builder("image.cache.resident.bytes", cache,
+                        c -> c.policy().eviction()
+                                .map(eviction -> eviction.weightedSize().orElse(0L))
+                                .orElse(0L))
+                .description("Bytes of image data held in the cache")
+                .baseUnit("bytes")
+                .tag("storage", offHeap ? "off-heap" : "heap")
+                .register(meterRegistry);
+        Gauge.builder("image.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of image reads served from the cache")
+                .register(meterRegistry);
+
+        logger.info("Image data cache initialized: enabled={}, maxBytes={}, maxObjectBytes={}, offHeap={}",
+                enabled, maxBytes, maxObjectBytes, offHeap);
+    }
+
+    /**
+     * Check whether an image of the given size may be cached
+     *
+     * @param size image size in bytes
+     * @return true if the image fits into the cache
+     */
+    public boolean isCacheable(long size) {
+        return enabled && size > 0 && size <= maxObjectBytes;
+    }
+
+    /**
+     * Get a cached image or load it. Concurrent reads of the same missing image share one load.
+     *
+     * @param id image ID
+     * @param loader loads the whole image object
+     * @return cached image
+     * @throws IOException if loading fails
+     */
+    public CachedImage get(String id, Loader loader) throws IOException {
+        try {
+            return cache.get(id, key -> {
+                try {
+                    return loader.load();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Get a cached image without loading it and without counting a hit or miss
+     *
+     * @param id image ID
+     * @return cached image or null
+     */
+    public CachedImage peek(String id) {
+        return cache.policy().getIfPresentQuietly(id);
+    }
+
+    /**
+     * Drop an image whose object was rewritten or deleted.
+     * Waits for an in-flight load of the same image, so stale data cannot be cached afterwards.
+     *
+     * @param id image ID
+     */
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Wrap loaded image data for the configured storage
+     *
+     * @param data image data
+     * @param contentType content type of the image
+     * @param version version of the object the data was read from
+     * @return cache entry
+     */
+    public CachedImage wrap(byte[] data, String contentType, ImageVersion version) {
+        ByteBuffer buffer;
+        if (offHeap) {
+            // Direct memory is released when the evicted buffer is garbage collected
+            buffer = ByteBuffer.allocateDirect(data.length).put(data).flip();
+        } else {
+            buffer = ByteBuffer.wrap(data);
+        }
+        return new CachedImage(buffer.asReadOnlyBuffer(), contentType, version);
+    }
+
+    /**
+     * Image data held in the cache
+     */
+    public static class CachedImage {
+
+        private final ByteBuffer data;
+        private final String contentType;
+        private final ImageVersion version;
+
+        private CachedImage(ByteBuffer data, String contentType, ImageVersion version) {
+            this.data = data;
+            this.contentType = contentType;
+            this.version = version;
+        }
+
+        public int getSize() {
+            return data.remaining();
+        }
+
+        public ImageVersion getVersion() {
+            return version;
+        }
+
+        /**
+         * Open a byte range of the cached data as content
+         *
+         * @param offset first byte to read
+         * @param length number of bytes to read, or -1 to read to the end
+         * @return content reading the cached data
+         */
+        public ImageContent open(long offset, long length) {
+            int start = (int) Math.min(offset, data.remaining());
+            int count = length < 0 ? data.remaining() - start : (int) Math.min(length, data.remaining() - start);
+            ByteBuffer slice = data.slice(start, count);
+            return new ImageContent(new BufferInputStream(slice), count, contentType, version);
+        }
+    }
+
+    private static class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
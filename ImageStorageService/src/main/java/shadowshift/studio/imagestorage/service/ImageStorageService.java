@@ -1,10 +1,21 @@
 package shadowshift.studio.imagestorage.service;
 
+import org.springframework.data.domain.Sort;
 import org.springframework.web.multipart.MultipartFile;
+import shadowshift.studio.imagestorage.model.DedupStats;
 import shadowshift.studio.imagestorage.model.Image;
+import shadowshift.studio.imagestorage.model.ImageContent;
+import shadowshift.studio.imagestorage.model.ImageFilter;
+import shadowshift.studio.imagestorage.model.ImagePage;
+import shadowshift.studio.imagestorage.model.ImageSortField;
+import shadowshift.studio.imagestorage.model.ImageUsage;
+import shadowshift.studio.imagestorage.model.ImageVariant;
+import shadowshift.studio.imagestorage.model.ImageVersion;
 import shadowshift.studio.imagestorage.model.UserInfo;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 
 public interface ImageStorageService {
@@ -30,6 +41,18 @@ public interface ImageStorageService {
         return storeImage(file, null, null, null);
     }
 
+    /**
+     * Saves an image from a local file, such as a page extracted from an archive.
+     * The file is taken over by the storage and deleted once it has been stored.
+     * 
+     * @param file image file
+     * @param originalFilename original name of the image
+     * @param userId ID of the uploading user, or null
+     * @return image metadata object
+     * @throws IOException if the file is rejected or cannot be stored
+     */
+    Image storeImage(Path file, String originalFilename, String userId) throws IOException;
+
     /**
      * Saves a compressed image to storage
      * 
@@ -52,6 +75,18 @@ public interface ImageStorageService {
      */
     Image updateImageCompression(String imageId, byte[] imageData, int compressionLevel) throws IOException;
 
+    /**
+     * Updates an existing image with data uploaded to the staging bucket.
+     * The staged object is copied into place and removed.
+     * 
+     * @param imageId image ID to update
+     * @param stagingKey object name of the uploaded data in the staging bucket
+     * @param compressionLevel new compression level
+     * @return updated image metadata object
+     * @throws IOException if the staged object is missing or the copy fails
+     */
+    Image updateImageCompressionFromStaging(String imageId, String stagingKey, int compressionLevel) throws IOException;
+
     /**
      * Gets image data by ID
      * 
@@ -60,6 +95,52 @@ public interface ImageStorageService {
      * @throws IOException if file operation fails
      */
     byte[] getImage(String id) throws IOException;
+
+    /**
+     * Opens image data by ID as a stream without loading it into memory.
+     * Counts as an access to the image, like {@link #getImage(String)}.
+     * The caller must close the returned content.
+     * 
+     * @param id image ID
+     * @return open image content or null if image not found
+     * @throws IOException if the object cannot be opened
+     */
+    default ImageContent openImage(String id) throws IOException {
+        return openImage(id, 0, -1);
+    }
+
+    /**
+     * Opens a byte range of image data by ID as a stream.
+     * Counts as an access to the image. The caller must close the returned content.
+     * 
+     * @param id image ID
+     * @param offset first byte to read
+     * @param length number of bytes to read, or -1 to read to the end of the object
+     * @return open image content or null if image not found
+     * @throws IOException if the object cannot be opened
+     */
+    ImageContent openImage(String id, long offset, long length) throws IOException;
+
+    /**
+     * Opens a rendition of an image, such as a thumbnail, as a stream. A missing rendition is
+     * generated first; if that fails, the full image is returned instead. Renditions are not
+     * counted as accesses to the image. The caller must close the returned content.
+     * 
+     * @param id image ID
+     * @param variant rendition, {@link ImageVariant#FULL} is the same as {@link #openImage(String)}
+     * @return open rendition content or null if image not found
+     * @throws IOException if the object cannot be opened
+     */
+    ImageContent openImageVariant(String id, ImageVariant variant) throws IOException;
+
+    /**
+     * Gets the current version of the image object without reading its data
+     * 
+     * @param id image ID
+     * @return object version or null if image not found
+     * @throws IOException if the object cannot be inspected
+     */
+    ImageVersion getImageVersion(String id) throws IOException;
     
     /**
      * Gets the original backup of an image
@@ -85,6 +166,51 @@ public interface ImageStorageService {
      * @return map where key is image ID and value is image metadata
      */
     Map<String, Image> getAllImageMetadata();
+
+    /**
+     * Gets the number and total size of a user's images with a single aggregate query
+     * 
+     * @param userId user ID
+     * @return storage usage of the user
+     */
+    ImageUsage getUserUsage(String userId);
+
+    /**
+     * Gets content deduplication statistics. Identical uploads share one image object and
+     * one backup object, so the figures apply to the image bucket and the backup bucket alike.
+     * 
+     * @return deduplication statistics of the stored content
+     */
+    DedupStats getDedupStats();
+
+    /**
+     * Finds a page of image metadata. Filtering, sorting and paging are done by the database.
+     * Without a cursor the page number is used; with a cursor from a previous page the next
+     * rows are read by keyset, which costs the same for any depth and skips the total count.
+     * 
+     * @param filter filter conditions
+     * @param sortField sort field
+     * @param direction sort direction
+     * @param cursor cursor of the next page from a previous result, or null
+     * @param page page number (0-based), used without a cursor
+     * @param size page size
+     * @return page of image metadata
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another sort order
+     */
+    ImagePage findImages(ImageFilter filter, ImageSortField sortField, Sort.Direction direction,
+                         String cursor, int page, int size);
+    
+    /**
+     * Finds IDs of images matching a filter, used to select images for batch processing.
+     * A chapter filter takes precedence over a manga filter; without both all images are matched.
+     * 
+     * @param mangaId manga ID or null
+     * @param chapterId chapter ID or null
+     * @param minSize minimal image size in bytes (inclusive)
+     * @param maxSize maximal image size in bytes (exclusive)
+     * @return list of image IDs
+     */
+    List<String> findImageIds(String mangaId, String chapterId, long minSize, long maxSize);
     
     /**
      * Deletes an image from storage by ID
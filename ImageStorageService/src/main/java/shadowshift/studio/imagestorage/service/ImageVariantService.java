@@ -0,0 +1,286 @@
+package shadowshift.studio.imagestorage.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.minio.CopyObjectArgs;
+import io.minio.CopySource;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectArgs;
+import io.minio.UploadObjectArgs;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import shadowshift.studio.imagecodec.ImageCodec;
+import shadowshift.studio.imagecodec.ImageSize;
+import shadowshift.studio.imagecodec.webp.WebpOptions;
+import shadowshift.studio.imagestorage.model.ImageVariant;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downscaled renditions of stored images, such as thumbnails for catalogue grids.
+ * Renditions are sibling objects under variants/{name}/ in the image bucket, keyed by the
+ * image's object name, so images sharing deduplicated content share their renditions too.
+ * They are generated in the background when an image is uploaded and, if still missing,
+ * on first request, with concurrent requests for the same rendition waiting for one generation.
+ * Images not wider than a rendition are copied as they are, they are never upscaled.
+ * Generation has its own small concurrency limit, so renditions take only a few slots of the
+ * shared WebP encoder and never crowd out uploads. A failed generation is remembered for a
+ * short time instead of being retried by every request.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+    private static final String WEBP_CONTENT_TYPE = "image/webp";
+    private static final String VARIANT_PREFIX = "variants/";
+
+    private final MinioClient minioClient;
+    private final ImageCodec imageCodec;
+    private final Map<ImageVariant, Integer> widths = new EnumMap<>(ImageVariant.class);
+    private final int quality;
+    private final boolean generateOnUpload;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore encodeSlots;
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> failures;
+
+    @Value("${minio.bucket:images}")
+    private String bucketName;
+
+    @Autowired
+    public ImageVariantService(MinioClient minioClient, ImageCodec imageCodec,
+                               @Value("${image.variants.thumb-width:320}") int thumbWidth,
+                               @Value("${image.variants.mobile-width:800}") int mobileWidth,
+                               @Value("${image.variants.quality:80}") int quality,
+                               @Value("${image.variants.generate-on-upload:true}") boolean generateOnUpload,
+                               @Value("${image.variants.concurrency:2}") int concurrency,
+                               @Value("${image.variants.queue-capacity:256}") int queueCapacity,
+                               @Value("${image.variants.failure-ttl-seconds:60}") long failureTtlSeconds) {
+        this.minioClient = minioClient;
+        this.imageCodec = imageCodec;
+        this.widths.put(ImageVariant.THUMB, thumbWidth);
+        this.widths.put(ImageVariant.MOBILE, mobileWidth);
+        this.quality = quality;
+        this.generateOnUpload = generateOnUpload;
+        int threads = Math.max(1, concurrency);
+        this.encodeSlots = new Semaphore(threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.failures = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(failureTtlSeconds))
+                .maximumSize(10_000)
+                .build();
+        logger.info("Image variants initialized: widths={}, quality={}, generateOnUpload={}, concurrency={}",
+                widths, quality, generateOnUpload, threads);
+    }
+
+    /**
+     * Returns the object name of a rendition
+     *
+     * @param objectName object name of the full image
+     * @param variant rendition
+     * @return object name of the rendition in the image bucket
+     */
+    public String objectName(String objectName, ImageVariant variant) {
+        return VARIANT_PREFIX + variant.getName() + "/" + objectName;
+    }
+
+    /**
+     * Generate all renditions of a newly stored image in the background, without waiting for them.
+     * Each rendition is a task of its own, so renditions of one image are encoded in parallel
+     * within the encoder slots. Renditions that fail here, or that are skipped because
+     * the generation queue is full, are generated on first request.
+     *
+     * @param objectName object name of the stored full image
+     * @param sourceFile uploaded source file of the image, deleted once all renditions are done
+     */
+    public void generateAsync(String objectName, Path sourceFile) {
+        if (!generateOnUpload) {
+            deleteQuietly(sourceFile);
+            return;
+        }
+        AtomicInteger remaining = new AtomicInteger(widths.size());
+        for (ImageVariant variant : widths.keySet()) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        generate(objectName, variant, sourceFile);
+                    } catch (Exception e) {
+                        logger.warn("Failed to generate {} rendition of {}: {}", variant.getName(), objectName, e.getMessage());
+                    } finally {
+                        releaseSource(remaining, sourceFile);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                logger.debug("Rendition queue is full, {} rendition of {} is generated on first request",
+                        variant.getName(), objectName);
+                releaseSource(remaining, sourceFile);
+            }
+        }
+    }
+
+    /**
+     * Generate a missing rendition from the stored full image. Concurrent calls for the same
+     * rendition wait for a single generation instead of each reading and encoding the image.
+     *
+     * @param objectName object name of the full image
+     * @param variant rendition
+     * @return true if the rendition object exists afterwards
+     */
+    public boolean ensureRendition(String objectName, ImageVariant variant) {
+        if (!widths.containsKey(variant)) {
+            return false;
+        }
+
+        String key = objectName(objectName, variant);
+        if (failures.getIfPresent(key) != null) {
+            return false;
+        }
+        CompletableFuture<Boolean> generation = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.putIfAbsent(key, generation);
+        if (running != null) {
+            return running.join();
+        }
+
+        Path sourceFile = null;
+        try {
+            sourceFile = download(objectName);
+            generate(objectName, variant, sourceFile);
+            generation.complete(true);
+        } catch (Exception e) {
+            logger.warn("Failed to generate {} rendition of {}: {}", variant.getName(), objectName, e.getMessage());
+            failures.put(key, Boolean.TRUE);
+            generation.complete(false);
+        } finally {
+            inFlight.remove(key, generation);
+            deleteQuietly(sourceFile);
+        }
+        return generation.join();
+    }
+
+    /**
+     * Remove all renditions of an image, missing ones are ignored
+     *
+     * @param objectName object name of the full image
+     */
+    public void remove(String objectName) {
+        for (ImageVariant variant : widths.keySet()) {
+            try {
+                minioClient.removeObject(
+                        RemoveObjectArgs.builder()
+                                .bucket(bucketName)
+                                .object(objectName(objectName, variant))
+                                .build()
+                );
+            } catch (Exception e) {
+                logger.warn("Failed to remove {} rendition of {}: {}", variant.getName(), objectName, e.getMessage());
+            }
+        }
+    }
+
+    private void generate(String objectName, ImageVariant variant, Path sourceFile) throws Exception {
+        int width = widths.get(variant);
+        String renditionName = objectName(objectName, variant);
+        ImageSize size = ImageSize.read(sourceFile);
+
+        if (!imageCodec.canEncode(sourceFile) || (size != null && size.getWidth() <= width)) {
+            // Nothing to downscale: the rendition is a server-side copy of the full image
+            minioClient.copyObject(
+                    CopyObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(renditionName)
+                            .source(CopySource.builder()
+                                    .bucket(bucketName)
+                                    .object(objectName)
+                                    .build())
+                            .build()
+            );
+            logger.debug("Copied {} rendition of {}, image size: {}", variant.getName(), objectName, size);
+            return;
+        }
+
+        Path renditionFile = Files.createTempFile("rendition_", ".webp");
+        try {
+            encodeSlots.acquire();
+            try {
+                imageCodec.encodeWebp(sourceFile, renditionFile, new WebpOptions(quality).withResize(width, 0));
+            } finally {
+                encodeSlots.release();
+            }
+            minioClient.uploadObject(
+                    UploadObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(renditionName)
+                            .contentType(WEBP_CONTENT_TYPE)
+                            .filename(renditionFile.toString())
+                            .build()
+            );
+            logger.debug("Generated {} rendition of {}: {} -> width {}, {} bytes",
+                    variant.getName(), objectName, size, width, Files.size(renditionFile));
+        } finally {
+            deleteQuietly(renditionFile);
+        }
+    }
+
+    private Path download(String objectName) throws Exception {
+        Path file = Files.createTempFile("rendition_source_", ".bin");
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .build())) {
+            Files.copy(response, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (Exception e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private static void releaseSource(AtomicInteger remaining, Path sourceFile) {
+        if (remaining.decrementAndGet() == 0) {
+            deleteQuietly(sourceFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary file {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
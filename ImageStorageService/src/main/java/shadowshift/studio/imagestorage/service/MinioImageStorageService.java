@@ -1,30 +1,55 @@
 package shadowshift.studio.imagestorage.service;
 
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
 import io.minio.messages.Item;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
+import shadowshift.studio.imagecodec.ImageSize;
+import shadowshift.studio.imagestorage.entity.ImageBlobEntity;
 import shadowshift.studio.imagestorage.entity.ImageEntity;
 import shadowshift.studio.imagestorage.exception.FileSizeLimitException;
 import shadowshift.studio.imagestorage.exception.UserQuotaExceededException;
 import shadowshift.studio.imagestorage.mapper.ImageMapper;
+import shadowshift.studio.imagestorage.model.DedupStats;
 import shadowshift.studio.imagestorage.model.Image;
+import shadowshift.studio.imagestorage.model.ImageContent;
+import shadowshift.studio.imagestorage.model.ImageFilter;
+import shadowshift.studio.imagestorage.model.ImagePage;
+import shadowshift.studio.imagestorage.model.ImageSortField;
+import shadowshift.studio.imagestorage.model.ImageUsage;
+import shadowshift.studio.imagestorage.model.ImageVariant;
+import shadowshift.studio.imagestorage.model.ImageVersion;
 import shadowshift.studio.imagestorage.model.UserInfo;
 import shadowshift.studio.imagestorage.repository.ImageRepository;
+import shadowshift.studio.imagestorage.repository.ImageSpecifications;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -39,10 +64,15 @@ public class MinioImageStorageService implements ImageStorageService {
     private static final String BACKUP_PREFIX = "backup_";
 
     private final MinioClient minioClient;
+    private final MinioAsyncClient minioAsyncClient;
     private final ImageRepository imageRepository;
     private final ImageMapper imageMapper;
     private final WebImageProcessor imageProcessor;
     private final SystemSettingsValidator settingsValidator;
+    private final ImageDataCache imageDataCache;
+    private final AccessCountRecorder accessCountRecorder;
+    private final ImageBlobService imageBlobService;
+    private final ImageVariantService imageVariantService;
 
     @Value("${minio.bucket:images}")
     private String bucketName;
@@ -50,15 +80,29 @@ public class MinioImageStorageService implements ImageStorageService {
     @Value("${minio.backup.bucket:image-backups}")
     private String backupBucketName;
 
+    @Value("${minio.staging.bucket:image-staging}")
+    private String stagingBucketName;
+
+    @Value("${minio.upload.part-size-bytes:5242880}")
+    private long uploadPartSize;
+
     @Autowired
-    public MinioImageStorageService(MinioClient minioClient, ImageRepository imageRepository,
+    public MinioImageStorageService(MinioClient minioClient, MinioAsyncClient minioAsyncClient,
+                                   ImageRepository imageRepository,
                                    ImageMapper imageMapper, WebImageProcessor imageProcessor,
-                                   SystemSettingsValidator settingsValidator) {
+                                   SystemSettingsValidator settingsValidator, ImageDataCache imageDataCache,
+                                   AccessCountRecorder accessCountRecorder, ImageBlobService imageBlobService,
+                                   ImageVariantService imageVariantService) {
         this.minioClient = minioClient;
+        this.minioAsyncClient = minioAsyncClient;
         this.imageRepository = imageRepository;
         this.imageMapper = imageMapper;
         this.imageProcessor = imageProcessor;
         this.settingsValidator = settingsValidator;
+        this.imageDataCache = imageDataCache;
+        this.accessCountRecorder = accessCountRecorder;
+        this.imageBlobService = imageBlobService;
+        this.imageVariantService = imageVariantService;
     }
 
     @PostConstruct
@@ -169,6 +213,7 @@ public class MinioImageStorageService implements ImageStorageService {
     @Override
     @Transactional
     public Image storeImage(MultipartFile file, String userInfo, String role, String userId) throws IOException {
+        Path upload = null;
         try {
             // Проверка размера файла согласно настройкам
             settingsValidator.validateFileSize(file);
@@ -185,19 +230,70 @@ public class MinioImageStorageService implements ImageStorageService {
                 settingsValidator.validateUserQuota(username, userRole, userImagesCount);
             }
             
-            byte[] imageData = file.getBytes();
+            // Загрузка обрабатывается через временные файлы, а не массив байт в памяти
+            upload = Files.createTempFile("upload_", ".bin");
+            file.transferTo(upload);
+        } catch (FileSizeLimitException | UserQuotaExceededException e) {
+            logger.warn("Failed to store image: {}", e.getMessage());
+            throw new IOException(e.getMessage(), e);
+        } catch (IOException e) {
+            deleteQuietly(upload);
+            throw e;
+        }
+        return storeUpload(upload, file.getOriginalFilename(), file.getContentType(), userId);
+    }
 
-            if (!imageProcessor.isSupportedFormat(imageData)) {
-                throw new IOException("Unsupported image format: " + file.getContentType());
-            }
+    @Override
+    @Transactional
+    public Image storeImage(Path file, String originalFilename, String userId) throws IOException {
+        try {
+            settingsValidator.validateFileSize(Files.size(file));
+        } catch (FileSizeLimitException e) {
+            deleteQuietly(file);
+            logger.warn("Failed to store image: {}", e.getMessage());
+            throw new IOException(e.getMessage(), e);
+        }
+        return storeUpload(file, originalFilename, null, userId);
+    }
+
+    /**
+     * Сохраняет загруженный файл как изображение. Файл переходит во владение метода
+     * и удаляется после сохранения.
+     */
+    private Image storeUpload(Path upload, String sourceFilename, String sourceContentType, String userId) throws IOException {
+        Path webpFile = null;
+        boolean uploadHandedOver = false;
+        try {
+            String contentHash = imageBlobService.hash(upload);
+            String originalFilename = getFileNameWithoutExtension(sourceFilename) + ".webp";
+            // WebP-конвертация не меняет размеры, поэтому они читаются из заголовка исходного файла
+            ImageSize dimensions = ImageSize.read(upload);
+
+            // Одинаковые данные уже сохранены: ссылаемся на них без конвертации и записи в MinIO
+            ImageBlobEntity blob = imageBlobService.acquire(contentHash);
+            Image image;
+            if (blob != null) {
+                image = new Image(originalFilename, WEBP_CONTENT_TYPE, blob.getSize());
+                logger.info("Deduplicated upload: hash={}, object={}", contentHash, blob.getObjectName());
+            } else {
+                if (!imageProcessor.isSupportedFormat(upload)) {
+                    throw new IOException("Unsupported image format: "
+                            + (sourceContentType != null ? sourceContentType : sourceFilename));
+                }
+
+                webpFile = imageProcessor.convertToWebp(upload);
+                long webpSize = Files.size(webpFile);
 
-            byte[] webpData = imageProcessor.convertToWebp(imageData);
-            if (webpData == null) {
-                throw new IOException("Failed to convert image to WebP");
+                image = new Image(originalFilename, WEBP_CONTENT_TYPE, webpSize);
+                blob = storeBlob(contentHash, webpFile, webpSize);
             }
+            image.setObjectName(blob.getObjectName());
+            image.setContentHash(contentHash);
 
-            String originalFilename = getFileNameWithoutExtension(file.getOriginalFilename()) + ".webp";
-            Image image = new Image(originalFilename, WEBP_CONTENT_TYPE, webpData.length);
+            if (dimensions != null) {
+                image.setWidth(dimensions.getWidth());
+                image.setHeight(dimensions.getHeight());
+            }
             
             // Установка ID пользователя для изображения
             if (userId != null) {
@@ -208,40 +304,29 @@ public class MinioImageStorageService implements ImageStorageService {
                 logger.info("User info is null, setting user ID to 'anonymous'");
             }
 
-            try (ByteArrayInputStream inputStream = new ByteArrayInputStream(webpData)) {
-                minioClient.putObject(
-                        PutObjectArgs.builder()
-                                .bucket(bucketName)
-                                .object(image.getObjectName())
-                                .contentType(WEBP_CONTENT_TYPE)
-                                .stream(inputStream, webpData.length, -1)
-                                .build()
-                );
-                
-                String backupObjectName = BACKUP_PREFIX + image.getObjectName();
-                minioClient.putObject(
-                        PutObjectArgs.builder()
-                                .bucket(backupBucketName)
-                                .object(backupObjectName)
-                                .contentType(WEBP_CONTENT_TYPE)
-                                .stream(new ByteArrayInputStream(webpData), webpData.length, -1)
-                                .build()
-                );
-            }
-
             ImageEntity entity = imageMapper.toEntity(image);
             imageRepository.save(entity);
 
+            if (webpFile != null) {
+                // Исходный файл передаётся генерации уменьшенных копий, она удалит его сама
+                generateVariantsAfterCommit(image.getObjectName(), upload);
+                uploadHandedOver = true;
+            }
+
             logger.info("Successfully stored WebP image: id={}, name={}, original format={}, userId={}",
-                    image.getId(), image.getOriginalFilename(), file.getContentType(), image.getUserId());
+                    image.getId(), image.getOriginalFilename(), sourceContentType, image.getUserId());
             return image;
 
-        } catch (FileSizeLimitException | UserQuotaExceededException e) {
-            logger.warn("Failed to store image: {}", e.getMessage());
-            throw new IOException(e.getMessage(), e);
         } catch (Exception e) {
             logger.error("Failed to store image as WebP", e);
             throw new IOException("Failed to store image as WebP: " + e.getMessage(), e);
+        } finally {
+            if (webpFile != null && !webpFile.equals(upload)) {
+                deleteQuietly(webpFile);
+            }
+            if (!uploadHandedOver) {
+                deleteQuietly(upload);
+            }
         }
     }
 
@@ -261,36 +346,9 @@ public class MinioImageStorageService implements ImageStorageService {
         }
 
         try {
+            String sourceObjectName = detachObjectName(image);
             if (image.getCompressionLevel() == 0 && compressionLevel > 0) {
-                byte[] originalData = getImage(imageId);
-                
-                String backupObjectName = BACKUP_PREFIX + image.getObjectName();
-                boolean backupExists = false;
-                
-                try {
-                    minioClient.statObject(
-                            StatObjectArgs.builder()
-                                    .bucket(backupBucketName)
-                                    .object(backupObjectName)
-                                    .build()
-                    );
-                    backupExists = true;
-                } catch (Exception e) {
-                }
-                
-                if (!backupExists) {
-                    try (ByteArrayInputStream inputStream = new ByteArrayInputStream(originalData)) {
-                        minioClient.putObject(
-                                PutObjectArgs.builder()
-                                        .bucket(backupBucketName)
-                                        .object(backupObjectName)
-                                        .contentType(WEBP_CONTENT_TYPE)
-                                        .stream(inputStream, originalData.length, -1)
-                                        .build()
-                        );
-                        logger.info("Created backup of original image: id={}", imageId);
-                    }
-                }
+                ensureBackup(image, sourceObjectName);
             }
 
             try (ByteArrayInputStream inputStream = new ByteArrayInputStream(imageData)) {
@@ -303,6 +361,8 @@ public class MinioImageStorageService implements ImageStorageService {
                                 .build()
                 );
             }
+            invalidateCacheAfterCommit(imageId);
+            removeVariantsAfterCommit(image.getObjectName());
 
             ImageEntity entity = imageRepository.findById(imageId).orElse(null);
             if (entity == null) {
@@ -312,6 +372,7 @@ public class MinioImageStorageService implements ImageStorageService {
             entity.setSize(imageData.length);
             entity.setCompressionLevel(compressionLevel);
             entity.setLastAccessed(LocalDateTime.now());
+            releaseBlob(entity, image.getObjectName(), sourceObjectName);
             
             imageRepository.save(entity);
 
@@ -326,6 +387,289 @@ public class MinioImageStorageService implements ImageStorageService {
         }
     }
 
+    @Override
+    @Transactional
+    public Image updateImageCompressionFromStaging(String imageId, String stagingKey, int compressionLevel) throws IOException {
+        Image image = getImageMetadata(imageId);
+        if (image == null) {
+            logger.warn("Image not found: id={}", imageId);
+            throw new IOException("Image not found with id: " + imageId);
+        }
+
+        try {
+            StatObjectResponse staged = minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(stagingBucketName)
+                            .object(stagingKey)
+                            .build()
+            );
+
+            String sourceObjectName = detachObjectName(image);
+            if (image.getCompressionLevel() == 0 && compressionLevel > 0) {
+                ensureBackup(image, sourceObjectName);
+            }
+
+            minioClient.copyObject(
+                    CopyObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(image.getObjectName())
+                            .source(CopySource.builder()
+                                    .bucket(stagingBucketName)
+                                    .object(stagingKey)
+                                    .build())
+                            .build()
+            );
+            invalidateCacheAfterCommit(imageId);
+            removeVariantsAfterCommit(image.getObjectName());
+
+            try {
+                minioClient.removeObject(
+                        RemoveObjectArgs.builder()
+                                .bucket(stagingBucketName)
+                                .object(stagingKey)
+                                .build()
+                );
+            } catch (Exception e) {
+                logger.warn("Failed to remove staged upload, it will expire: key={}", stagingKey, e);
+            }
+
+            ImageEntity entity = imageRepository.findById(imageId).orElse(null);
+            if (entity == null) {
+                throw new IOException("Image entity not found in database: " + imageId);
+            }
+
+            entity.setSize(staged.size());
+            entity.setCompressionLevel(compressionLevel);
+            entity.setLastAccessed(LocalDateTime.now());
+            releaseBlob(entity, image.getObjectName(), sourceObjectName);
+
+            imageRepository.save(entity);
+
+            logger.info("Successfully committed staged image compression: id={}, compressionLevel={}, size={}",
+                    imageId, compressionLevel, staged.size());
+
+            return imageMapper.toModel(entity);
+
+        } catch (Exception e) {
+            logger.error("Failed to commit staged image compression: id={}, key={}", imageId, stagingKey, e);
+            throw new IOException("Failed to update image compression: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Registers new content and writes its objects. The content is registered first, so an
+     * identical upload running concurrently waits for this transaction and then references
+     * the content instead of writing it again. If the transaction rolls back, the written
+     * objects are removed.
+     */
+    private ImageBlobEntity storeBlob(String contentHash, Path webpFile, long size) throws Exception {
+        String objectName = imageBlobService.objectName(contentHash);
+        if (!imageBlobService.register(contentHash, objectName, size)) {
+            ImageBlobEntity blob = imageBlobService.acquire(contentHash);
+            if (blob == null) {
+                throw new IOException("Identical content was stored and removed concurrently, retry the upload");
+            }
+            return blob;
+        }
+
+        discardOnRollback(contentHash, objectName, size);
+        storeWithBackup(objectName, webpFile);
+        return new ImageBlobEntity(contentHash, objectName, size);
+    }
+
+    /**
+     * Starts rendition generation once the new image is committed, so a failed upload leaves
+     * no renditions behind. The upload file is deleted if the transaction rolls back.
+     */
+    private void generateVariantsAfterCommit(String objectName, Path upload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            imageVariantService.generateAsync(objectName, upload);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    imageVariantService.generateAsync(objectName, upload);
+                } else {
+                    deleteQuietly(upload);
+                }
+            }
+        });
+    }
+
+    private void discardOnRollback(String contentHash, String objectName, long size) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    imageBlobService.discard(contentHash, objectName, size, () -> {
+                        removeQuietly(bucketName, objectName);
+                        removeQuietly(backupBucketName, BACKUP_PREFIX + objectName);
+                        imageVariantService.remove(objectName);
+                    });
+                } catch (Exception e) {
+                    logger.warn("Failed to discard content of a rolled back upload: hash={}", contentHash, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves an image that references shared content to an object of its own, since shared
+     * objects are never overwritten. The image's entity keeps the old name until
+     * {@link #releaseBlob} is called.
+     *
+     * @return name of the object currently holding the image data
+     */
+    private String detachObjectName(Image image) {
+        String sourceObjectName = image.getObjectName();
+        if (image.getContentHash() != null) {
+            image.setObjectName(Image.objectNameFor(image.getId(), image.getOriginalFilename()));
+        }
+        return sourceObjectName;
+    }
+
+    /**
+     * Drops the reference of a detached image to shared content and points its entity at
+     * the image's own object. The shared objects are removed with the last reference.
+     */
+    private void releaseBlob(ImageEntity entity, String objectName, String blobObjectName) {
+        if (entity.getContentHash() == null) {
+            return;
+        }
+        boolean lastReference = imageBlobService.release(entity.getContentHash());
+        entity.setContentHash(null);
+        entity.setObjectName(objectName);
+        if (lastReference) {
+            removeQuietly(bucketName, blobObjectName);
+            removeQuietly(backupBucketName, BACKUP_PREFIX + blobObjectName);
+            imageVariantService.remove(blobObjectName);
+        }
+    }
+
+    /**
+     * Writes a new image and its backup copy concurrently from a file. Files larger than
+     * the part size are sent as multipart uploads, so each write buffers at most one part.
+     * If either write fails, both objects are removed so that no half-stored image is left behind.
+     */
+    private void storeWithBackup(String objectName, Path file) throws Exception {
+        CompletableFuture<ObjectWriteResponse> primary = minioAsyncClient.uploadObject(
+                UploadObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .contentType(WEBP_CONTENT_TYPE)
+                        .filename(file.toString(), uploadPartSize)
+                        .build()
+        );
+        CompletableFuture<ObjectWriteResponse> backup = minioAsyncClient.uploadObject(
+                UploadObjectArgs.builder()
+                        .bucket(backupBucketName)
+                        .object(BACKUP_PREFIX + objectName)
+                        .contentType(WEBP_CONTENT_TYPE)
+                        .filename(file.toString(), uploadPartSize)
+                        .build()
+        );
+
+        try {
+            CompletableFuture.allOf(primary, backup).join();
+        } catch (CompletionException e) {
+            removeQuietly(bucketName, objectName);
+            removeQuietly(backupBucketName, BACKUP_PREFIX + objectName);
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Drops a cached image once the surrounding transaction has finished. Evicting earlier
+     * lets a concurrent read cache the new bytes under the still-committed old metadata.
+     * Outside of a transaction the image is dropped immediately.
+     */
+    private void invalidateCacheAfterCommit(String id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            imageDataCache.invalidate(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // The object in MinIO has already been rewritten, so a rollback evicts as well
+                imageDataCache.invalidate(id);
+            }
+        });
+    }
+
+    /**
+     * Removes the renditions of an object rewritten in place once the surrounding transaction
+     * has finished, they are generated again from the new data on first request.
+     * Outside of a transaction they are removed immediately.
+     */
+    private void removeVariantsAfterCommit(String objectName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            imageVariantService.remove(objectName);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // The object in MinIO has already been rewritten, so a rollback removes them as well
+                imageVariantService.remove(objectName);
+            }
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void removeQuietly(String bucket, String objectName) {
+        try {
+            minioClient.removeObject(
+                    RemoveObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(objectName)
+                            .build()
+            );
+        } catch (Exception e) {
+            logger.warn("Failed to remove object: bucket={}, object={}", bucket, objectName, e);
+        }
+    }
+
+    /**
+     * Copies the current image object to the backup bucket on the MinIO side.
+     * Only called while the image is still uncompressed, so the copy always holds the original
+     * and overwriting an existing backup with it is harmless.
+     *
+     * @param sourceObjectName object currently holding the image data, differs from the image's
+     *                         object name when the image is being detached from shared content
+     */
+    private void ensureBackup(Image image, String sourceObjectName) throws Exception {
+        minioClient.copyObject(
+                CopyObjectArgs.builder()
+                        .bucket(backupBucketName)
+                        .object(BACKUP_PREFIX + image.getObjectName())
+                        .source(CopySource.builder()
+                                .bucket(bucketName)
+                                .object(sourceObjectName)
+                                .build())
+                        .build()
+        );
+        logger.info("Created backup of original image: id={}", image.getId());
+    }
+
     @Override
     public byte[] getOriginalImageBackup(String id) throws IOException {
         Image image = getImageMetadata(id);
@@ -365,38 +709,39 @@ public class MinioImageStorageService implements ImageStorageService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public byte[] getImage(String id) throws IOException {
-        Image image = getImageMetadata(id);
-        if (image == null) {
+        try (ImageContent content = openImage(id)) {
+            if (content == null) {
+                return null;
+            }
+            byte[] data = content.getStream().readAllBytes();
+            logger.info("Retrieved image: id={}, size={}", id, data.length);
+            return data;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImageContent openImage(String id, long offset, long length) throws IOException {
+        ImageEntity entity = imageRepository.findById(id).orElse(null);
+        if (entity == null) {
             logger.warn("Image not found: id={}", id);
             return null;
         }
 
         try {
-            ImageEntity entity = imageRepository.findById(id).orElse(null);
-            if (entity != null) {
-                entity.incrementAccessCount();
-                imageRepository.save(entity);
+            ImageContent content;
+            if (imageDataCache.isCacheable(entity.getSize())) {
+                content = imageDataCache.get(id, () -> loadForCache(entity)).open(offset, length);
+            } else {
+                content = openObject(entity, offset, length);
             }
 
-            GetObjectResponse response = minioClient.getObject(
-                    GetObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(image.getObjectName())
-                            .build()
-            );
+            accessCountRecorder.record(id);
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            while ((bytesRead = response.read(buffer, 0, buffer.length)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
-
-            logger.info("Retrieved image: id={}, name={}, accessCount={}",
-                    image.getId(), image.getOriginalFilename(), image.getAccessCount() + 1);
-            return outputStream.toByteArray();
+            logger.debug("Opened image: id={}, name={}", entity.getId(), entity.getOriginalFilename());
+            return content;
 
         } catch (Exception e) {
             logger.error("Failed to get image: id={}", id, e);
@@ -404,6 +749,130 @@ public class MinioImageStorageService implements ImageStorageService {
         }
     }
 
+    /**
+     * Runs without a transaction: a missing rendition is generated here, and no database
+     * connection should be held while the image is downloaded and encoded.
+     */
+    @Override
+    public ImageContent openImageVariant(String id, ImageVariant variant) throws IOException {
+        if (!variant.isRendition()) {
+            return openImage(id);
+        }
+
+        ImageEntity entity = imageRepository.findById(id).orElse(null);
+        if (entity == null) {
+            logger.warn("Image not found: id={}", id);
+            return null;
+        }
+
+        String renditionName = imageVariantService.objectName(entity.getObjectName(), variant);
+        try {
+            ImageContent content = openRendition(renditionName);
+            if (content == null && imageVariantService.ensureRendition(entity.getObjectName(), variant)) {
+                content = openRendition(renditionName);
+            }
+            if (content == null) {
+                logger.warn("No {} rendition of image id={}, returning the full image", variant.getName(), id);
+                content = openObject(entity, 0, -1);
+            }
+            return content;
+        } catch (Exception e) {
+            logger.error("Failed to get image rendition: id={}, variant={}", id, variant.getName(), e);
+            throw new IOException("Failed to get image rendition: " + e.getMessage(), e);
+        }
+    }
+
+    private ImageContent openRendition(String renditionName) throws Exception {
+        try {
+            return openObject(renditionName, null, 0, -1);
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private ImageContent openObject(ImageEntity entity, long offset, long length) throws Exception {
+        return openObject(entity.getObjectName(), entity.getContentType(), offset, length);
+    }
+
+    private ImageContent openObject(String objectName, String contentType, long offset, long length) throws Exception {
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName);
+        if (offset > 0 || length >= 0) {
+            args.offset(offset);
+            if (length >= 0) {
+                args.length(length);
+            }
+        }
+        GetObjectResponse response = minioClient.getObject(args.build());
+
+        long contentLength = contentLength(response);
+        return new ImageContent(response, contentLength,
+                contentType != null ? contentType : response.headers().get("Content-Type"),
+                versionOf(response, contentLength));
+    }
+
+    private ImageDataCache.CachedImage loadForCache(ImageEntity entity) throws IOException {
+        try (ImageContent content = openObject(entity, 0, -1)) {
+            byte[] data = content.getStream().readAllBytes();
+            return imageDataCache.wrap(data, content.getContentType(), content.getVersion());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to load image: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public ImageVersion getImageVersion(String id) throws IOException {
+        ImageEntity entity = imageRepository.findById(id).orElse(null);
+        if (entity == null) {
+            return null;
+        }
+
+        ImageDataCache.CachedImage cached = imageDataCache.peek(id);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+
+        try {
+            StatObjectResponse stat = minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(entity.getObjectName())
+                            .build()
+            );
+            return new ImageVersion(stat.etag(),
+                    stat.lastModified() != null ? stat.lastModified().toInstant().toEpochMilli() : -1,
+                    stat.size());
+        } catch (Exception e) {
+            logger.error("Failed to get image version: id={}", id, e);
+            throw new IOException("Failed to get image version: " + e.getMessage(), e);
+        }
+    }
+
+    private static long contentLength(GetObjectResponse response) {
+        String length = response.headers().get("Content-Length");
+        return length != null ? Long.parseLong(length) : -1;
+    }
+
+    private static ImageVersion versionOf(GetObjectResponse response, long contentLength) {
+        // A ranged read reports the full object size after the slash: "bytes 0-99/12345"
+        long size = contentLength;
+        String contentRange = response.headers().get("Content-Range");
+        if (contentRange != null && contentRange.lastIndexOf('/') >= 0) {
+            String total = contentRange.substring(contentRange.lastIndexOf('/') + 1);
+            size = "*".equals(total) ? -1 : Long.parseLong(total);
+        }
+
+        Date lastModified = response.headers().getDate("Last-Modified");
+        return new ImageVersion(response.headers().get("ETag"),
+                lastModified != null ? lastModified.getTime() : -1, size);
+    }
+
     @Override
     public Image getImageMetadata(String id) {
         ImageEntity entity = imageRepository.findById(id).orElse(null);
@@ -440,6 +909,92 @@ public class MinioImageStorageService implements ImageStorageService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ImageUsage getUserUsage(String userId) {
+        return imageRepository.getUsageByUserId(userId);
+    }
+
+    @Override
+    public DedupStats getDedupStats() {
+        return imageBlobService.getStats();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImagePage findImages(ImageFilter filter, ImageSortField sortField, Sort.Direction direction,
+                                String cursor, int page, int size) {
+        Sort sort = Sort.by(direction, sortField.getProperty()).and(Sort.by(direction, "id"));
+        Specification<ImageEntity> spec = ImageSpecifications.matching(filter);
+
+        if (cursor == null || cursor.isEmpty()) {
+            Page<ImageEntity> result = imageRepository.findAll(spec, PageRequest.of(page, size, sort));
+            List<ImageEntity> rows = result.getContent();
+            String nextCursor = result.hasNext() && !rows.isEmpty()
+                    ? encodeCursor(sortField, direction, rows.get(rows.size() - 1)) : null;
+            return new ImagePage(rows.stream().map(imageMapper::toModel).collect(Collectors.toList()),
+                    page, size, result.getTotalElements(), result.getTotalPages(), nextCursor);
+        }
+
+        spec = spec.and(afterCursor(sortField, direction, cursor));
+        List<ImageEntity> rows = imageRepository.findBy(spec, query -> query.sortBy(sort).limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+        String nextCursor = hasNext ? encodeCursor(sortField, direction, rows.get(rows.size() - 1)) : null;
+        return new ImagePage(rows.stream().map(imageMapper::toModel).collect(Collectors.toList()),
+                page, size, null, null, nextCursor);
+    }
+
+    /**
+     * Cursor format: base64url("field|direction|value|id") of the last row of the page
+     */
+    private static String encodeCursor(ImageSortField sortField, Sort.Direction direction, ImageEntity last) {
+        String value = switch (sortField) {
+            case UPLOADED_AT -> last.getUploadedAt().toString();
+            case SIZE -> Long.toString(last.getSize());
+            case ACCESS_COUNT -> Integer.toString(last.getAccessCount());
+        };
+        String raw = sortField.name() + "|" + direction.name() + "|" + value + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Specification<ImageEntity> afterCursor(ImageSortField sortField, Sort.Direction direction,
+                                                          String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        if (parts.length != 4 || !sortField.name().equals(parts[0]) || !direction.name().equals(parts[1])) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+
+        String property = sortField.getProperty();
+        try {
+            return switch (sortField) {
+                case UPLOADED_AT -> ImageSpecifications.after(property, direction, LocalDateTime.parse(parts[2]), parts[3]);
+                case SIZE -> ImageSpecifications.after(property, direction, Long.valueOf(parts[2]), parts[3]);
+                case ACCESS_COUNT -> ImageSpecifications.after(property, direction, Integer.valueOf(parts[2]), parts[3]);
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    @Override
+    public List<String> findImageIds(String mangaId, String chapterId, long minSize, long maxSize) {
+        if (chapterId != null && !chapterId.isEmpty()) {
+            return imageRepository.findIdsByChapterIdAndSizeRange(chapterId, minSize, maxSize);
+        }
+        if (mangaId != null && !mangaId.isEmpty()) {
+            return imageRepository.findIdsByMangaIdAndSizeRange(mangaId, minSize, maxSize);
+        }
+        return imageRepository.findIdsBySizeRange(minSize, maxSize);
+    }
+
     @Override
     @Transactional
     public boolean deleteImage(String id) throws IOException {
@@ -452,12 +1007,22 @@ public class MinioImageStorageService implements ImageStorageService {
         Image image = imageMapper.toModel(entity);
 
         try {
+            // Общие данные удаляются только вместе с последней ссылкой на них
+            if (image.getContentHash() != null && !imageBlobService.release(image.getContentHash())) {
+                invalidateCacheAfterCommit(id);
+                imageRepository.deleteById(id);
+                logger.info("Deleted image referencing shared content: id={}, hash={}", id, image.getContentHash());
+                return true;
+            }
+
             minioClient.removeObject(
                     RemoveObjectArgs.builder()
                             .bucket(bucketName)
                             .object(image.getObjectName())
                             .build()
             );
+            invalidateCacheAfterCommit(id);
+            imageVariantService.remove(image.getObjectName());
 
             try {
                 String backupObjectName = BACKUP_PREFIX + image.getObjectName();
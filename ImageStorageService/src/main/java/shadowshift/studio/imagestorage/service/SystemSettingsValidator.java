@@ -18,6 +18,7 @@ import java.util.Map;
 @Service
 public class SystemSettingsValidator {
     private static final Logger logger = LoggerFactory.getLogger(SystemSettingsValidator.class);
+    private static final String DEFAULT_MAX_FILE_SIZE = "10485760"; // 10MB
     
     private final AuthServiceClient authServiceClient;
     
@@ -30,16 +31,21 @@ public class SystemSettingsValidator {
      * Проверка размера файла согласно системным настройкам
      */
     public void validateFileSize(MultipartFile file) {
+        validateFileSize(file.getSize());
+    }
+    
+    /**
+     * Проверка размера файла в байтах согласно системным настройкам
+     */
+    public void validateFileSize(long fileSize) {
         try {
             Map<String, String> fileLimits = authServiceClient.getFileLimits();
             
             long maxFileSize = Long.parseLong(
-                    fileLimits.getOrDefault("max_file_size", "10485760")); // По умолчанию 10MB
+                    fileLimits.getOrDefault("max_file_size", DEFAULT_MAX_FILE_SIZE));
             long minFileSize = Long.parseLong(
                     fileLimits.getOrDefault("min_file_size", "1024")); // По умолчанию 1KB
             
-            long fileSize = file.getSize();
-            
             if (fileSize > maxFileSize) {
                 throw new FileSizeLimitException("Размер файла превышает максимально допустимый: " + 
                         formatFileSize(fileSize) + " > " + formatFileSize(maxFileSize));
@@ -61,6 +67,18 @@ public class SystemSettingsValidator {
         }
     }
     
+    /**
+     * Максимально допустимый размер файла в байтах согласно системным настройкам
+     */
+    public long getMaxFileSize() {
+        try {
+            return Long.parseLong(authServiceClient.getFileLimits().getOrDefault("max_file_size", DEFAULT_MAX_FILE_SIZE));
+        } catch (NumberFormatException e) {
+            logger.error("Ошибка парсинга числовых лимитов файлов", e);
+            return Long.parseLong(DEFAULT_MAX_FILE_SIZE);
+        }
+    }
+    
     /**
      * Проверка квоты пользователя на количество изображений
      */
@@ -1,138 +1,100 @@
 package shadowshift.studio.imagestorage.service;
 
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import shadowshift.studio.imagecodec.ImageCodec;
+import shadowshift.studio.imagecodec.ImageFormat;
+import shadowshift.studio.imagecodec.webp.CWebp;
+import shadowshift.studio.imagecodec.webp.CWebpException;
+import shadowshift.studio.imagecodec.webp.WebpOptions;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 
 @Service
 public class WebImageProcessor {
 
     private static final Logger logger = LoggerFactory.getLogger(WebImageProcessor.class);
     
+    private static final Set<ImageFormat> ACCEPTED_FORMATS =
+            EnumSet.of(ImageFormat.JPEG, ImageFormat.PNG, ImageFormat.GIF, ImageFormat.WEBP);
+    
+    private final ImageCodec imageCodec;
+    
     @Value("${webp.binary.path:./webp_binaries}")
     private String webpBinaryPath;
+    
+    @Value("${webp.upload.quality:90}")
+    private int uploadQuality;
+    
+    public WebImageProcessor(ImageCodec imageCodec) {
+        this.imageCodec = imageCodec;
+    }
+    
+    /**
+     * Point the codec at the configured cwebp binary; if it is missing the codec
+     * falls back to the binaries installed in the system
+     */
+    @PostConstruct
+    public void init() {
+        String cwebpExecutable = getCwebpExecutablePath();
+        if (new File(cwebpExecutable).exists()) {
+            CWebp.configureBinary(cwebpExecutable);
+        } else {
+            logger.warn("WebP converter executable not found at: {}, using system cwebp", cwebpExecutable);
+        }
+    }
 
     /**
      * Check if the image format is supported for processing
      * 
-     * @param imageData binary image data
+     * @param imageFile image file, only its header is read
      * @return true if format is supported, false otherwise
+     * @throws IOException if the file cannot be read
      */
-    public boolean isSupportedFormat(byte[] imageData) {
-        if (imageData == null || imageData.length < 12) {
-            return false;
-        }
-        
-        if (imageData[0] == (byte)0xFF && imageData[1] == (byte)0xD8) {
-            return true;
-        }
-        
-        if (imageData[0] == (byte)0x89 && imageData[1] == (byte)0x50 &&
-            imageData[2] == (byte)0x4E && imageData[3] == (byte)0x47) {
-            return true;
-        }
-        
-        if (imageData[0] == (byte)0x47 && imageData[1] == (byte)0x49 &&
-            imageData[2] == (byte)0x46 && imageData[3] == (byte)0x38) {
-            return true;
-        }
-        
-        if (imageData[8] == (byte)0x57 && imageData[9] == (byte)0x45 &&
-            imageData[10] == (byte)0x42 && imageData[11] == (byte)0x50) {
-            return true;
-        }
-        
-        return false;
+    public boolean isSupportedFormat(Path imageFile) throws IOException {
+        return ACCEPTED_FORMATS.contains(imageCodec.detectFormat(imageFile));
     }
     
     /**
-     * Convert image data to WebP format
+     * Convert an image file to WebP format. The image is streamed through the encoder
+     * process, so large uploads are never held in memory.
      * 
-     * @param imageData binary image data
-     * @return WebP formatted binary data, or null if conversion fails
+     * @param imageFile image file
+     * @return a new temporary WebP file owned by the caller, or the original file
+     *         if the encoder cannot handle the image
+     * @throws IOException if the files cannot be read or created, or if the encoder is
+     *         overloaded or failed by itself, so that the upload fails instead of storing
+     *         an unconverted image
      */
-    public byte[] convertToWebp(byte[] imageData) {
-        if (imageData == null) {
-            return null;
-        }
-        
-        String cwebpExecutable = getCwebpExecutablePath();
-        File cwebpFile = new File(cwebpExecutable);
-        
-        if (!cwebpFile.exists()) {
-            logger.error("WebP converter executable not found at: {}", cwebpExecutable);
-            return imageData;
-        }
-        
-        if (!cwebpFile.canExecute()) {
-            logger.error("WebP converter executable found but is not executable: {}", cwebpExecutable);
-            try {
-                cwebpFile.setExecutable(true);
-                logger.info("Successfully made WebP converter executable: {}", cwebpExecutable);
-            } catch (SecurityException e) {
-                logger.error("Failed to make WebP converter executable: {}", e.getMessage());
-                return imageData;
-            }
+    public Path convertToWebp(Path imageFile) throws IOException {
+        ImageFormat format = imageCodec.detectFormat(imageFile);
+        if (!format.isWebpEncodable()) {
+            logger.info("Format {} cannot be encoded to WebP, storing original image", format);
+            return imageFile;
         }
         
+        Path webpFile = Files.createTempFile("upload_", ".webp");
         try {
-            File inputFile = File.createTempFile("image_input_", ".bin");
-            File outputFile = File.createTempFile("image_output_", ".webp");
-            
-            Files.write(inputFile.toPath(), imageData);
-            
-            String[] command = {
-                cwebpExecutable,
-                "-quiet",
-                "-q", "90",
-                inputFile.getAbsolutePath(),
-                "-o", outputFile.getAbsolutePath()
-            };
-            
-            logger.info("Executing WebP conversion command: {}", String.join(" ", command));
-            
-            ProcessBuilder processBuilder = new ProcessBuilder(command);
-            Process process = processBuilder.start();
-            
-            int exitCode = process.waitFor();
-            
-            if (exitCode == 0) {
-                byte[] webpData = Files.readAllBytes(outputFile.toPath());
-                
-                inputFile.delete();
-                outputFile.delete();
-                
-                logger.info("WebP conversion successful, converted image size: {} bytes", webpData.length);
-                return webpData;
-            } else {
-                logger.error("WebP conversion failed with exit code: {}", exitCode);
-                
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(process.getErrorStream()))) {
-                    String line;
-                    StringBuilder error = new StringBuilder();
-                    while ((line = reader.readLine()) != null) {
-                        error.append(line).append("\n");
-                    }
-                    logger.error("WebP conversion error: {}", error.toString());
-                }
-                
-                inputFile.delete();
-                outputFile.delete();
-                
-                logger.info("Returning original image as fallback (no conversion)");
-                return imageData;
+            imageCodec.encodeWebp(imageFile, webpFile, new WebpOptions(uploadQuality));
+            logger.info("WebP conversion successful, converted image size: {} bytes", Files.size(webpFile));
+            return webpFile;
+        } catch (CWebpException e) {
+            Files.deleteIfExists(webpFile);
+            if (e.isTransient()) {
+                throw new IOException("WebP encoder is unavailable: " + e.getMessage(), e);
             }
-        } catch (IOException | InterruptedException e) {
             logger.error("Error converting image to WebP: {}", e.getMessage(), e);
-            return imageData;
+            logger.info("Returning original image as fallback (no conversion)");
+            return imageFile;
         }
     }
     
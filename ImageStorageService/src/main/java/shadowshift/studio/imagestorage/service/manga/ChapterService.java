@@ -1,6 +1,7 @@
 package shadowshift.studio.imagestorage.service.manga;
 
 import shadowshift.studio.imagestorage.model.manga.Chapter;
+import shadowshift.studio.imagestorage.model.manga.ChapterManifest;
 import java.util.List;
 
 /**
@@ -59,6 +60,15 @@ public interface ChapterService {
      */
     boolean deleteChapter(String id);
     
+    /**
+     * Get the reader manifest of a chapter: chapter metadata and its ordered pages
+     * with image dimensions, sizes and URLs, loaded with a single join over pages and images
+     * 
+     * @param id chapter ID
+     * @return chapter manifest, or null if not found
+     */
+    ChapterManifest getChapterManifest(String id);
+    
     /**
      * Increment view count for a chapter
      * 
@@ -4,21 +4,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import shadowshift.studio.imagestorage.entity.manga.ChapterEntity;
 import shadowshift.studio.imagestorage.entity.manga.VolumeEntity;
 import shadowshift.studio.imagestorage.mapper.manga.ChapterMapper;
+import shadowshift.studio.imagestorage.model.ImageVariant;
 import shadowshift.studio.imagestorage.model.manga.Chapter;
+import shadowshift.studio.imagestorage.model.manga.ChapterManifest;
+import shadowshift.studio.imagestorage.model.manga.ManifestPage;
 import shadowshift.studio.imagestorage.repository.manga.ChapterRepository;
 import shadowshift.studio.imagestorage.repository.manga.PageRepository;
 import shadowshift.studio.imagestorage.repository.manga.VolumeRepository;
 
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class ChapterServiceImpl implements ChapterService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChapterServiceImpl.class);
+    private static final String IMAGE_URL_PREFIX = "/api/images/";
     
     private final VolumeRepository volumeRepository;
     private final ChapterRepository chapterRepository;
@@ -133,6 +141,59 @@ public class ChapterServiceImpl implements ChapterService {
         return true;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ChapterManifest getChapterManifest(String id) {
+        logger.info("Building manifest for chapter {}", id);
+        ChapterEntity entity = chapterRepository.findById(id).orElse(null);
+        if (entity == null) {
+            logger.warn("Chapter not found with id: {}", id);
+            return null;
+        }
+        
+        ChapterManifest manifest = new ChapterManifest();
+        manifest.setChapterId(entity.getId());
+        manifest.setVolumeId(entity.getVolume().getId());
+        manifest.setChapterNumber(entity.getChapterNumber());
+        manifest.setTitle(entity.getTitle());
+        manifest.setPublished(entity.isPublished());
+        
+        // Timestamps are left out of the version: viewing a chapter updates it
+        StringBuilder version = new StringBuilder()
+                .append(entity.getId()).append('|')
+                .append(manifest.getVolumeId()).append('|')
+                .append(entity.getChapterNumber()).append('|')
+                .append(entity.getTitle()).append('|')
+                .append(entity.isPublished());
+        
+        List<ManifestPage> pages = pageRepository.findManifestPages(id);
+        for (ManifestPage page : pages) {
+            String url = IMAGE_URL_PREFIX + page.getImageId();
+            Map<String, String> renditions = new LinkedHashMap<>();
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (variant.isRendition()) {
+                    renditions.put(variant.getName(), url + "?variant=" + variant.getName());
+                }
+            }
+            page.setUrl(url);
+            page.setRenditions(renditions);
+            
+            version.append('\n')
+                    .append(page.getId()).append('|')
+                    .append(page.getPageNumber()).append('|')
+                    .append(page.getImageId()).append('|')
+                    .append(page.getWidth()).append('|')
+                    .append(page.getHeight()).append('|')
+                    .append(page.getSize()).append('|')
+                    .append(page.getContentHash());
+        }
+        manifest.setPages(pages);
+        manifest.setPageCount(pages.size());
+        manifest.setETag("\"" + DigestUtils.md5DigestAsHex(version.toString().getBytes(StandardCharsets.UTF_8)) + "\"");
+        
+        return manifest;
+    }
+
     @Override
     @Transactional
     public void incrementViewCount(String id) {
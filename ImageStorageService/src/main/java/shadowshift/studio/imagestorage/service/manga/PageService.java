@@ -32,6 +32,32 @@ public interface PageService {
      */
     Page uploadPage(String chapterId, int pageNumber, MultipartFile file, String userId) throws IOException;
     
+    /**
+     * Upload several pages of a chapter at once. Images are converted and stored in parallel,
+     * pages are numbered in the order the files are given
+     * 
+     * @param chapterId chapter ID
+     * @param startPageNumber number of the first page (0 to append after the existing pages)
+     * @param files image files to upload
+     * @param userId ID of the user uploading the pages
+     * @return created pages, or null if the chapter is not found
+     * @throws IOException if any of the images cannot be stored; none of the pages are created then
+     */
+    List<Page> uploadPages(String chapterId, int startPageNumber, List<MultipartFile> files, String userId) throws IOException;
+    
+    /**
+     * Upload the pages of a chapter from a zip archive. Pages are numbered in the natural
+     * order of the entry names, so that page2.png comes before page10.png
+     * 
+     * @param chapterId chapter ID
+     * @param startPageNumber number of the first page (0 to append after the existing pages)
+     * @param archive zip archive with page images
+     * @param userId ID of the user uploading the pages
+     * @return created pages, or null if the chapter is not found
+     * @throws IOException if the archive or any of the images cannot be read or stored
+     */
+    List<Page> uploadPagesFromArchive(String chapterId, int startPageNumber, MultipartFile archive, String userId) throws IOException;
+    
     /**
      * Update an existing page
      * 
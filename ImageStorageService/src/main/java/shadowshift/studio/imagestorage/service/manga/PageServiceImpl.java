@@ -1,9 +1,16 @@
 package shadowshift.studio.imagestorage.service.manga;
 
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import shadowshift.studio.imagestorage.entity.manga.ChapterEntity;
 import shadowshift.studio.imagestorage.entity.manga.PageEntity;
@@ -13,31 +20,79 @@ import shadowshift.studio.imagestorage.model.manga.Page;
 import shadowshift.studio.imagestorage.repository.manga.ChapterRepository;
 import shadowshift.studio.imagestorage.repository.manga.PageRepository;
 import shadowshift.studio.imagestorage.service.ImageStorageService;
+import shadowshift.studio.imagestorage.service.SystemSettingsValidator;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 @Service
 public class PageServiceImpl implements PageService {
 
     private static final Logger logger = LoggerFactory.getLogger(PageServiceImpl.class);
+    private static final String INSERT_PAGE_SQL = "INSERT INTO manga_pages "
+            + "(id, chapter_id, page_number, image_id, created_at, updated_at, view_count) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_PAGE_NUMBER_SQL =
+            "UPDATE manga_pages SET page_number = ?, updated_at = ? WHERE id = ?";
     
     private final ChapterRepository chapterRepository;
     private final PageRepository pageRepository;
     private final PageMapper pageMapper;
     private final ImageStorageService imageStorageService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SystemSettingsValidator settingsValidator;
+    private final ExecutorService ingestExecutor;
+    private final int bulkParallelism;
+    private final int maxBulkPages;
+    private final long maxArchiveBytes;
 
     public PageServiceImpl(ChapterRepository chapterRepository, 
                           PageRepository pageRepository,
                           PageMapper pageMapper,
-                          ImageStorageService imageStorageService) {
+                          ImageStorageService imageStorageService,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          SystemSettingsValidator settingsValidator,
+                          @Value("${manga.pages.bulk.parallelism:4}") int bulkParallelism,
+                          @Value("${manga.pages.bulk.max-pages:500}") int maxBulkPages,
+                          @Value("${manga.pages.bulk.max-archive-bytes:1073741824}") long maxArchiveBytes) {
         this.chapterRepository = chapterRepository;
         this.pageRepository = pageRepository;
         this.pageMapper = pageMapper;
         this.imageStorageService = imageStorageService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settingsValidator = settingsValidator;
+        // Shared by all bulk uploads, so concurrent uploads do not multiply the encoder load
+        this.ingestExecutor = Executors.newFixedThreadPool(bulkParallelism,
+                Thread.ofPlatform().name("page-ingest-", 0).daemon().factory());
+        this.bulkParallelism = bulkParallelism;
+        this.maxBulkPages = maxBulkPages;
+        this.maxArchiveBytes = maxArchiveBytes;
     }
 
     @Override
@@ -97,6 +152,298 @@ public class PageServiceImpl implements PageService {
         return pageMapper.toModel(savedEntity);
     }
 
+    @Override
+    public List<Page> uploadPages(String chapterId, int startPageNumber, List<MultipartFile> files, String userId) throws IOException {
+        logger.info("Bulk uploading {} pages for chapter {}", files.size(), chapterId);
+        ChapterEntity chapterEntity = chapterRepository.findById(chapterId).orElse(null);
+        if (chapterEntity == null) {
+            logger.warn("Cannot upload pages: chapter not found with id: {}", chapterId);
+            return null;
+        }
+        if (files.size() > maxBulkPages) {
+            throw new IllegalArgumentException("Too many pages in one upload: " + files.size() + " > " + maxBulkPages);
+        }
+        
+        // Each image is stored in a transaction of its own, the chapter is not locked meanwhile.
+        // At most one task per ingest thread is queued for this upload at a time
+        Semaphore inFlight = new Semaphore(bulkParallelism);
+        List<Future<Image>> uploads = new ArrayList<>();
+        try {
+            for (MultipartFile file : files) {
+                uploads.add(submitUpload(inFlight, () -> imageStorageService.storeImage(file, null, null, userId)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleteImages(collectStored(uploads));
+            throw new IOException("Interrupted while uploading pages", e);
+        }
+        return createPages(chapterEntity, startPageNumber, awaitUploads(uploads));
+    }
+
+    @Override
+    public List<Page> uploadPagesFromArchive(String chapterId, int startPageNumber, MultipartFile archive, String userId) throws IOException {
+        logger.info("Bulk uploading pages for chapter {} from archive {}", chapterId, archive.getOriginalFilename());
+        ChapterEntity chapterEntity = chapterRepository.findById(chapterId).orElse(null);
+        if (chapterEntity == null) {
+            logger.warn("Cannot upload pages: chapter not found with id: {}", chapterId);
+            return null;
+        }
+        
+        // Entries are extracted one by one while the previous ones are being converted.
+        // Extraction stops at the size limits instead of trusting the sizes the archive declares
+        long maxEntryBytes = settingsValidator.getMaxFileSize();
+        long extractedBytes = 0;
+        Semaphore inFlight = new Semaphore(bulkParallelism);
+        Map<String, Future<Image>> uploads = new TreeMap<>(PageServiceImpl::compareNatural);
+        List<Path> pageFiles = new ArrayList<>();
+        try {
+            try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (!isPageEntry(entry) || uploads.containsKey(entry.getName())) {
+                        continue;
+                    }
+                    if (uploads.size() >= maxBulkPages) {
+                        throw new IllegalArgumentException("Too many pages in one upload, the limit is " + maxBulkPages);
+                    }
+                    
+                    Path pageFile = Files.createTempFile("page_", ".bin");
+                    pageFiles.add(pageFile);
+                    long limit = Math.min(maxEntryBytes, maxArchiveBytes - extractedBytes);
+                    long copied = copyAtMost(zip, pageFile, limit + 1);
+                    if (copied > maxEntryBytes) {
+                        throw new IllegalArgumentException("Archive entry " + entry.getName()
+                                + " is larger than " + maxEntryBytes + " bytes");
+                    }
+                    if (copied > limit) {
+                        throw new IllegalArgumentException("Archive content is larger than " + maxArchiveBytes + " bytes");
+                    }
+                    extractedBytes += copied;
+                    
+                    String filename = Paths.get(entry.getName()).getFileName().toString();
+                    uploads.put(entry.getName(), submitUpload(inFlight,
+                            () -> imageStorageService.storeImage(pageFile, filename, userId)));
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                deleteImages(collectStored(uploads.values()));
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                deleteImages(collectStored(uploads.values()));
+                throw new IOException("Interrupted while uploading pages", e);
+            }
+            
+            if (uploads.isEmpty()) {
+                throw new IllegalArgumentException("Archive contains no pages");
+            }
+            return createPages(chapterEntity, startPageNumber, awaitUploads(new ArrayList<>(uploads.values())));
+        } finally {
+            // Stored pages have deleted their files already, this removes the ones never processed
+            pageFiles.forEach(PageServiceImpl::deleteQuietly);
+        }
+    }
+
+    /**
+     * Submits one page upload once fewer than the allowed number of this request's uploads
+     * are queued or running
+     */
+    private Future<Image> submitUpload(Semaphore inFlight, Callable<Image> upload) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            return ingestExecutor.submit(() -> {
+                try {
+                    return upload.call();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Copies at most the given number of bytes of the stream to a file
+     *
+     * @return number of bytes copied
+     */
+    private static long copyAtMost(InputStream in, Path file, long maxBytes) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            long copied = 0;
+            while (copied < maxBytes) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, maxBytes - copied));
+                if (read < 0) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                copied += read;
+            }
+            return copied;
+        }
+    }
+
+    /**
+     * Waits for all uploads of a batch. If any of them fails or the wait is interrupted,
+     * the images already stored are deleted, so a failed batch leaves nothing behind.
+     */
+    private List<Image> awaitUploads(List<Future<Image>> uploads) throws IOException {
+        List<Image> images = new ArrayList<>(uploads.size());
+        Throwable failure = null;
+        for (Future<Image> upload : uploads) {
+            try {
+                images.add(upload.get());
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+                break;
+            }
+        }
+        
+        if (failure != null) {
+            deleteImages(collectStored(uploads));
+            throw new IOException("Failed to upload pages: " + failure.getMessage(), failure);
+        }
+        return images;
+    }
+
+    /**
+     * Cancels the uploads that have not started and waits for the running ones, returning
+     * every image stored. Interrupts are deferred while waiting, since a running upload may
+     * still store an image that has to be deleted.
+     */
+    private static List<Image> collectStored(Collection<Future<Image>> uploads) {
+        boolean interrupted = Thread.interrupted();
+        List<Image> stored = new ArrayList<>();
+        for (Future<Image> upload : uploads) {
+            if (upload.cancel(false)) {
+                continue;
+            }
+            while (true) {
+                try {
+                    stored.add(upload.get());
+                    break;
+                } catch (ExecutionException e) {
+                    // Nothing was stored for this page
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return stored;
+    }
+
+    /**
+     * Numbers the pages in one pass and inserts them with a single JDBC batch
+     */
+    private List<Page> createPages(ChapterEntity chapterEntity, int startPageNumber, List<Image> images) throws IOException {
+        int pageNumber = startPageNumber > 0
+                ? startPageNumber
+                : (int) pageRepository.countByChapterId(chapterEntity.getId()) + 1;
+        
+        List<PageEntity> entities = new ArrayList<>(images.size());
+        List<Object[]> rows = new ArrayList<>(images.size());
+        for (Image image : images) {
+            PageEntity entity = new PageEntity();
+            entity.setId(UUID.randomUUID().toString());
+            entity.setChapter(chapterEntity);
+            entity.setPageNumber(pageNumber++);
+            entity.setImageId(image.getId());
+            entities.add(entity);
+            rows.add(new Object[]{entity.getId(), chapterEntity.getId(), entity.getPageNumber(),
+                    entity.getImageId(), entity.getCreatedAt(), entity.getUpdatedAt()});
+        }
+        
+        try {
+            // The batch is committed as a whole, the images are deleted only after its rollback
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_PAGE_SQL, rows));
+        } catch (DataAccessException | TransactionException e) {
+            deleteImages(images);
+            throw new IOException("Failed to create pages: " + e.getMessage(), e);
+        }
+        
+        logger.info("Created {} pages for chapter {}", entities.size(), chapterEntity.getId());
+        return entities.stream()
+                .map(pageMapper::toModel)
+                .collect(Collectors.toList());
+    }
+
+    private void deleteImages(List<Image> images) {
+        for (Image image : images) {
+            try {
+                imageStorageService.deleteImage(image.getId());
+            } catch (IOException e) {
+                logger.warn("Failed to delete image {} of a failed page upload: {}", image.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Skips directories, hidden files and the metadata macOS adds to archives
+     */
+    private static boolean isPageEntry(ZipEntry entry) {
+        if (entry.isDirectory() || entry.getName().startsWith("__MACOSX/")) {
+            return false;
+        }
+        Path name = Paths.get(entry.getName()).getFileName();
+        return name != null && !name.toString().startsWith(".");
+    }
+
+    /**
+     * Compares names so that runs of digits are ordered by their numeric value
+     */
+    static int compareNatural(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            if (Character.isDigit(ca) && Character.isDigit(cb)) {
+                int startA = i;
+                int startB = j;
+                while (i < a.length() && Character.isDigit(a.charAt(i))) {
+                    i++;
+                }
+                while (j < b.length() && Character.isDigit(b.charAt(j))) {
+                    j++;
+                }
+                String numberA = a.substring(startA, i).replaceFirst("^0+(?=.)", "");
+                String numberB = b.substring(startB, j).replaceFirst("^0+(?=.)", "");
+                int result = numberA.length() != numberB.length()
+                        ? Integer.compare(numberA.length(), numberB.length())
+                        : numberA.compareTo(numberB);
+                if (result != 0) {
+                    return result;
+                }
+            } else {
+                int result = Character.compare(Character.toLowerCase(ca), Character.toLowerCase(cb));
+                if (result != 0) {
+                    return result;
+                }
+                i++;
+                j++;
+            }
+        }
+        int result = Integer.compare(a.length() - i, b.length() - j);
+        return result != 0 ? result : a.compareTo(b);
+    }
+
     @Override
     @Transactional
     public Page updatePage(String id, Page page) {
@@ -159,26 +506,39 @@ public class PageServiceImpl implements PageService {
     public List<Page> reorderPages(String chapterId, List<String> pageIds) {
         logger.info("Reordering {} pages for chapter: {}", pageIds.size(), chapterId);
         
-        List<PageEntity> updatedEntities = new ArrayList<>();
+        // One query loads all pages, one JDBC batch writes the new numbers. The loaded
+        // entities are left unchanged so that Hibernate does not update them again on flush
+        Map<String, PageEntity> entities = pageRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(PageEntity::getId, Function.identity()));
+        
+        // Every occurrence of a page listed twice gets a model of its own with the number it
+        // was given there; the database keeps the last one
+        List<Page> updatedPages = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
         int pageNumber = 1;
         
         for (String pageId : pageIds) {
-            PageEntity entity = pageRepository.findById(pageId).orElse(null);
+            PageEntity entity = entities.get(pageId);
             
             if (entity != null && entity.getChapter() != null && 
                 entity.getChapter().getId().equals(chapterId)) {
                 
-                entity.setPageNumber(pageNumber++);
-                updatedEntities.add(pageRepository.save(entity));
+                Page page = pageMapper.toModel(entity);
+                page.setPageNumber(pageNumber++);
+                page.setUpdatedAt(now);
+                updatedPages.add(page);
+                updates.add(new Object[]{page.getPageNumber(), now, pageId});
             } else {
                 logger.warn("Ignoring invalid page id in reorder operation: {}", pageId);
             }
         }
         
-        // Return the updated pages
-        return updatedEntities.stream()
-                .map(pageMapper::toModel)
-                .collect(Collectors.toList());
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_PAGE_NUMBER_SQL, updates);
+        }
+        
+        return updatedPages;
     }
 
     @Override
@@ -188,4 +548,9 @@ public class PageServiceImpl implements PageService {
         Optional<PageEntity> entityOpt = pageRepository.findByImageId(imageId);
         return entityOpt.map(pageMapper::toModel).orElse(null);
     }
+
+    @PreDestroy
+    public void shutdown() {
+        ingestExecutor.shutdownNow();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,208 @@
+package shadowshift.studio.imagestorage.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import shadowshift.studio.imagestorage.client.AuthServiceClient;
+import shadowshift.studio.imagestorage.messaging.StatisticsEventSender;
+import shadowshift.studio.imagestorage.model.Image;
+import shadowshift.studio.imagestorage.model.ImageContent;
+import shadowshift.studio.imagestorage.model.ImageFilter;
+import shadowshift.studio.imagestorage.model.ImageSortField;
+import shadowshift.studio.imagestorage.model.ImageVersion;
+import shadowshift.studio.imagestorage.repository.manga.MangaRepository;
+import shadowshift.studio.imagestorage.repository.manga.VolumeRepository;
+import shadowshift.studio.imagestorage.service.ImageStorageService;
+
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ImageControllerTest {
+
+    private static final String ID = "image-1";
+    private static final byte[] DATA = "0123456789".getBytes();
+    private static final long LAST_MODIFIED = ZonedDateTime.parse("2024-05-01T12:30:00Z").toInstant().toEpochMilli();
+    private static final ImageVersion VERSION = new ImageVersion("abc", LAST_MODIFIED, DATA.length);
+
+    private ImageStorageService imageStorageService;
+    private StatisticsEventSender statisticsEventSender;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageStorageService = mock(ImageStorageService.class);
+        statisticsEventSender = mock(StatisticsEventSender.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ImageController(imageStorageService, statisticsEventSender,
+                mock(AuthServiceClient.class), mock(VolumeRepository.class), mock(MangaRepository.class))).build();
+
+        when(imageStorageService.getImageMetadata(ID)).thenReturn(new Image("image.webp", "image/webp", DATA.length));
+        when(imageStorageService.getImageVersion(ID)).thenReturn(VERSION);
+        when(imageStorageService.openImage(ID)).thenAnswer(invocation -> imageContent(0, DATA.length));
+        when(imageStorageService.openImage(eq(ID), any(Long.class), any(Long.class))).thenAnswer(invocation ->
+                imageContent(invocation.getArgument(1), invocation.getArgument(2)));
+    }
+
+    @Test
+    void servesWholeImageWithValidators() throws Exception {
+        perform(get("/api/images/" + ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(DATA));
+        verify(statisticsEventSender).sendViewEvent(ID);
+        verify(imageStorageService, never()).getImageVersion(ID);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        perform(get("/api/images/" + ID).header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""));
+        verify(imageStorageService, never()).openImage(ID);
+    }
+
+    @Test
+    void weakAndListedETagsMatch() throws Exception {
+        perform(get("/api/images/" + ID).header(HttpHeaders.IF_NONE_MATCH, "\"old\", W/\"abc\""))
+                .andExpect(status().isNotModified());
+        perform(get("/api/images/" + ID).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void staleIfNoneMatchServesTheImage() throws Exception {
+        perform(get("/api/images/" + ID).header(HttpHeaders.IF_NONE_MATCH, "\"old\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(DATA));
+    }
+
+    @Test
+    void ifNoneMatchTakesPrecedenceOverIfModifiedSince() throws Exception {
+        perform(get("/api/images/" + ID)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"old\"")
+                .header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(LAST_MODIFIED)))
+                .andExpect(status().isOk());
+        perform(get("/api/images/" + ID).header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void servesSingleRange() throws Exception {
+        perform(get("/api/images/" + ID).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().bytes("2345".getBytes()));
+        verify(imageStorageService).openImage(ID, 2, 4);
+        verify(statisticsEventSender, never()).sendViewEvent(anyString());
+    }
+
+    @Test
+    void suffixRangeServesTheEnd() throws Exception {
+        perform(get("/api/images/" + ID).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"));
+    }
+
+    @Test
+    void rangeBeyondTheEndIsNotSatisfiable() throws Exception {
+        perform(get("/api/images/" + ID).header(HttpHeaders.RANGE, "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+        verify(imageStorageService, never()).openImage(eq(ID), any(Long.class), any(Long.class));
+    }
+
+    @Test
+    void multipleOrInvalidRangesServeTheWholeImage() throws Exception {
+        perform(get("/api/images/" + ID).header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(DATA));
+        perform(get("/api/images/" + ID).header(HttpHeaders.RANGE, "items=0-1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ifRangeWithCurrentETagServesTheRange() throws Exception {
+        perform(get("/api/images/" + ID)
+                .header(HttpHeaders.RANGE, "bytes=0-1")
+                .header(HttpHeaders.IF_RANGE, "\"abc\""))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-1/10"));
+    }
+
+    @Test
+    void ifRangeWithStaleETagServesTheWholeImage() throws Exception {
+        perform(get("/api/images/" + ID)
+                .header(HttpHeaders.RANGE, "bytes=0-1")
+                .header(HttpHeaders.IF_RANGE, "\"old\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(DATA));
+    }
+
+    @Test
+    void ifRangeWithDateComparesLastModified() throws Exception {
+        perform(get("/api/images/" + ID)
+                .header(HttpHeaders.RANGE, "bytes=0-1")
+                .header(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED)))
+                .andExpect(status().isPartialContent());
+        perform(get("/api/images/" + ID)
+                .header(HttpHeaders.RANGE, "bytes=0-1")
+                .header(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED - 60_000)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        when(imageStorageService.findImages(any(ImageFilter.class), any(ImageSortField.class), any(), eq("broken"),
+                anyInt(), anyInt())).thenThrow(new IllegalArgumentException("Malformed cursor"));
+
+        perform(get("/api/images").param("cursor", "broken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Malformed cursor"));
+    }
+
+    /**
+     * Streamed bodies are written asynchronously, so those responses are dispatched once more
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(result));
+        }
+        return actions;
+    }
+
+    private static ImageContent imageContent(long offset, long length) {
+        int end = length < 0 ? DATA.length : (int) (offset + length);
+        byte[] data = Arrays.copyOfRange(DATA, (int) offset, end);
+        return new ImageContent(new ByteArrayInputStream(data), data.length, "image/webp", VERSION);
+    }
+
+    private static String httpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,124 @@
+package shadowshift.studio.imagestorage.service;
+
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import shadowshift.studio.imagestorage.entity.ImageEntity;
+import shadowshift.studio.imagestorage.mapper.ImageMapper;
+import shadowshift.studio.imagestorage.model.ImageFilter;
+import shadowshift.studio.imagestorage.model.ImagePage;
+import shadowshift.studio.imagestorage.model.ImageSortField;
+import shadowshift.studio.imagestorage.repository.ImageRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MinioImageStorageServiceCursorTest {
+
+    private ImageRepository imageRepository;
+    private MinioImageStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        imageRepository = mock(ImageRepository.class);
+        service = new MinioImageStorageService(mock(MinioClient.class), mock(MinioAsyncClient.class),
+                imageRepository, new ImageMapper(), mock(WebImageProcessor.class),
+                mock(SystemSettingsValidator.class), mock(ImageDataCache.class), mock(AccessCountRecorder.class),
+                mock(ImageBlobService.class), mock(ImageVariantService.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nextCursorEncodesSortAndLastRow() {
+        LocalDateTime uploadedAt = LocalDateTime.of(2024, 5, 1, 12, 30);
+        when(imageRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(entity("a", 10, uploadedAt.plusDays(1)), entity("b", 20, uploadedAt)),
+                        PageRequest.of(0, 2), 5));
+
+        ImagePage page = service.findImages(new ImageFilter(), ImageSortField.UPLOADED_AT, Sort.Direction.DESC, null, 0, 2);
+
+        assertEquals("UPLOADED_AT|DESC|" + uploadedAt + "|b", decode(page.getNextCursor()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cursorContinuesWithoutCounting() {
+        String cursor = encode("SIZE|ASC|20|b");
+        doReturn(List.of(entity("c", 30, LocalDateTime.now()))).when(imageRepository).findBy(any(Specification.class), any());
+
+        ImagePage page = service.findImages(new ImageFilter(), ImageSortField.SIZE, Sort.Direction.ASC, cursor, 0, 2);
+
+        assertEquals(1, page.getImages().size());
+        assertNull(page.getNextCursor());
+        assertNull(page.getTotalElements());
+        verify(imageRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fullCursorPageHasNextCursor() {
+        String cursor = encode("ACCESS_COUNT|DESC|7|b");
+        ImageEntity c = entity("c", 30, LocalDateTime.now());
+        c.setAccessCount(5);
+        ImageEntity d = entity("d", 40, LocalDateTime.now());
+        d.setAccessCount(3);
+        doReturn(List.of(c, d)).when(imageRepository).findBy(any(Specification.class), any());
+
+        ImagePage page = service.findImages(new ImageFilter(), ImageSortField.ACCESS_COUNT, Sort.Direction.DESC, cursor, 0, 1);
+
+        assertEquals(1, page.getImages().size());
+        assertEquals("ACCESS_COUNT|DESC|5|c", decode(page.getNextCursor()));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertMalformed("not base64!");
+        assertMalformed(encode("SIZE|ASC|twenty|b"));
+        assertMalformed(encode("SIZE|ASC|20"));
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSortOrder() {
+        assertMalformed(encode("UPLOADED_AT|ASC|2024-05-01T12:30|b"));
+        assertMalformed(encode("SIZE|DESC|20|b"));
+    }
+
+    private void assertMalformed(String cursor) {
+        assertThrows(IllegalArgumentException.class, () ->
+                service.findImages(new ImageFilter(), ImageSortField.SIZE, Sort.Direction.ASC, cursor, 0, 2));
+    }
+
+    private static ImageEntity entity(String id, long size, LocalDateTime uploadedAt) {
+        ImageEntity entity = new ImageEntity();
+        entity.setId(id);
+        entity.setSize(size);
+        entity.setUploadedAt(uploadedAt);
+        return entity;
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,46 @@
+package shadowshift.studio.imagestorage.service.manga;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageServiceImplTest {
+
+    @Test
+    void ordersRunsOfDigitsByValue() {
+        assertTrue(PageServiceImpl.compareNatural("page2.png", "page10.png") < 0);
+        assertTrue(PageServiceImpl.compareNatural("page10.png", "page9.png") > 0);
+        assertTrue(PageServiceImpl.compareNatural("ch1/p99.jpg", "ch2/p1.jpg") < 0);
+    }
+
+    @Test
+    void ignoresLeadingZerosAndCase() {
+        assertTrue(PageServiceImpl.compareNatural("007.png", "10.png") < 0);
+        assertTrue(PageServiceImpl.compareNatural("Page3.png", "page12.png") < 0);
+    }
+
+    @Test
+    void distinctNamesNeverCompareEqual() {
+        assertTrue(PageServiceImpl.compareNatural("01.png", "1.png") != 0);
+        assertTrue(PageServiceImpl.compareNatural("A.png", "a.png") != 0);
+        assertEquals(0, PageServiceImpl.compareNatural("12.png", "12.png"));
+    }
+
+    @Test
+    void shorterPrefixComesFirst() {
+        assertTrue(PageServiceImpl.compareNatural("page", "page1") < 0);
+        assertTrue(PageServiceImpl.compareNatural("1", "1a") < 0);
+    }
+
+    @Test
+    void sortsArchiveEntriesInReadingOrder() {
+        List<String> names = new ArrayList<>(List.of("10.jpg", "2.jpg", "1.jpg", "extra/1.jpg", "001b.jpg", "1a.jpg"));
+        names.sort(PageServiceImpl::compareNatural);
+
+        assertEquals(List.of("1.jpg", "1a.jpg", "001b.jpg", "2.jpg", "10.jpg", "extra/1.jpg"), names);
+    }
+}